@@ -0,0 +1,13 @@
+#!/bin/bash
+# Clones the primary with pg_basebackup on first start, then runs as a hot standby
+set -e
+if [ ! -s "$PGDATA/PG_VERSION" ]; then
+  until pg_basebackup -h db -U "$POSTGRES_USER" -D "$PGDATA" -R -X stream; do
+    echo "Waiting for primary to accept replication connections..."
+    rm -rf "${PGDATA:?}"/*
+    sleep 2
+  done
+  chown -R postgres:postgres "$PGDATA"
+  chmod 700 "$PGDATA"
+fi
+exec docker-entrypoint.sh postgres
@@ -3,7 +3,7 @@ import { authToken } from './auth0';
 
 const API_BASE = '/api';
 
-async function apiRequest(path, options = {}) {
+async function sendRequest(path, options = {}) {
   const token = get(authToken);
   if (!token) {
     throw new Error('Missing auth token');
@@ -36,6 +36,10 @@ async function apiRequest(path, options = {}) {
     throw error;
   }
 
+  return response;
+}
+
+async function parseBody(response) {
   if (response.status === 204) {
     return null;
   }
@@ -48,8 +52,51 @@ async function apiRequest(path, options = {}) {
   return response.text();
 }
 
+async function apiRequest(path, options = {}) {
+  return parseBody(await sendRequest(path, options));
+}
+
+// List endpoints are keyset-paginated; follow X-Next-Cursor until the last page
+async function apiRequestAll(path, params = {}, after = null) {
+  const items = [];
+  let cursor = after;
+  do {
+    const query = new URLSearchParams({ ...params, limit: '500' });
+    if (cursor) {
+      query.set('after', cursor);
+    }
+    const response = await sendRequest(`${path}?${query}`);
+    items.push(...(await parseBody(response)));
+    cursor = response.headers.get('X-Next-Cursor');
+  } while (cursor);
+  return items;
+}
+
+// Account, counts, first list pages and the first pack's and closet's contents in one request.
+// With complete: true the lists are continued until every item is loaded.
+export async function fetchBootstrap({ limit = 100, complete = false } = {}) {
+  const data = await apiRequest(`/bootstrap?limit=${limit}`);
+  const result = {
+    ...data,
+    packs: data.packs.items,
+    closets: data.closets.items,
+    gear: data.gear.items
+  };
+  if (complete) {
+    const [morePacks, moreClosets, moreGear] = await Promise.all([
+      data.packs.nextCursor ? apiRequestAll('/pack', {}, data.packs.nextCursor) : [],
+      data.closets.nextCursor ? apiRequestAll('/closet', {}, data.closets.nextCursor) : [],
+      data.gear.nextCursor ? apiRequestAll('/gear', {}, data.gear.nextCursor) : []
+    ]);
+    result.packs = [...result.packs, ...morePacks];
+    result.closets = [...result.closets, ...moreClosets];
+    result.gear = [...result.gear, ...moreGear];
+  }
+  return result;
+}
+
 export async function fetchClosets() {
-  return apiRequest('/closet');
+  return apiRequestAll('/closet');
 }
 
 export async function fetchCloset(id) {
@@ -94,7 +141,12 @@ export async function removeGearFromCloset(closetId, gearId) {
 }
 
 export async function fetchGear() {
-  return apiRequest('/gear');
+  return apiRequestAll('/gear');
+}
+
+export async function searchGear(query, limit = 20) {
+  const params = new URLSearchParams({ q: query, limit: String(limit) });
+  return apiRequest(`/gear/search?${params}`);
 }
 
 export async function createGear(payload) {
@@ -132,7 +184,7 @@ export async function createGearAndAddToCloset(closetId, payload) {
 }
 
 export async function fetchPacks() {
-  return apiRequest('/pack');
+  return apiRequestAll('/pack');
 }
 
 export async function fetchPack(id) {
@@ -163,6 +215,10 @@ export async function fetchPackGear(packId) {
   return apiRequest(`/pack/${packId}/gear`);
 }
 
+export async function fetchPackSummary(packId) {
+  return apiRequest(`/pack/${packId}/summary`);
+}
+
 export async function addGearToPack(packId, payload) {
   return apiRequest(`/pack/${packId}/gear`, {
     method: 'POST',
@@ -177,6 +233,13 @@ export async function createGearAndAddToPack(packId, payload) {
   });
 }
 
+export async function editPackGear(packId, operations) {
+  return apiRequest(`/pack/${packId}/gear`, {
+    method: 'PATCH',
+    body: JSON.stringify({ operations })
+  });
+}
+
 export async function updatePackGearQuantity(packId, gearId, payload) {
   return apiRequest(`/pack/${packId}/gear/${gearId}`, {
     method: 'PUT',
@@ -189,3 +252,75 @@ export async function removeGearFromPack(packId, gearId) {
     method: 'DELETE'
   });
 }
+
+// Changes since a token from a previous sync; without one it only returns a starting token.
+// Follows hasMore pages; a 410 means the token expired and everything must be reloaded.
+export async function fetchSync(since) {
+  const changes = [];
+  let token = since;
+  let hasMore;
+  do {
+    const query = new URLSearchParams({ limit: '1000' });
+    if (token) {
+      query.set('since', token);
+    }
+    const page = await apiRequest(`/sync?${query}`);
+    changes.push(...page.changes);
+    token = page.token;
+    hasMore = page.hasMore;
+  } while (hasMore);
+  return { changes, token };
+}
+
+// Streams change notifications ({ type, id, version }) from /changes. EventSource cannot send the
+// bearer token, so this reads the event stream with fetch. The server closes streams that fall
+// behind; onReconnect is called after reconnecting so callers can catch up (e.g. with fetchSync).
+// Returns a function that stops the stream.
+export function subscribeChanges(onChange, onReconnect = () => {}) {
+  const controller = new AbortController();
+
+  async function run() {
+    let reconnecting = false;
+    while (!controller.signal.aborted) {
+      try {
+        const response = await sendRequest('/changes', {
+          headers: { Accept: 'text/event-stream' },
+          signal: controller.signal
+        });
+        if (reconnecting) {
+          onReconnect();
+        }
+        const reader = response.body.pipeThrough(new TextDecoderStream()).getReader();
+        let buffer = '';
+        for (;;) {
+          const { value, done } = await reader.read();
+          if (done) {
+            break;
+          }
+          buffer += value;
+          const events = buffer.split('\n\n');
+          buffer = events.pop();
+          for (const event of events) {
+            const data = event
+              .split('\n')
+              .filter((line) => line.startsWith('data:'))
+              .map((line) => line.slice(5).trim())
+              .join('\n');
+            if (data) {
+              onChange(JSON.parse(data));
+            }
+          }
+        }
+      } catch (error) {
+        if (controller.signal.aborted) {
+          return;
+        }
+      }
+      reconnecting = true;
+      await new Promise((resolve) => setTimeout(resolve, 2000));
+    }
+  }
+
+  run();
+  return () => controller.abort();
+}
@@ -0,0 +1,131 @@
+package com.packtrace.metrics;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import jakarta.interceptor.InvocationContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What {@link RepositoryMetricsInterceptor} adds to each repository call, with the fixed buckets from
+ * {@link LatencyHistograms}, with Micrometer's default percentile histogram, and with no histogram at all. The
+ * intercepted call itself does nothing, so the score is the interceptor's cost alone.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RepositoryMetricsBenchmark {
+
+    @Param({"fixed", "percentile", "none"})
+    String histogram;
+
+    private RepositoryMetricsInterceptor interceptor;
+    private InvocationContext context;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        switch (histogram) {
+            case "fixed" -> registry.config().meterFilter(new LatencyHistograms().latencyHistograms());
+            case "percentile" -> registry.config().meterFilter(new MeterFilter() {
+                @Override
+                public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                    return DistributionStatisticConfig.builder().percentilesHistogram(true).build().merge(config);
+                }
+            });
+            default -> {
+            }
+        }
+        interceptor = new RepositoryMetricsInterceptor();
+        interceptor.registry = registry;
+        context = new Call(Lookup.class.getMethod("findById", Long.class));
+    }
+
+    @Benchmark
+    public Object direct() throws Exception {
+        return context.proceed();
+    }
+
+    @Benchmark
+    public Object intercepted() throws Exception {
+        return interceptor.measure(context);
+    }
+
+    public static class Lookup {
+        public Object findById(Long id) {
+            return id;
+        }
+    }
+
+    private static final class Call implements InvocationContext {
+
+        private static final Long RESULT = 42L;
+
+        private final Method method;
+        private final Map<String, Object> contextData = new HashMap<>();
+
+        Call(Method method) {
+            this.method = method;
+        }
+
+        @Override
+        public Object proceed() {
+            return RESULT;
+        }
+
+        @Override
+        public Method getMethod() {
+            return method;
+        }
+
+        @Override
+        public Object getTarget() {
+            return null;
+        }
+
+        @Override
+        public Object getTimer() {
+            return null;
+        }
+
+        @Override
+        public Constructor<?> getConstructor() {
+            return null;
+        }
+
+        @Override
+        public Object[] getParameters() {
+            return new Object[] {RESULT};
+        }
+
+        @Override
+        public void setParameters(Object[] params) {
+        }
+
+        @Override
+        public Map<String, Object> getContextData() {
+            return contextData;
+        }
+    }
+}
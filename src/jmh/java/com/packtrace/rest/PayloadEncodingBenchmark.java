@@ -0,0 +1,103 @@
+package com.packtrace.rest;
+
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.packtrace.dto.GearResponse;
+import com.packtrace.dto.PackGearResponse;
+import com.packtrace.dto.PageResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encoding cost of the two large read bodies as JSON and as CBOR ({@link CborMessageBodyWriter}), each plain and
+ * gzipped at the level Vert.x compresses with (6). The encoded sizes are printed once per fork.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PayloadEncodingBenchmark {
+
+    private static final ObjectMapper JSON = new ObjectMapper().findAndRegisterModules();
+    private static final ObjectMapper CBOR = CBORMapper.builder()
+            .findAndAddModules()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .build();
+
+    // A gear library page at the default limit, and a full pack
+    @Param({"gearPage", "packContents"})
+    String body;
+
+    private Object entity;
+
+    @Setup
+    public void setUp() throws IOException {
+        entity = "gearPage".equals(body) ? gearPage(100) : packContents(40);
+        System.out.printf("%n%s bytes: json=%d json+gzip=%d cbor=%d cbor+gzip=%d%n", body,
+                json().length, jsonGzip().length, cbor().length, cborGzip().length);
+    }
+
+    @Benchmark
+    public byte[] json() throws IOException {
+        return encode(JSON, false);
+    }
+
+    @Benchmark
+    public byte[] jsonGzip() throws IOException {
+        return encode(JSON, true);
+    }
+
+    @Benchmark
+    public byte[] cbor() throws IOException {
+        return encode(CBOR, false);
+    }
+
+    @Benchmark
+    public byte[] cborGzip() throws IOException {
+        return encode(CBOR, true);
+    }
+
+    private byte[] encode(ObjectMapper mapper, boolean gzip) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(8192);
+        try (OutputStream out = gzip ? new GZIPOutputStream(bytes, 8192) : bytes) {
+            mapper.writeValue(out, entity);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static PageResponse<GearResponse> gearPage(int size) {
+        List<GearResponse> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++)
+            items.add(new GearResponse(100_000L + i, "Ultralight item " + i, "Outfitter " + i % 12, 40 + i * 7 % 900,
+                    "https://gear.example.com/catalog/ultralight-item-" + i, "Category " + i % 8));
+        return new PageResponse<>(items, "eyJuYW1lIjoiVWx0cmFsaWdodCBpdGVtIDk5IiwiaWQiOjEwMDA5OX0");
+    }
+
+    private static List<PackGearResponse> packContents(int size) {
+        List<PackGearResponse> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++)
+            items.add(new PackGearResponse(100_000L + i, "Ultralight item " + i, "Outfitter " + i % 12,
+                    40 + i * 7 % 900, 1 + i % 3));
+        return items;
+    }
+}
@@ -0,0 +1,85 @@
+package com.packtrace.security;
+
+import io.github.bucket4j.Bucket;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link RateLimitBucketStore} against the unbounded map it replaced, with requests from a set of clients that
+ * fits in the store ("hot") and from ten times more clients than it holds ("churn", e.g. an address scan).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx1g")
+@Threads(8)
+public class RateLimitBucketStoreBenchmark {
+
+    // Large enough that no request is denied, so both sides do the same work per call
+    private static final RateLimitPolicy POLICY = new RateLimitPolicy("general", 1_000_000_000L, Duration.ofMinutes(1));
+
+    @Param({"hot", "churn"})
+    String clients;
+
+    @Param("10000")
+    int hotClients;
+
+    @Param("1000000")
+    int churnClients;
+
+    private String[] hotIds;
+    private final AtomicLong nextChurnId = new AtomicLong();
+
+    private RateLimitBucketStore store;
+    private ConcurrentHashMap<String, Bucket> map;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        hotIds = new String[hotClients];
+        for (int i = 0; i < hotClients; i++)
+            hotIds[i] = "auth0|client-" + i;
+
+        store = new RateLimitBucketStore();
+        store.maximumBuckets = 100_000;
+        store.expireAfterAccess = Duration.ofMinutes(20);
+        map = new ConcurrentHashMap<>();
+    }
+
+    @Benchmark
+    public RateLimitDecision boundedStore() {
+        return store.tryConsume(POLICY, nextClient(), 1);
+    }
+
+    // As RateLimitFilter did before the store: one map for every policy, keyed by client and policy
+    @Benchmark
+    public boolean unboundedMap() {
+        Bucket bucket = map.computeIfAbsent(nextClient() + ":general",
+                key -> Bucket.builder().addLimit(POLICY.toBandwidth()).build());
+        return bucket.tryConsume(1);
+    }
+
+    private String nextClient() {
+        return "churn".equals(clients)
+                ? "10.0." + nextChurnId.incrementAndGet() % churnClients
+                : hotIds[ThreadLocalRandom.current().nextInt(hotIds.length)];
+    }
+}
@@ -0,0 +1,46 @@
+package com.packtrace.concurrency;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Semaphore sized to the JDBC pool. With virtual threads there is no worker-pool limit in front of
+ * the 8 connections any more, so this is what keeps a burst from piling up on acquisition-timeout.
+ */
+@ApplicationScoped
+public class AdmissionGate {
+
+    @ConfigProperty(name = "packtrace.admission.permits", defaultValue = "8")
+    int permits;
+
+    @ConfigProperty(name = "packtrace.admission.timeout", defaultValue = "3S")
+    Duration timeout;
+
+    private Semaphore semaphore;
+
+    @PostConstruct
+    void initSemaphore() {
+        semaphore = new Semaphore(permits, true);
+    }
+
+    public boolean tryAcquire() throws InterruptedException {
+        return semaphore.tryAcquire(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public void release() {
+        semaphore.release();
+    }
+
+    public int availablePermits() {
+        return semaphore.availablePermits();
+    }
+
+    public int queueLength() {
+        return semaphore.getQueueLength();
+    }
+}
@@ -0,0 +1,39 @@
+package com.packtrace.concurrency;
+
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InvocationContext;
+import jakarta.ws.rs.ServiceUnavailableException;
+
+@PoolAdmission
+@Interceptor
+@Priority(Interceptor.Priority.APPLICATION)
+public class PoolAdmissionInterceptor {
+
+    // Seconds a rejected client should wait before retrying
+    private static final long RETRY_AFTER_SECONDS = 1;
+
+    @Inject
+    AdmissionGate admissionGate;
+
+    @AroundInvoke
+    Object admit(InvocationContext context) throws Exception {
+        boolean admitted;
+        try {
+            admitted = admissionGate.tryAcquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException(RETRY_AFTER_SECONDS);
+        }
+        if (!admitted)
+            throw new ServiceUnavailableException(RETRY_AFTER_SECONDS);
+
+        try {
+            return context.proceed();
+        } finally {
+            admissionGate.release();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.packtrace.csv;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Incremental RFC 4180 reader: only the current record is held in memory, so arbitrarily
+ * large uploads can be streamed straight through.
+ */
+public class CsvReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int NONE = -2;
+
+    private final Reader reader;
+    private long recordNumber;
+    // Physical line of the input position, and the one the last record started on; quoted fields may span lines
+    private long lineNumber = 1;
+    private long recordLine;
+    private int previous = NONE;
+    private int pushedBack = NONE;
+    private boolean started;
+
+    public CsvReader(Reader reader) {
+        this.reader = new BufferedReader(reader, BUFFER_SIZE);
+    }
+
+    /**
+     * Returns the next record, or null at end of input.
+     */
+    public List<String> readRecord() throws IOException {
+        long startLine = lineNumber;
+        int c = read();
+        if (c == -1)
+            return null;
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        while (true) {
+            if (quoted) {
+                if (c == -1)
+                    throw new IllegalArgumentException("Unterminated quoted field starting on CSV line " + startLine);
+                if (c == '"') {
+                    int next = read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        c = next;
+                        continue;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == -1) {
+                break;
+            } else if (c == '\r') {
+                int next = read();
+                if (next != '\n' && next != -1)
+                    pushedBack = next;
+                break;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+
+        fields.add(field.toString());
+        recordNumber++;
+        recordLine = startLine;
+        return fields;
+    }
+
+    public long getRecordNumber() {
+        return recordNumber;
+    }
+
+    /**
+     * Returns the 1-based physical line the last record started on.
+     */
+    public long getRecordLine() {
+        return recordLine;
+    }
+
+    private int read() throws IOException {
+        if (pushedBack != NONE) {
+            int c = pushedBack;
+            pushedBack = NONE;
+            return c;
+        }
+
+        int c = reader.read();
+        if (!started) {
+            started = true;
+            // Spreadsheet exports often start with a UTF-8 byte order mark
+            if (c == '\uFEFF')
+                c = reader.read();
+        }
+        // CRLF, LF and bare CR each end one line
+        if (c == '\r' || (c == '\n' && previous != '\r'))
+            lineNumber++;
+        previous = c;
+        return c;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,8 @@
+package com.packtrace.dto;
+
+public record AccountCounts(
+        long packs,
+        long closets,
+        long gear
+) {
+}
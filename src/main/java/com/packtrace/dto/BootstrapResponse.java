@@ -0,0 +1,21 @@
+package com.packtrace.dto;
+
+import java.util.List;
+
+/**
+ * Everything the dashboard and pack pages load on mount. Lists are first pages; continue them with the
+ * list endpoints and each page's nextCursor. The first pack's and closet's contents are included so the
+ * pack page can render its default selection, and packWeights covers the packs in the first page.
+ * A caller who has not signed in yet (no account) gets a null account and empty lists.
+ */
+public record BootstrapResponse(
+        AccountResponse account,
+        AccountCounts counts,
+        PageResponse<PackResponse> packs,
+        PageResponse<ClosetResponse> closets,
+        PageResponse<GearResponse> gear,
+        List<PackWeightResponse> packWeights,
+        List<PackGearResponse> firstPackGear,
+        List<ClosetGearResponse> firstClosetGear
+) {
+}
@@ -0,0 +1,13 @@
+package com.packtrace.dto;
+
+/**
+ * Pushed after a committed change. {@code type} is pack, closet or gear; {@code version} is the pack or closet
+ * version, or the gear library version for gear, and is null when the entity was deleted. A gear notification
+ * without an id means many gear items changed at once.
+ */
+public record ChangeNotification(
+        String type,
+        Long id,
+        Long version
+) {
+}
@@ -0,0 +1,7 @@
+package com.packtrace.dto;
+
+public record GearImportError(
+        long line,
+        String message
+) {
+}
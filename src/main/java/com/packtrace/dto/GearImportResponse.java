@@ -0,0 +1,10 @@
+package com.packtrace.dto;
+
+import java.util.List;
+
+public record GearImportResponse(
+        int imported,
+        int rejected,
+        List<GearImportError> errors
+) {
+}
@@ -0,0 +1,14 @@
+package com.packtrace.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record PackGearBatchRequest(
+        @NotEmpty(message = "At least one operation is required")
+        @Size(max = 500, message = "A batch cannot exceed 500 operations")
+        List<@Valid PackGearOperation> operations
+) {
+}
@@ -0,0 +1,21 @@
+package com.packtrace.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+public record PackGearOperation(
+        @NotNull(message = "Operation type is required")
+        Type type,
+
+        @NotNull(message = "Gear ID is required")
+        Long gearId,
+
+        @Min(value = 0, message = "Quantity cannot be negative")
+        int quantity
+) {
+    public enum Type {
+        ADD,
+        REMOVE,
+        SET_QUANTITY
+    }
+}
@@ -0,0 +1,12 @@
+package com.packtrace.dto;
+
+import java.util.Map;
+
+public record PackSummaryResponse(
+        Long packId,
+        long totalGrams,
+        long baseGrams,
+        long itemCount,
+        Map<String, Long> categoryGrams
+) {
+}
@@ -0,0 +1,8 @@
+package com.packtrace.dto;
+
+public record PackWeightResponse(
+        Long packId,
+        long totalGrams,
+        long itemCount
+) {
+}
@@ -0,0 +1,10 @@
+package com.packtrace.dto;
+
+import java.util.List;
+
+public record PageResponse<T>(
+        List<T> items,
+        String nextCursor
+) {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+}
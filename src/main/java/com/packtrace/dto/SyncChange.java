@@ -0,0 +1,20 @@
+package com.packtrace.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One changed row. {@code type} is pack, closet, gear, pack_gear or closet_gear; for memberships {@code id} is the
+ * pack or closet and {@code gearId} the gear. Deleted rows carry only their keys.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record SyncChange(
+        String type,
+        Long id,
+        Long gearId,
+        boolean deleted,
+        PackResponse pack,
+        ClosetResponse closet,
+        GearResponse gear,
+        Integer quantity
+) {
+}
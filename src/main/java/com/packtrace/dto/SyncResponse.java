@@ -0,0 +1,10 @@
+package com.packtrace.dto;
+
+import java.util.List;
+
+public record SyncResponse(
+        List<SyncChange> changes,
+        String token,
+        boolean hasMore
+) {
+}
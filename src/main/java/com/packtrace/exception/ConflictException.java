@@ -0,0 +1,8 @@
+package com.packtrace.exception;
+
+public class ConflictException extends IllegalArgumentException {
+
+    public ConflictException(String message) {
+        super(message);
+    }
+}
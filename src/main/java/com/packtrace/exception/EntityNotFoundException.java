@@ -0,0 +1,8 @@
+package com.packtrace.exception;
+
+public class EntityNotFoundException extends IllegalArgumentException {
+
+    public EntityNotFoundException(String message) {
+        super(message);
+    }
+}
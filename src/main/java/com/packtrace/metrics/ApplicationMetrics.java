@@ -0,0 +1,79 @@
+package com.packtrace.metrics;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.packtrace.concurrency.AdmissionGate;
+import com.packtrace.security.RateLimitBucketStore;
+import com.packtrace.security.VerifiedTokenCache;
+import com.packtrace.service.AccountService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+import java.util.function.Function;
+
+/**
+ * Exposes the in-process limits and caches that the Micrometer extensions cannot see. Every value is read
+ * from counters those components keep anyway, only when Prometheus scrapes.
+ */
+@Singleton
+public class ApplicationMetrics implements MeterBinder {
+
+    @Inject
+    RateLimitBucketStore rateLimitBucketStore;
+
+    @Inject
+    AdmissionGate admissionGate;
+
+    @Inject
+    AccountService accountService;
+
+    @Inject
+    VerifiedTokenCache verifiedTokenCache;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("packtrace.rate_limit.buckets", rateLimitBucketStore, RateLimitBucketStore::liveBuckets)
+                .description("Rate limit buckets held in memory")
+                .register(registry);
+        FunctionCounter.builder("packtrace.rate_limit.evictions", rateLimitBucketStore, RateLimitBucketStore::evictions)
+                .description("Rate limit buckets dropped for size or idleness")
+                .register(registry);
+        FunctionCounter.builder("packtrace.rate_limit.rejections", rateLimitBucketStore, RateLimitBucketStore::rejections)
+                .description("Requests rejected with 429")
+                .register(registry);
+
+        Gauge.builder("packtrace.admission.available", admissionGate, AdmissionGate::availablePermits)
+                .description("Admission permits free for blocking endpoints")
+                .register(registry);
+        Gauge.builder("packtrace.admission.queued", admissionGate, AdmissionGate::queueLength)
+                .description("Blocking requests waiting for an admission permit")
+                .register(registry);
+
+        bindCache(registry, "account", accountService, AccountService::accountCacheStats);
+        Gauge.builder("packtrace.cache.size", accountService, AccountService::accountCacheSize)
+                .tag("cache", "account")
+                .register(registry);
+        bindCache(registry, "verified-token", verifiedTokenCache, VerifiedTokenCache::stats);
+        Gauge.builder("packtrace.cache.size", verifiedTokenCache, VerifiedTokenCache::size)
+                .tag("cache", "verified-token")
+                .register(registry);
+    }
+
+    // Meters hold their source weakly, so they are given the injected bean rather than a lambda over it
+    private static <T> void bindCache(MeterRegistry registry, String cache, T source, Function<T, CacheStats> stats) {
+        FunctionCounter.builder("packtrace.cache.gets", source, s -> stats.apply(s).hitCount())
+                .tag("cache", cache)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("packtrace.cache.gets", source, s -> stats.apply(s).missCount())
+                .tag("cache", cache)
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("packtrace.cache.evictions", source, s -> stats.apply(s).evictionCount())
+                .tag("cache", cache)
+                .register(registry);
+    }
+}
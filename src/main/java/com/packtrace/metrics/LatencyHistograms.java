@@ -0,0 +1,37 @@
+package com.packtrace.metrics;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Singleton;
+
+import java.time.Duration;
+import java.util.stream.Stream;
+
+/**
+ * Publishes route and repository latencies as histograms with a fixed set of buckets. A short explicit list
+ * keeps each timer to a dozen series, where Micrometer's default percentile histogram would add about 70.
+ */
+public class LatencyHistograms {
+
+    private static final double[] BUCKETS = Stream.of(2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000)
+            .mapToDouble(millis -> Duration.ofMillis(millis).toNanos())
+            .toArray();
+
+    @Produces
+    @Singleton
+    MeterFilter latencyHistograms() {
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (!id.getName().equals("http.server.requests") && !id.getName().equals("packtrace.repository"))
+                    return config;
+                return DistributionStatisticConfig.builder()
+                        .serviceLevelObjectives(BUCKETS)
+                        .build()
+                        .merge(config);
+            }
+        };
+    }
+}
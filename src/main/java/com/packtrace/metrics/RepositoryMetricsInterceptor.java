@@ -0,0 +1,75 @@
+package com.packtrace.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InvocationContext;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+@RepositoryMetrics
+@Interceptor
+@Priority(Interceptor.Priority.APPLICATION)
+public class RepositoryMetricsInterceptor {
+
+    @Inject
+    MeterRegistry registry;
+
+    // Meters are resolved once per method so a call costs two clock reads and a record
+    private final Map<Method, MethodMeters> meters = new ConcurrentHashMap<>();
+
+    @AroundInvoke
+    Object measure(InvocationContext context) throws Exception {
+        MethodMeters methodMeters = meters.get(context.getMethod());
+        if (methodMeters == null)
+            methodMeters = meters.computeIfAbsent(context.getMethod(), this::register);
+
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            Object result = context.proceed();
+            failed = false;
+            return result;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            if (failed) {
+                methodMeters.failures().record(elapsed, TimeUnit.NANOSECONDS);
+                methodMeters.errors().increment();
+            } else {
+                methodMeters.successes().record(elapsed, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private MethodMeters register(Method method) {
+        String repository = method.getDeclaringClass().getSimpleName();
+        String name = method.getName();
+        return new MethodMeters(
+                timer(repository, name, "success"),
+                timer(repository, name, "error"),
+                Counter.builder("packtrace.repository.errors")
+                        .description("Repository calls that threw")
+                        .tag("repository", repository)
+                        .tag("method", name)
+                        .register(registry));
+    }
+
+    private Timer timer(String repository, String method, String outcome) {
+        return Timer.builder("packtrace.repository")
+                .description("Repository call latency")
+                .tag("repository", repository)
+                .tag("method", method)
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private record MethodMeters(Timer successes, Timer failures, Counter errors) {
+    }
+}
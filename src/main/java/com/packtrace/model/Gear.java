@@ -13,7 +13,7 @@ public class Gear {
 
     public Gear() {}
 
-    public Gear(long id, UUID ownerId, String name, String brand, int weightGrams, String websiteURL, String category) {
+    public Gear(long id, UUID ownerId, String name, String brand, Integer weightGrams, String websiteURL, String category) {
         this.id = id;
         this.ownerId = ownerId;
         this.name = name;
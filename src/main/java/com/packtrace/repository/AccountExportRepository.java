@@ -0,0 +1,22 @@
+package com.packtrace.repository;
+
+import com.packtrace.model.Closet;
+import com.packtrace.model.ClosetGear;
+import com.packtrace.model.Gear;
+import com.packtrace.model.Pack;
+import com.packtrace.model.PackGear;
+
+import java.io.IOException;
+import java.util.UUID;
+
+public interface AccountExportRepository {
+    void exportAccount(UUID accountId, ExportSink sink);
+
+    interface ExportSink {
+        void gear(Gear gear) throws IOException;
+        void pack(Pack pack) throws IOException;
+        void packGear(PackGear packGear) throws IOException;
+        void closet(Closet closet) throws IOException;
+        void closetGear(ClosetGear closetGear) throws IOException;
+    }
+}
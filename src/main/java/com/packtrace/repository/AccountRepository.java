@@ -1,13 +1,15 @@
 package com.packtrace.repository;
 
+import com.packtrace.dto.AccountCounts;
 import com.packtrace.model.Account;
 
-import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 public interface AccountRepository {
     Optional<Account> findByAuth0Id(String auth0Id);
     Optional<Account> findByUsername(String username);
-    List<String> findAllUsernamesStartingWith(String prefix);
+    Optional<Account> insertWithNextUsername(String auth0Id, String baseUsername);
     void persist(Account account);
+    AccountCounts countContents(UUID accountId);
 }
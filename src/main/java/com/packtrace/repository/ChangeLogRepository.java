@@ -0,0 +1,11 @@
+package com.packtrace.repository;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public interface ChangeLogRepository {
+    long currentSnapshotXmin();
+    long findPrunedThrough();
+    ChangePage findChanges(UUID accountId, long sinceXactId, long afterSeq, int limit);
+    int pruneChangedBefore(Instant cutoff);
+}
@@ -0,0 +1,9 @@
+package com.packtrace.repository;
+
+public interface ChangeNotificationRepository {
+    // Postgres channel every instance listens on (ReactiveChangeNotificationRepository)
+    String CHANNEL = "packtrace_changes";
+
+    void publishChanged(String auth0Id, String type, Long id);
+    void publishDeleted(String auth0Id, String type, Long id);
+}
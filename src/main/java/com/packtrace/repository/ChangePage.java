@@ -0,0 +1,16 @@
+package com.packtrace.repository;
+
+import com.packtrace.dto.SyncChange;
+
+import java.util.List;
+
+/**
+ * Changes from one read of the change log. {@code lastSeq} is the highest sequence read, which may belong to a
+ * row superseded by a later change to the same entity within the page.
+ */
+public record ChangePage(
+        List<SyncChange> changes,
+        long lastSeq,
+        boolean hasMore
+) {
+}
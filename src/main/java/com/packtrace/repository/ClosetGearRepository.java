@@ -1,14 +1,14 @@
 package com.packtrace.repository;
 
+import com.packtrace.dto.ClosetGearResponse;
 import com.packtrace.model.ClosetGear;
 
 import java.util.List;
-import java.util.Optional;
 
 public interface ClosetGearRepository {
-    void addGearToCloset(Long closetId, Long gearId, int quantity);
-    void removeGearFromCloset(Long closetId, Long gearId);
+    WriteResult addGearToCloset(Long closetId, Long gearId, int quantity, String auth0Id);
+    WriteResult removeGearFromCloset(Long closetId, Long gearId, String auth0Id);
     List<ClosetGear> findGearInCloset(Long closetId);
-    Optional<Integer> getQuantity(Long closetId, Long gearId);
-    void updateQuantity(Long closetId, Long gearId, int quantity);
+    List<ClosetGearResponse> findGearResponsesInCloset(Long closetId);
+    WriteResult updateQuantity(Long closetId, Long gearId, int quantity, String auth0Id);
 }
@@ -7,10 +7,10 @@ import java.util.Optional;
 import java.util.UUID;
 
 public interface ClosetRepository {
-    void persist(Closet closet);
+    WriteResult persist(Closet closet, String auth0Id);
     Optional<Closet> findById(Long id);
     List<Closet> findByAccountId(UUID accountId);
-    void update(Closet closet);
-    void deleteById(Long id);
-    boolean existsByAccountIdAndName(UUID accountId, String name);
+    List<Closet> findByAccountId(UUID accountId, PageRequest page);
+    WriteResult update(Closet closet, String auth0Id);
+    WriteResult deleteById(Long id, String auth0Id);
 }
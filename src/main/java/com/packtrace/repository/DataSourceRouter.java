@@ -0,0 +1,114 @@
+package com.packtrace.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.agroal.DataSource;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.SystemException;
+import jakarta.transaction.TransactionManager;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Sends read-only queries to the "replica" datasource. Reads stay on the primary when the replica is disabled,
+ * when a transaction is active, or when the caller wrote recently (read-your-writes despite replication lag).
+ * The time of a caller's last write travels with the client (ReplicaStickinessFilter), so any instance can
+ * honour it; this instance only remembers it for the rest of the sticky window.
+ */
+@ApplicationScoped
+public class DataSourceRouter {
+
+    /**
+     * Where a read goes. Reads that must agree with each other, such as an ETag and the body it tags,
+     * take one source up front so a sticky window closing between them cannot split them across servers.
+     */
+    public enum ReadSource { PRIMARY, REPLICA }
+
+    private static final ThreadLocal<Boolean> REPLICA_SCOPE = new ThreadLocal<>();
+
+    @Inject
+    AgroalDataSource primary;
+
+    @Inject
+    @DataSource("replica")
+    AgroalDataSource replica;
+
+    @Inject
+    TransactionManager transactionManager;
+
+    @ConfigProperty(name = "packtrace.replica.enabled", defaultValue = "false")
+    boolean replicaEnabled;
+
+    @ConfigProperty(name = "packtrace.replica.sticky-after-write", defaultValue = "5S")
+    Duration stickyAfterWrite;
+
+    // auth0 subject -> epoch millis of their latest known write
+    private Cache<String, Long> recentWriters;
+
+    @PostConstruct
+    void initRecentWriters() {
+        recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(stickyAfterWrite)
+                .build();
+    }
+
+    public ReadSource chooseSource(String auth0Id) {
+        return canUseReplica(auth0Id) ? ReadSource.REPLICA : ReadSource.PRIMARY;
+    }
+
+    public <T> T read(String auth0Id, Supplier<T> query) {
+        return read(chooseSource(auth0Id), query);
+    }
+
+    // A transaction always reads its own connection, whatever source was chosen before it began
+    public <T> T read(ReadSource source, Supplier<T> query) {
+        if (source != ReadSource.REPLICA || inTransaction())
+            return query.get();
+
+        Boolean previous = REPLICA_SCOPE.get();
+        REPLICA_SCOPE.set(Boolean.TRUE);
+        try {
+            return query.get();
+        } finally {
+            if (previous == null)
+                REPLICA_SCOPE.remove();
+            else
+                REPLICA_SCOPE.set(previous);
+        }
+    }
+
+    // Used by repository read methods; outside read(...) this is always the primary
+    public Connection readConnection() throws SQLException {
+        return Boolean.TRUE.equals(REPLICA_SCOPE.get()) ? replica.getConnection() : primary.getConnection();
+    }
+
+    public void recordWrite(String auth0Id, long writtenAtMillis) {
+        if (replicaEnabled && auth0Id != null)
+            recentWriters.asMap().merge(auth0Id, writtenAtMillis, Math::max);
+    }
+
+    private boolean canUseReplica(String auth0Id) {
+        return replicaEnabled && auth0Id != null && !wroteRecently(auth0Id) && !inTransaction();
+    }
+
+    private boolean wroteRecently(String auth0Id) {
+        Long writtenAt = recentWriters.getIfPresent(auth0Id);
+        return writtenAt != null && System.currentTimeMillis() - writtenAt < stickyAfterWrite.toMillis();
+    }
+
+    private boolean inTransaction() {
+        try {
+            return transactionManager.getStatus() != Status.STATUS_NO_TRANSACTION;
+        } catch (SystemException e) {
+            return true;
+        }
+    }
+}
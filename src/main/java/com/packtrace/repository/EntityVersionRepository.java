@@ -0,0 +1,9 @@
+package com.packtrace.repository;
+
+import java.util.Optional;
+
+public interface EntityVersionRepository {
+    Optional<Long> findPackVersion(Long packId);
+    Optional<Long> findClosetVersion(Long closetId);
+    Optional<Long> findGearLibraryVersion(String auth0Id);
+}
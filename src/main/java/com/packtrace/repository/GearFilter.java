@@ -0,0 +1,9 @@
+package com.packtrace.repository;
+
+public record GearFilter(
+        String category,
+        String brand,
+        Integer minWeight,
+        Integer maxWeight
+) {
+}
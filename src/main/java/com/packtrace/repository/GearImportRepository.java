@@ -0,0 +1,8 @@
+package com.packtrace.repository;
+
+import java.util.Iterator;
+import java.util.UUID;
+
+public interface GearImportRepository {
+    GearImportResult importGear(UUID ownerId, Iterator<GearImportRow> rows, Long packId, Long closetId);
+}
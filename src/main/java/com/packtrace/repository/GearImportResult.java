@@ -0,0 +1,14 @@
+package com.packtrace.repository;
+
+import com.packtrace.dto.GearImportResponse;
+
+/**
+ * Outcome of an import. The pack and closet results say whether the rows could be attached there; when either is
+ * not {@link WriteResult#APPLIED} nothing was imported and the summary is null.
+ */
+public record GearImportResult(
+        WriteResult pack,
+        WriteResult closet,
+        GearImportResponse summary
+) {
+}
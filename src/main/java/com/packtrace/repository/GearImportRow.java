@@ -0,0 +1,13 @@
+package com.packtrace.repository;
+
+public record GearImportRow(
+        long line,
+        String name,
+        String brand,
+        String category,
+        String weight,
+        String unit,
+        String websiteURL,
+        String quantity
+) {
+}
@@ -0,0 +1,57 @@
+package com.packtrace.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.IntFunction;
+
+/**
+ * Builds the filtered, keyset-paged gear listing shared by the JDBC and reactive repositories.
+ * The placeholder function renders the n-th (1-based) parameter, e.g. "?" for JDBC or "$n" for the pg client.
+ */
+record GearPageQuery(String sql, List<Object> parameters) {
+
+    static GearPageQuery build(UUID ownerId, GearFilter filter, GearSort sort, PageRequest page,
+                               IntFunction<String> placeholder) {
+        List<Object> parameters = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("""
+                SELECT id, owner_id, name, brand, weight_grams, website_url, category
+                FROM gear
+                WHERE owner_id =""");
+        parameters.add(ownerId);
+        sql.append(" ").append(placeholder.apply(parameters.size()));
+
+        if (filter.category() != null) {
+            parameters.add(filter.category());
+            sql.append(" AND category = ").append(placeholder.apply(parameters.size()));
+        }
+        if (filter.brand() != null) {
+            parameters.add(filter.brand());
+            sql.append(" AND brand = ").append(placeholder.apply(parameters.size()));
+        }
+        if (filter.minWeight() != null) {
+            parameters.add(filter.minWeight());
+            sql.append(" AND weight_grams >= ").append(placeholder.apply(parameters.size()));
+        }
+        if (filter.maxWeight() != null) {
+            parameters.add(filter.maxWeight());
+            sql.append(" AND weight_grams <= ").append(placeholder.apply(parameters.size()));
+        }
+
+        String direction = sort.descending() ? " DESC" : " ASC";
+        if (!page.isFirstPage()) {
+            parameters.add(sort.isByWeight() ? (Object) Integer.valueOf(page.afterKey()) : page.afterKey());
+            String afterKey = placeholder.apply(parameters.size());
+            parameters.add(page.afterId());
+            String afterId = placeholder.apply(parameters.size());
+            sql.append(" AND (").append(sort.column()).append(", id)")
+                    .append(sort.descending() ? " < " : " > ")
+                    .append("(").append(afterKey).append(", ").append(afterId).append(")");
+        }
+        sql.append(" ORDER BY ").append(sort.column()).append(direction).append(", id").append(direction);
+        parameters.add(page.limit());
+        sql.append(" LIMIT ").append(placeholder.apply(parameters.size()));
+
+        return new GearPageQuery(sql.toString(), parameters);
+    }
+}
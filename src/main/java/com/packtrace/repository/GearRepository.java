@@ -7,9 +7,11 @@ import java.util.Optional;
 import java.util.UUID;
 
 public interface GearRepository {
-    void persist(Gear gear);
+    WriteResult persist(Gear gear, String auth0Id);
     Optional<Gear> findById(Long id);
     List<Gear> findByOwnerId(UUID ownerId);
-    void update(Gear gear);
-    void deleteById(Long id);
+    List<Gear> findByOwnerId(UUID ownerId, GearFilter filter, GearSort sort, PageRequest page);
+    List<Gear> search(UUID ownerId, String query, double similarityThreshold, int limit);
+    WriteResult update(Gear gear, String auth0Id);
+    WriteResult deleteById(Long id, String auth0Id);
 }
@@ -0,0 +1,43 @@
+package com.packtrace.repository;
+
+import java.util.Locale;
+
+public enum GearSort {
+    NAME("name", false),
+    NAME_DESC("name", true),
+    WEIGHT("coalesce(weight_grams, 0)", false),
+    WEIGHT_DESC("coalesce(weight_grams, 0)", true);
+
+    private final String column;
+    private final boolean descending;
+
+    GearSort(String column, boolean descending) {
+        this.column = column;
+        this.descending = descending;
+    }
+
+    String column() {
+        return column;
+    }
+
+    boolean descending() {
+        return descending;
+    }
+
+    public boolean isByWeight() {
+        return this == WEIGHT || this == WEIGHT_DESC;
+    }
+
+    // Accepts "name", "-name", "weight" and "-weight"
+    public static GearSort parse(String value) {
+        if (value == null || value.isBlank())
+            return NAME;
+        return switch (value.trim().toLowerCase(Locale.ROOT)) {
+            case "name" -> NAME;
+            case "-name" -> NAME_DESC;
+            case "weight" -> WEIGHT;
+            case "-weight" -> WEIGHT_DESC;
+            default -> throw new IllegalArgumentException("Unknown sort: " + value);
+        };
+    }
+}
@@ -0,0 +1,132 @@
+package com.packtrace.repository;
+
+import com.packtrace.metrics.RepositoryMetrics;
+import com.packtrace.model.Closet;
+import com.packtrace.model.ClosetGear;
+import com.packtrace.model.Gear;
+import com.packtrace.model.Pack;
+import com.packtrace.model.PackGear;
+import io.agroal.api.AgroalDataSource;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.UUID;
+
+@ApplicationScoped
+@RepositoryMetrics
+public class JDBCAccountExportRepository implements AccountExportRepository {
+
+    // Rows per round-trip; pgjdbc only uses a server-side cursor when autocommit is off
+    private static final int FETCH_SIZE = 1000;
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    @Override
+    public void exportAccount(UUID accountId, ExportSink sink) {
+        String gearSql = """
+                SELECT id, owner_id, name, brand, weight_grams, website_url, category
+                FROM gear
+                WHERE owner_id = ?
+                ORDER BY id;
+                """;
+        String packSql = """
+                SELECT id, account_id, name, description
+                FROM pack
+                WHERE account_id = ?
+                ORDER BY id;
+                """;
+        String packGearSql = """
+                SELECT pg.pack_id, pg.gear_id, pg.quantity
+                FROM pack_gear pg
+                JOIN pack p ON p.id = pg.pack_id
+                WHERE p.account_id = ?
+                ORDER BY pg.pack_id, pg.gear_id;
+                """;
+        String closetSql = """
+                SELECT id, account_id, name, description
+                FROM closet
+                WHERE account_id = ?
+                ORDER BY id;
+                """;
+        String closetGearSql = """
+                SELECT cg.closet_id, cg.gear_id, cg.quantity
+                FROM closet_gear cg
+                JOIN closet c ON c.id = cg.closet_id
+                WHERE c.account_id = ?
+                ORDER BY cg.closet_id, cg.gear_id;
+                """;
+
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            int isolation = connection.getTransactionIsolation();
+            // One read-only snapshot so the export is consistent across tables
+            connection.setAutoCommit(false);
+            connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            connection.setReadOnly(true);
+            try {
+                stream(connection, gearSql, accountId, resultSet -> sink.gear(new Gear(
+                        resultSet.getLong("id"),
+                        resultSet.getObject("owner_id", java.util.UUID.class),
+                        resultSet.getString("name"),
+                        resultSet.getString("brand"),
+                        resultSet.getObject("weight_grams", Integer.class),
+                        resultSet.getString("website_url"),
+                        resultSet.getString("category")
+                )));
+                stream(connection, packSql, accountId, resultSet -> sink.pack(new Pack(
+                        resultSet.getLong("id"),
+                        resultSet.getObject("account_id", java.util.UUID.class),
+                        resultSet.getString("name"),
+                        resultSet.getString("description")
+                )));
+                stream(connection, packGearSql, accountId, resultSet -> sink.packGear(new PackGear(
+                        resultSet.getLong("pack_id"),
+                        resultSet.getLong("gear_id"),
+                        resultSet.getInt("quantity")
+                )));
+                stream(connection, closetSql, accountId, resultSet -> sink.closet(new Closet(
+                        resultSet.getLong("id"),
+                        resultSet.getObject("account_id", java.util.UUID.class),
+                        resultSet.getString("name"),
+                        resultSet.getString("description")
+                )));
+                stream(connection, closetGearSql, accountId, resultSet -> sink.closetGear(new ClosetGear(
+                        resultSet.getLong("closet_id"),
+                        resultSet.getLong("gear_id"),
+                        resultSet.getInt("quantity")
+                )));
+            } finally {
+                connection.rollback();
+                connection.setReadOnly(false);
+                connection.setTransactionIsolation(isolation);
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException sqlException) {
+            throw new RuntimeException("Error exporting account", sqlException);
+        }
+    }
+
+    private void stream(Connection connection, String sql, UUID accountId, RowHandler handler) throws SQLException {
+        try (PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+            preparedStatement.setFetchSize(FETCH_SIZE);
+            preparedStatement.setObject(1, accountId);
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                while (resultSet.next())
+                    handler.handle(resultSet);
+            }
+        } catch (IOException ioException) {
+            throw new UncheckedIOException("Error writing account export", ioException);
+        }
+    }
+
+    private interface RowHandler {
+        void handle(ResultSet resultSet) throws SQLException, IOException;
+    }
+}
@@ -1,5 +1,7 @@
 package com.packtrace.repository;
 
+import com.packtrace.dto.AccountCounts;
+import com.packtrace.metrics.RepositoryMetrics;
 import com.packtrace.model.Account;
 import io.agroal.api.AgroalDataSource;
 import jakarta.enterprise.context.ApplicationScoped;
@@ -9,11 +11,11 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 @ApplicationScoped
+@RepositoryMetrics
 public class JDBCAccountRepository implements AccountRepository{
 
     @Inject
@@ -66,29 +68,39 @@ public class JDBCAccountRepository implements AccountRepository{
     }
 
     @Override
-    public List<String> findAllUsernamesStartingWith(String prefix) {
+    public Optional<Account> insertWithNextUsername(String auth0Id, String baseUsername) {
+        // Claims the next suffix for the base name from username_counter (0 means the bare name) and inserts
+        // in the same statement. Empty when the auth0 id or the candidate username already exists.
         String sql = """
-                SELECT username
-                FROM account
-                WHERE username = ? OR username LIKE ?;
+                WITH suffix AS (
+                    INSERT INTO username_counter (base_name, last_suffix)
+                    VALUES (?, 0)
+                    ON CONFLICT (base_name) DO UPDATE SET last_suffix = username_counter.last_suffix + 1
+                    RETURNING last_suffix
+                )
+                INSERT INTO account (auth0_id, username)
+                SELECT ?, CASE WHEN last_suffix = 0 THEN ? ELSE ? || '-' || last_suffix END
+                FROM suffix
+                ON CONFLICT DO NOTHING
+                RETURNING id, auth0_id, username, bio;
                 """;
-        List<String> usernames = new ArrayList<>();
 
         try (Connection connection = dataSource.getConnection();
              PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
 
-            preparedStatement.setString(1, prefix);
-            preparedStatement.setString(2, prefix + "-%");
+            preparedStatement.setString(1, baseUsername);
+            preparedStatement.setString(2, auth0Id);
+            preparedStatement.setString(3, baseUsername);
+            preparedStatement.setString(4, baseUsername);
 
             try (ResultSet resultSet = preparedStatement.executeQuery()) {
-                while (resultSet.next())
-                    usernames.add(resultSet.getString("username"));
+                if (resultSet.next())
+                    return Optional.of(mapRow(resultSet));
             }
-
         } catch (SQLException sqlException) {
-            throw new RuntimeException("Error executing findAllUsernamesStartingWith", sqlException);
+            throw new RuntimeException("Error executing insertWithNextUsername", sqlException);
         }
-        return usernames;
+        return Optional.empty();
     }
 
     private Account mapRow(ResultSet resultSet) throws SQLException {
@@ -122,4 +134,31 @@ public class JDBCAccountRepository implements AccountRepository{
             throw new RuntimeException("Error persisting account", sqlException);
         }
     }
+
+    @Override
+    public AccountCounts countContents(UUID accountId) {
+        String sql = """
+                SELECT (SELECT count(*) FROM pack WHERE account_id = ?) AS packs,
+                       (SELECT count(*) FROM closet WHERE account_id = ?) AS closets,
+                       (SELECT count(*) FROM gear WHERE owner_id = ?) AS gear;
+                """;
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+
+            preparedStatement.setObject(1, accountId);
+            preparedStatement.setObject(2, accountId);
+            preparedStatement.setObject(3, accountId);
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                resultSet.next();
+                return new AccountCounts(
+                        resultSet.getLong("packs"),
+                        resultSet.getLong("closets"),
+                        resultSet.getLong("gear")
+                );
+            }
+        } catch (SQLException sqlException) {
+            throw new RuntimeException("Error counting account contents", sqlException);
+        }
+    }
 }
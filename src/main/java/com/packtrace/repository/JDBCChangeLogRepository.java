@@ -0,0 +1,173 @@
+package com.packtrace.repository;
+
+import com.packtrace.dto.ClosetResponse;
+import com.packtrace.dto.GearResponse;
+import com.packtrace.dto.PackResponse;
+import com.packtrace.dto.SyncChange;
+import com.packtrace.metrics.RepositoryMetrics;
+import io.agroal.api.AgroalDataSource;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+@ApplicationScoped
+@RepositoryMetrics
+public class JDBCChangeLogRepository implements ChangeLogRepository {
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    @Override
+    public long currentSnapshotXmin() {
+        // Every transaction below this id has committed or aborted, so its change rows are final
+        String sql = """
+                SELECT pg_snapshot_xmin(pg_current_snapshot())::TEXT::BIGINT AS xmin;
+                """;
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(sql);
+             ResultSet resultSet = preparedStatement.executeQuery()) {
+
+            resultSet.next();
+            return resultSet.getLong("xmin");
+        } catch (SQLException sqlException) {
+            throw new RuntimeException("Error reading snapshot xmin", sqlException);
+        }
+    }
+
+    @Override
+    public long findPrunedThrough() {
+        String sql = """
+                SELECT pruned_through FROM change_log_watermark WHERE id = 1;
+                """;
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(sql);
+             ResultSet resultSet = preparedStatement.executeQuery()) {
+
+            return resultSet.next() ? resultSet.getLong("pruned_through") : 0;
+        } catch (SQLException sqlException) {
+            throw new RuntimeException("Error reading change log watermark", sqlException);
+        }
+    }
+
+    @Override
+    public ChangePage findChanges(UUID accountId, long sinceXactId, long afterSeq, int limit) {
+        // Reads one page of log rows, keeps the latest per entity and joins the current state.
+        // A row that no longer exists is reported as deleted even if its last log entry was an upsert.
+        String sql = """
+                WITH raw AS (
+                    SELECT seq, entity_type, entity_id, member_id, deleted
+                    FROM change_log
+                    WHERE account_id = ? AND xact_id >= ? AND seq > ?
+                    ORDER BY seq
+                    LIMIT ?
+                ), latest AS (
+                    SELECT DISTINCT ON (entity_type, entity_id, member_id) seq, entity_type, entity_id, member_id, deleted
+                    FROM raw
+                    ORDER BY entity_type, entity_id, member_id, seq DESC
+                )
+                SELECT l.entity_type, l.entity_id, l.member_id,
+                       (SELECT max(seq) FROM raw) AS last_seq,
+                       (SELECT count(*) FROM raw) AS raw_count,
+                       l.deleted OR coalesce(p.id, c.id, g.id, pg.pack_id, cg.closet_id) IS NULL AS deleted,
+                       coalesce(p.name, c.name, g.name) AS name,
+                       coalesce(p.description, c.description) AS description,
+                       g.brand, g.weight_grams, g.website_url, g.category,
+                       coalesce(pg.quantity, cg.quantity) AS quantity
+                FROM latest l
+                LEFT JOIN pack p ON l.entity_type = 'pack' AND p.id = l.entity_id
+                LEFT JOIN closet c ON l.entity_type = 'closet' AND c.id = l.entity_id
+                LEFT JOIN gear g ON l.entity_type = 'gear' AND g.id = l.entity_id
+                LEFT JOIN pack_gear pg ON l.entity_type = 'pack_gear'
+                    AND pg.pack_id = l.entity_id AND pg.gear_id = l.member_id
+                LEFT JOIN closet_gear cg ON l.entity_type = 'closet_gear'
+                    AND cg.closet_id = l.entity_id AND cg.gear_id = l.member_id
+                ORDER BY l.seq;
+                """;
+        List<SyncChange> changes = new ArrayList<>();
+        long lastSeq = afterSeq;
+        long rawCount = 0;
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+
+            preparedStatement.setObject(1, accountId);
+            preparedStatement.setLong(2, sinceXactId);
+            preparedStatement.setLong(3, afterSeq);
+            preparedStatement.setInt(4, limit);
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    lastSeq = resultSet.getLong("last_seq");
+                    rawCount = resultSet.getLong("raw_count");
+                    changes.add(mapChange(resultSet));
+                }
+            }
+        } catch (SQLException sqlException) {
+            throw new RuntimeException("Error reading change log", sqlException);
+        }
+        // A full page may be followed by more rows; an exact fit costs one extra empty read
+        return new ChangePage(changes, lastSeq, rawCount >= limit);
+    }
+
+    private SyncChange mapChange(ResultSet resultSet) throws SQLException {
+        String type = resultSet.getString("entity_type");
+        long id = resultSet.getLong("entity_id");
+        if (resultSet.getBoolean("deleted")) {
+            Long gearId = isMembership(type) ? resultSet.getLong("member_id") : null;
+            return new SyncChange(type, id, gearId, true, null, null, null, null);
+        }
+
+        return switch (type) {
+            case "pack" -> new SyncChange(type, id, null, false,
+                    new PackResponse(id, resultSet.getString("name"), resultSet.getString("description")),
+                    null, null, null);
+            case "closet" -> new SyncChange(type, id, null, false, null,
+                    new ClosetResponse(id, resultSet.getString("name"), resultSet.getString("description")),
+                    null, null);
+            case "gear" -> new SyncChange(type, id, null, false, null, null,
+                    new GearResponse(id, resultSet.getString("name"), resultSet.getString("brand"),
+                            resultSet.getInt("weight_grams"), resultSet.getString("website_url"),
+                            resultSet.getString("category")),
+                    null);
+            default -> new SyncChange(type, id, resultSet.getLong("member_id"), false, null, null, null,
+                    resultSet.getInt("quantity"));
+        };
+    }
+
+    private static boolean isMembership(String type) {
+        return type.equals("pack_gear") || type.equals("closet_gear");
+    }
+
+    @Override
+    public int pruneChangedBefore(Instant cutoff) {
+        // Deletes and advances the watermark in one statement, so a token is never served from a gap
+        String sql = """
+                WITH pruned AS (
+                    DELETE FROM change_log WHERE changed_at < ? RETURNING xact_id
+                ), watermark AS (
+                    UPDATE change_log_watermark
+                    SET pruned_through = greatest(pruned_through, (SELECT coalesce(max(xact_id), 0) FROM pruned))
+                    WHERE id = 1
+                )
+                SELECT count(*) AS pruned FROM pruned;
+                """;
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+
+            preparedStatement.setTimestamp(1, Timestamp.from(cutoff));
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                resultSet.next();
+                return resultSet.getInt("pruned");
+            }
+        } catch (SQLException sqlException) {
+            throw new RuntimeException("Error pruning change log", sqlException);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.packtrace.repository;
+
+import com.packtrace.metrics.RepositoryMetrics;
+import io.agroal.api.AgroalDataSource;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+
+/**
+ * NOTIFY is transactional: a notification queued inside the caller's transaction reaches the listeners when it
+ * commits and is discarded if it rolls back.
+ */
+@ApplicationScoped
+@RepositoryMetrics
+public class JDBCChangeNotificationRepository implements ChangeNotificationRepository {
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    @Override
+    public void publishChanged(String auth0Id, String type, Long id) {
+        // The version is read in the same statement, after the write's own trigger bump
+        String sql = """
+                SELECT pg_notify(?, json_build_object(
+                        'auth0Id', t.auth0_id, 'type', t.type, 'id', t.id,
+                        'version', CASE t.type
+                            WHEN 'pack' THEN (SELECT version FROM pack WHERE id = t.id)
+                            WHEN 'closet' THEN (SELECT version FROM closet WHERE id = t.id)
+                            ELSE (SELECT gear_version FROM account WHERE auth0_id = t.auth0_id)
+                        END)::TEXT)
+                FROM (SELECT ?::TEXT AS auth0_id, ?::TEXT AS type, ?::BIGINT AS id) t;
+                """;
+        publish(sql, auth0Id, type, id);
+    }
+
+    @Override
+    public void publishDeleted(String auth0Id, String type, Long id) {
+        String sql = """
+                SELECT pg_notify(?, json_build_object(
+                        'auth0Id', ?::TEXT, 'type', ?::TEXT, 'id', ?::BIGINT, 'version', NULL)::TEXT);
+                """;
+        publish(sql, auth0Id, type, id);
+    }
+
+    private void publish(String sql, String auth0Id, String type, Long id) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+
+            preparedStatement.setString(1, CHANNEL);
+            preparedStatement.setString(2, auth0Id);
+            preparedStatement.setString(3, type);
+            if (id == null)
+                preparedStatement.setNull(4, Types.BIGINT);
+            else
+                preparedStatement.setLong(4, id);
+            preparedStatement.execute();
+        } catch (SQLException sqlException) {
+            throw new RuntimeException("Error publishing change notification", sqlException);
+        }
+    }
+}
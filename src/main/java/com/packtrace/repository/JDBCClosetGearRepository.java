@@ -1,5 +1,7 @@
 package com.packtrace.repository;
 
+import com.packtrace.dto.ClosetGearResponse;
+import com.packtrace.metrics.RepositoryMetrics;
 import com.packtrace.model.ClosetGear;
 import io.agroal.api.AgroalDataSource;
 import jakarta.enterprise.context.ApplicationScoped;
@@ -11,49 +13,96 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 
 @ApplicationScoped
+@RepositoryMetrics
 public class JDBCClosetGearRepository implements ClosetGearRepository {
 
     @Inject
     AgroalDataSource dataSource;
 
+    @Inject
+    DataSourceRouter dataSourceRouter;
+
     @Override
-    public void addGearToCloset(Long closetId, Long gearId, int quantity) {
+    public WriteResult addGearToCloset(Long closetId, Long gearId, int quantity, String auth0Id) {
+        // Both the closet and the gear must belong to the caller; checked in the same statement as the upsert
         String sql = """
-            INSERT INTO closet_gear (closet_id, gear_id, quantity)
-            VALUES (?, ?, ?)
-            ON CONFLICT (closet_id, gear_id)
-            DO UPDATE SET quantity = closet_gear.quantity + EXCLUDED.quantity;
-            """;
+                WITH owner AS (
+                    SELECT id FROM account WHERE auth0_id = ?
+                ), owned_closet AS (
+                    SELECT id FROM closet WHERE id = ? AND account_id = (SELECT id FROM owner)
+                ), owned_gear AS (
+                    SELECT id FROM gear WHERE id = ? AND owner_id = (SELECT id FROM owner)
+                ), upserted AS (
+                    INSERT INTO closet_gear (closet_id, gear_id, quantity)
+                    SELECT owned_closet.id, owned_gear.id, ? FROM owned_closet, owned_gear
+                    ON CONFLICT (closet_id, gear_id)
+                    DO UPDATE SET quantity = closet_gear.quantity + EXCLUDED.quantity
+                    RETURNING closet_id
+                )
+                SELECT EXISTS (SELECT 1 FROM upserted) AS applied,
+                       EXISTS (SELECT 1 FROM closet WHERE id = ?) AS closet_found,
+                       EXISTS (SELECT 1 FROM owned_closet) AS closet_owned,
+                       EXISTS (SELECT 1 FROM gear WHERE id = ?) AS gear_found;
+                """;
 
         try (Connection connection = dataSource.getConnection();
              PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
 
-            preparedStatement.setLong(1, closetId);
-            preparedStatement.setLong(2, gearId);
-            preparedStatement.setInt(3, quantity);
-            preparedStatement.executeUpdate();
+            preparedStatement.setString(1, auth0Id);
+            preparedStatement.setLong(2, closetId);
+            preparedStatement.setLong(3, gearId);
+            preparedStatement.setInt(4, quantity);
+            preparedStatement.setLong(5, closetId);
+            preparedStatement.setLong(6, gearId);
+
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                resultSet.next();
+                return WriteResult.ofAddition(
+                        resultSet.getBoolean("applied"),
+                        resultSet.getBoolean("closet_found"),
+                        resultSet.getBoolean("closet_owned"),
+                        resultSet.getBoolean("gear_found")
+                );
+            }
         } catch (SQLException sqlException) {
             throw new RuntimeException("Error adding gear to closet", sqlException);
         }
     }
 
     @Override
-    public void removeGearFromCloset(Long closetId, Long gearId) {
+    public WriteResult removeGearFromCloset(Long closetId, Long gearId, String auth0Id) {
         String sql = """
-                DELETE FROM closet_gear
-                WHERE closet_id = ? AND gear_id = ?;
+                WITH owned_closet AS (
+                    SELECT id FROM closet
+                    WHERE id = ? AND account_id = (SELECT id FROM account WHERE auth0_id = ?)
+                ), deleted AS (
+                    DELETE FROM closet_gear
+                    WHERE closet_id = (SELECT id FROM owned_closet) AND gear_id = ?
+                    RETURNING gear_id
+                )
+                SELECT EXISTS (SELECT 1 FROM deleted) AS applied,
+                       EXISTS (SELECT 1 FROM closet WHERE id = ?) AS closet_found,
+                       EXISTS (SELECT 1 FROM owned_closet) AS closet_owned;
                 """;
 
         try (Connection connection = dataSource.getConnection();
              PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
 
             preparedStatement.setLong(1, closetId);
-            preparedStatement.setLong(2, gearId);
+            preparedStatement.setString(2, auth0Id);
+            preparedStatement.setLong(3, gearId);
+            preparedStatement.setLong(4, closetId);
 
-            preparedStatement.executeUpdate();
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                resultSet.next();
+                return WriteResult.ofMembership(
+                        resultSet.getBoolean("applied"),
+                        resultSet.getBoolean("closet_found"),
+                        resultSet.getBoolean("closet_owned")
+                );
+            }
         } catch (SQLException sqlException) {
             throw new RuntimeException("Error removing gear from closet", sqlException);
         }
@@ -88,44 +137,71 @@ public class JDBCClosetGearRepository implements ClosetGearRepository {
     }
 
     @Override
-    public Optional<Integer> getQuantity(Long closetId, Long gearId) {
+    public List<ClosetGearResponse> findGearResponsesInCloset(Long closetId) {
+        // Single joined read so listing a closet costs one round-trip regardless of its size
         String sql = """
-                SELECT quantity
-                FROM closet_gear
-                WHERE closet_id = ? AND gear_id = ?;
+                SELECT g.id, g.name, g.brand, g.weight_grams, cg.quantity
+                FROM closet_gear cg
+                JOIN gear g ON g.id = cg.gear_id
+                WHERE cg.closet_id = ?;
                 """;
 
-        try (Connection connection = dataSource.getConnection();
+        List<ClosetGearResponse> gearList = new ArrayList<>();
+        try (Connection connection = dataSourceRouter.readConnection();
              PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
 
             preparedStatement.setLong(1, closetId);
-            preparedStatement.setLong(2, gearId);
             try (ResultSet resultSet = preparedStatement.executeQuery()) {
-                if (resultSet.next())
-                    return Optional.of(resultSet.getInt("quantity"));
+                while (resultSet.next()) {
+                    gearList.add(new ClosetGearResponse(
+                            resultSet.getLong("id"),
+                            resultSet.getString("name"),
+                            resultSet.getString("brand"),
+                            resultSet.getInt("weight_grams"),
+                            resultSet.getInt("quantity")
+                    ));
+                }
             }
         } catch (SQLException sqlException) {
-            throw new RuntimeException("Error getting gear quantity", sqlException);
+            throw new RuntimeException("Error finding gear details in closet", sqlException);
         }
-        return Optional.empty();
+        return gearList;
     }
 
     @Override
-    public void updateQuantity(Long closetId, Long gearId, int quantity) {
+    public WriteResult updateQuantity(Long closetId, Long gearId, int quantity, String auth0Id) {
         String sql = """
-                UPDATE closet_gear
-                SET quantity = ?
-                WHERE closet_id = ? AND gear_id = ?;
+                WITH owned_closet AS (
+                    SELECT id FROM closet
+                    WHERE id = ? AND account_id = (SELECT id FROM account WHERE auth0_id = ?)
+                ), updated AS (
+                    UPDATE closet_gear
+                    SET quantity = ?
+                    WHERE closet_id = (SELECT id FROM owned_closet) AND gear_id = ?
+                    RETURNING gear_id
+                )
+                SELECT EXISTS (SELECT 1 FROM updated) AS applied,
+                       EXISTS (SELECT 1 FROM closet WHERE id = ?) AS closet_found,
+                       EXISTS (SELECT 1 FROM owned_closet) AS closet_owned;
                 """;
 
         try (Connection connection = dataSource.getConnection();
              PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
 
-            preparedStatement.setInt(1, quantity);
-            preparedStatement.setLong(2, closetId);
-            preparedStatement.setLong(3, gearId);
+            preparedStatement.setLong(1, closetId);
+            preparedStatement.setString(2, auth0Id);
+            preparedStatement.setInt(3, quantity);
+            preparedStatement.setLong(4, gearId);
+            preparedStatement.setLong(5, closetId);
 
-            preparedStatement.executeUpdate();
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                resultSet.next();
+                return WriteResult.ofMembership(
+                        resultSet.getBoolean("applied"),
+                        resultSet.getBoolean("closet_found"),
+                        resultSet.getBoolean("closet_owned")
+                );
+            }
         } catch (SQLException sqlException) {
             throw new RuntimeException("Error updating gear quantity in closet", sqlException);
         }
@@ -0,0 +1,62 @@
+package com.packtrace.repository;
+
+import com.packtrace.metrics.RepositoryMetrics;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Optional;
+
+/**
+ * Version counters maintained by the triggers in V6__entity_versions.sql. Routed like the reads they tag,
+ * so a version never comes from a newer snapshot than the body it is attached to.
+ */
+@ApplicationScoped
+@RepositoryMetrics
+public class JDBCEntityVersionRepository implements EntityVersionRepository {
+
+    @Inject
+    DataSourceRouter dataSourceRouter;
+
+    @Override
+    public Optional<Long> findPackVersion(Long packId) {
+        String sql = """
+                SELECT version FROM pack WHERE id = ?;
+                """;
+        return findVersion(sql, packId, "Error finding pack version");
+    }
+
+    @Override
+    public Optional<Long> findClosetVersion(Long closetId) {
+        String sql = """
+                SELECT version FROM closet WHERE id = ?;
+                """;
+        return findVersion(sql, closetId, "Error finding closet version");
+    }
+
+    @Override
+    public Optional<Long> findGearLibraryVersion(String auth0Id) {
+        String sql = """
+                SELECT gear_version AS version FROM account WHERE auth0_id = ?;
+                """;
+        return findVersion(sql, auth0Id, "Error finding gear library version");
+    }
+
+    private Optional<Long> findVersion(String sql, Object key, String errorMessage) {
+        try (Connection connection = dataSourceRouter.readConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+
+            preparedStatement.setObject(1, key);
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                if (resultSet.next())
+                    return Optional.of(resultSet.getLong("version"));
+            }
+        } catch (SQLException sqlException) {
+            throw new RuntimeException(errorMessage, sqlException);
+        }
+        return Optional.empty();
+    }
+}
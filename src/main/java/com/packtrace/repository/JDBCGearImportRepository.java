@@ -0,0 +1,267 @@
+package com.packtrace.repository;
+
+import com.packtrace.dto.GearImportError;
+import com.packtrace.dto.GearImportResponse;
+import com.packtrace.metrics.RepositoryMetrics;
+import io.agroal.api.AgroalDataSource;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+
+@ApplicationScoped
+@RepositoryMetrics
+public class JDBCGearImportRepository implements GearImportRepository {
+
+    private static final int COPY_CHUNK_SIZE = 64 * 1024;
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    @Override
+    public GearImportResult importGear(UUID ownerId, Iterator<GearImportRow> rows, Long packId, Long closetId) {
+        // Must run inside a transaction: the staging table is dropped on commit
+        String createStagingSql = """
+                CREATE TEMP TABLE gear_import (
+                    line_no      BIGINT,
+                    name         TEXT,
+                    brand        TEXT,
+                    category     TEXT,
+                    weight       TEXT,
+                    unit         TEXT,
+                    website_url  TEXT,
+                    qty          TEXT,
+                    weight_grams NUMERIC,
+                    quantity     INTEGER,
+                    gear_id      BIGINT,
+                    error        TEXT
+                ) ON COMMIT DROP;
+                """;
+        String copySql = """
+                COPY gear_import (line_no, name, brand, category, weight, unit, website_url, qty)
+                FROM STDIN WITH (FORMAT csv)
+                """;
+        String validateSql = """
+                UPDATE gear_import
+                SET error = CASE
+                        WHEN name IS NULL OR btrim(name) = '' THEN 'Gear name is required'
+                        WHEN length(btrim(name)) > 255 THEN 'Name must be 1-255 characters'
+                        WHEN length(brand) > 255 THEN 'Brand cannot exceed 255 characters'
+                        WHEN length(category) > 100 THEN 'Category cannot exceed 100 characters'
+                        WHEN length(website_url) > 2000 THEN 'URL cannot exceed 2000 characters'
+                        WHEN weight IS NULL OR weight !~ '^\\s*[0-9]+(\\.[0-9]+)?\\s*$' THEN 'Weight must be a number'
+                        WHEN lower(btrim(coalesce(unit, 'g'))) NOT IN ('', 'g', 'gram', 'grams', 'kg', 'oz', 'lb')
+                            THEN 'Unknown weight unit'
+                        WHEN qty IS NOT NULL AND btrim(qty) <> '' AND qty !~ '^\\s*[0-9]{1,6}\\s*$'
+                            THEN 'Quantity must be a whole number'
+                    END;
+                """;
+        // Grams stay numeric until the range check passes, so an oversized weight is a row error, not an overflow
+        String convertSql = """
+                UPDATE gear_import
+                SET weight_grams = round(btrim(weight)::numeric * CASE lower(btrim(coalesce(unit, 'g')))
+                            WHEN 'kg' THEN 1000
+                            WHEN 'oz' THEN 28.349523125
+                            WHEN 'lb' THEN 453.59237
+                            ELSE 1
+                        END),
+                    quantity = coalesce(nullif(btrim(qty), '')::integer, 1)
+                WHERE error IS NULL;
+
+                UPDATE gear_import
+                SET error = CASE
+                        WHEN weight_grams NOT BETWEEN 1 AND 50000 THEN 'Weight must be between 1 gram and 50 kg'
+                        WHEN quantity < 1 THEN 'Quantity must be at least 1'
+                    END
+                WHERE error IS NULL;
+                """;
+        // Ids are drawn up front so the staging rows can be joined to pack/closet membership afterwards
+        String assignIdsSql = """
+                UPDATE gear_import
+                SET gear_id = nextval(pg_get_serial_sequence('gear', 'id'))
+                WHERE error IS NULL;
+                """;
+        // The pack and closet are checked and key-share locked in the insert itself, so nothing is imported into a
+        // container the caller does not own, and neither can be deleted before the rows are attached
+        String insertSql = """
+                WITH owned_pack AS (
+                    SELECT id FROM pack WHERE id = ? AND account_id = ? FOR KEY SHARE
+                ), owned_closet AS (
+                    SELECT id FROM closet WHERE id = ? AND account_id = ? FOR KEY SHARE
+                ), target AS (
+                    SELECT (?::BIGINT IS NULL OR EXISTS (SELECT 1 FROM owned_pack))
+                       AND (?::BIGINT IS NULL OR EXISTS (SELECT 1 FROM owned_closet)) AS owned
+                ), inserted AS (
+                    INSERT INTO gear (id, owner_id, name, brand, weight_grams, website_url, category)
+                    OVERRIDING SYSTEM VALUE
+                    SELECT gear_id, ?, btrim(name), nullif(btrim(brand), ''), weight_grams::integer,
+                           nullif(btrim(website_url), ''), nullif(btrim(category), '')
+                    FROM gear_import
+                    WHERE error IS NULL AND (SELECT owned FROM target)
+                    ORDER BY line_no
+                    RETURNING id
+                )
+                SELECT EXISTS (SELECT 1 FROM owned_pack) AS pack_owned,
+                       EXISTS (SELECT 1 FROM pack WHERE id = ?) AS pack_found,
+                       EXISTS (SELECT 1 FROM owned_closet) AS closet_owned,
+                       EXISTS (SELECT 1 FROM closet WHERE id = ?) AS closet_found;
+                """;
+        String attachToPackSql = """
+                INSERT INTO pack_gear (pack_id, gear_id, quantity)
+                SELECT p.id, i.gear_id, i.quantity
+                FROM gear_import i
+                JOIN pack p ON p.id = ? AND p.account_id = ?
+                WHERE i.error IS NULL;
+                """;
+        String attachToClosetSql = """
+                INSERT INTO closet_gear (closet_id, gear_id, quantity)
+                SELECT c.id, i.gear_id, i.quantity
+                FROM gear_import i
+                JOIN closet c ON c.id = ? AND c.account_id = ?
+                WHERE i.error IS NULL;
+                """;
+        String summarySql = """
+                SELECT count(*) FILTER (WHERE error IS NULL) AS imported,
+                       count(*) FILTER (WHERE error IS NOT NULL) AS rejected
+                FROM gear_import;
+                """;
+        String errorsSql = """
+                SELECT line_no, error
+                FROM gear_import
+                WHERE error IS NOT NULL
+                ORDER BY line_no
+                LIMIT ?;
+                """;
+
+        try (Connection connection = dataSource.getConnection()) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(createStagingSql);
+            }
+
+            copyRows(connection, copySql, rows);
+
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(validateSql);
+                statement.execute(convertSql);
+                statement.execute(assignIdsSql);
+            }
+
+            WriteResult packResult;
+            WriteResult closetResult;
+            try (PreparedStatement preparedStatement = connection.prepareStatement(insertSql)) {
+                preparedStatement.setObject(1, packId, Types.BIGINT);
+                preparedStatement.setObject(2, ownerId);
+                preparedStatement.setObject(3, closetId, Types.BIGINT);
+                preparedStatement.setObject(4, ownerId);
+                preparedStatement.setObject(5, packId, Types.BIGINT);
+                preparedStatement.setObject(6, closetId, Types.BIGINT);
+                preparedStatement.setObject(7, ownerId);
+                preparedStatement.setObject(8, packId, Types.BIGINT);
+                preparedStatement.setObject(9, closetId, Types.BIGINT);
+                try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                    resultSet.next();
+                    packResult = packId == null ? WriteResult.APPLIED
+                            : WriteResult.of(resultSet.getBoolean("pack_owned"), resultSet.getBoolean("pack_found"));
+                    closetResult = closetId == null ? WriteResult.APPLIED
+                            : WriteResult.of(resultSet.getBoolean("closet_owned"), resultSet.getBoolean("closet_found"));
+                }
+            }
+            if (packResult != WriteResult.APPLIED || closetResult != WriteResult.APPLIED)
+                return new GearImportResult(packResult, closetResult, null);
+
+            if (packId != null) {
+                try (PreparedStatement preparedStatement = connection.prepareStatement(attachToPackSql)) {
+                    preparedStatement.setLong(1, packId);
+                    preparedStatement.setObject(2, ownerId);
+                    preparedStatement.executeUpdate();
+                }
+            }
+
+            if (closetId != null) {
+                try (PreparedStatement preparedStatement = connection.prepareStatement(attachToClosetSql)) {
+                    preparedStatement.setLong(1, closetId);
+                    preparedStatement.setObject(2, ownerId);
+                    preparedStatement.executeUpdate();
+                }
+            }
+
+            int imported;
+            int rejected;
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(summarySql)) {
+                resultSet.next();
+                imported = resultSet.getInt("imported");
+                rejected = resultSet.getInt("rejected");
+            }
+
+            List<GearImportError> errors = new ArrayList<>();
+            try (PreparedStatement preparedStatement = connection.prepareStatement(errorsSql)) {
+                preparedStatement.setInt(1, MAX_REPORTED_ERRORS);
+                try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                    while (resultSet.next())
+                        errors.add(new GearImportError(resultSet.getLong("line_no"), resultSet.getString("error")));
+                }
+            }
+
+            return new GearImportResult(packResult, closetResult, new GearImportResponse(imported, rejected, errors));
+        } catch (SQLException sqlException) {
+            throw new RuntimeException("Error importing gear", sqlException);
+        }
+    }
+
+    private void copyRows(Connection connection, String copySql, Iterator<GearImportRow> rows) throws SQLException {
+        CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(copySql);
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(COPY_CHUNK_SIZE + 1024);
+            StringBuilder line = new StringBuilder(256);
+            while (rows.hasNext()) {
+                GearImportRow row = rows.next();
+                line.setLength(0);
+                line.append(row.line());
+                appendField(line, row.name());
+                appendField(line, row.brand());
+                appendField(line, row.category());
+                appendField(line, row.weight());
+                appendField(line, row.unit());
+                appendField(line, row.websiteURL());
+                appendField(line, row.quantity());
+                line.append('\n');
+
+                byte[] bytes = line.toString().getBytes(StandardCharsets.UTF_8);
+                buffer.write(bytes, 0, bytes.length);
+                if (buffer.size() >= COPY_CHUNK_SIZE) {
+                    copyIn.writeToCopy(buffer.toByteArray(), 0, buffer.size());
+                    buffer.reset();
+                }
+            }
+            if (buffer.size() > 0)
+                copyIn.writeToCopy(buffer.toByteArray(), 0, buffer.size());
+            copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive())
+                copyIn.cancelCopy();
+        }
+    }
+
+    private void appendField(StringBuilder line, String value) {
+        line.append(',');
+        // Unquoted empty means NULL in COPY's CSV format; quoted values are taken literally
+        if (value == null)
+            return;
+        line.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+}
@@ -1,5 +1,6 @@
 package com.packtrace.repository;
 
+import com.packtrace.metrics.RepositoryMetrics;
 import com.packtrace.model.Gear;
 import io.agroal.api.AgroalDataSource;
 import jakarta.enterprise.context.ApplicationScoped;
@@ -11,27 +12,42 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 import java.util.UUID;
 
 @ApplicationScoped
+@RepositoryMetrics
 public class JDBCGearRepository implements GearRepository{
 
     @Inject
     AgroalDataSource dataSource;
 
+    @Inject
+    DataSourceRouter dataSourceRouter;
+
     @Override
-    public void deleteById(Long id) {
+    public WriteResult deleteById(Long id, String auth0Id) {
         String sql = """
-                DELETE FROM gear
-                WHERE id = ?;
+                WITH deleted AS (
+                    DELETE FROM gear
+                    WHERE id = ? AND owner_id = (SELECT id FROM account WHERE auth0_id = ?)
+                    RETURNING id
+                )
+                SELECT EXISTS (SELECT 1 FROM deleted) AS applied,
+                       EXISTS (SELECT 1 FROM gear WHERE id = ?) AS found;
                 """;
         try (Connection connection = dataSource.getConnection();
              PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
 
             preparedStatement.setLong(1, id);
-            preparedStatement.executeUpdate();
+            preparedStatement.setString(2, auth0Id);
+            preparedStatement.setLong(3, id);
 
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                resultSet.next();
+                return WriteResult.of(resultSet.getBoolean("applied"), resultSet.getBoolean("found"));
+            }
         } catch (SQLException sqlException) {
             throw new RuntimeException("Error deleting gear", sqlException);
         }
@@ -81,6 +97,72 @@ public class JDBCGearRepository implements GearRepository{
         return gears;
     }
 
+    @Override
+    public List<Gear> findByOwnerId(UUID ownerId, GearFilter filter, GearSort sort, PageRequest page) {
+        // Filters, ordering and the keyset predicate are all pushed into SQL; only one page is read
+        GearPageQuery query = GearPageQuery.build(ownerId, filter, sort, page, index -> "?");
+        List<Object> parameters = query.parameters();
+
+        List<Gear> gears = new ArrayList<>();
+        try (Connection connection = dataSourceRouter.readConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(query.sql())) {
+
+            for (int i = 0; i < parameters.size(); i++)
+                preparedStatement.setObject(i + 1, parameters.get(i));
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                while (resultSet.next())
+                    gears.add(mapRow(resultSet));
+            }
+        } catch (SQLException sqlException) {
+            throw new RuntimeException("Error finding gear page by owner id", sqlException);
+        }
+        return gears;
+    }
+
+    @Override
+    public List<Gear> search(UUID ownerId, String query, double similarityThreshold, int limit) {
+        // Needs an active transaction: the threshold is set with is_local = true so it never leaks to pooled connections
+        String thresholdSql = """
+                SELECT set_config('pg_trgm.word_similarity_threshold', ?, true);
+                """;
+        // Substring and fuzzy matches both come from gear_owner_search_idx; name prefixes rank first
+        String sql = """
+                SELECT id, owner_id, name, brand, weight_grams, website_url, category
+                FROM gear
+                WHERE owner_id = ?
+                  AND (search_text LIKE ? ESCAPE '\\' OR ? <% search_text)
+                ORDER BY lower(name) LIKE ? ESCAPE '\\' DESC,
+                         word_similarity(?, search_text) DESC,
+                         name, id
+                LIMIT ?;
+                """;
+        String normalized = query.trim().toLowerCase(Locale.ROOT);
+        String escaped = normalized.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+
+        List<Gear> gears = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            try (PreparedStatement preparedStatement = connection.prepareStatement(thresholdSql)) {
+                preparedStatement.setString(1, Double.toString(similarityThreshold));
+                preparedStatement.execute();
+            }
+            try (PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+                preparedStatement.setObject(1, ownerId);
+                preparedStatement.setString(2, "%" + escaped + "%");
+                preparedStatement.setString(3, normalized);
+                preparedStatement.setString(4, escaped + "%");
+                preparedStatement.setString(5, normalized);
+                preparedStatement.setInt(6, limit);
+                try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                    while (resultSet.next())
+                        gears.add(mapRow(resultSet));
+                }
+            }
+        } catch (SQLException sqlException) {
+            throw new RuntimeException("Error searching gear", sqlException);
+        }
+        return gears;
+    }
+
     private Gear mapRow(ResultSet resultSet) throws SQLException {
         return new Gear(
                 resultSet.getLong("id"),
@@ -94,17 +176,22 @@ public class JDBCGearRepository implements GearRepository{
     }
 
     @Override
-    public void persist(Gear gear) {
+    public WriteResult persist(Gear gear, String auth0Id) {
         String sql = """
-                INSERT INTO gear (owner_id, name, brand, weight_grams, website_url, category)
-                VALUES (?, ?, ?, ?, ?, ?)
-                RETURNING id;
+                WITH owner AS (
+                    SELECT id FROM account WHERE auth0_id = ?
+                ), inserted AS (
+                    INSERT INTO gear (owner_id, name, brand, weight_grams, website_url, category)
+                    SELECT id, ?, ?, ?, ?, ? FROM owner
+                    RETURNING id, owner_id
+                )
+                SELECT id, owner_id FROM inserted;
                 """;
 
         try (Connection connection = dataSource.getConnection();
              PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
 
-            preparedStatement.setObject(1, gear.getOwnerId());
+            preparedStatement.setString(1, auth0Id);
             preparedStatement.setString(2, gear.getName());
             preparedStatement.setString(3, gear.getBrand());
             // Handle nullable weight_grams
@@ -117,8 +204,12 @@ public class JDBCGearRepository implements GearRepository{
             preparedStatement.setString(6, gear.getCategory());
 
             try (ResultSet resultSet = preparedStatement.executeQuery()) {
-                if (resultSet.next())
-                    gear.setId(resultSet.getLong(1));
+                if (!resultSet.next())
+                    return WriteResult.ACCOUNT_NOT_FOUND;
+
+                gear.setId(resultSet.getLong("id"));
+                gear.setOwnerId(resultSet.getObject("owner_id", java.util.UUID.class));
+                return WriteResult.APPLIED;
             }
         } catch (SQLException sqlException) {
             throw new RuntimeException("Error creating gear", sqlException);
@@ -126,11 +217,16 @@ public class JDBCGearRepository implements GearRepository{
     }
 
     @Override
-    public void update(Gear gear) {
+    public WriteResult update(Gear gear, String auth0Id) {
         String sql = """
-                UPDATE gear
-                SET name = ?, brand = ?, weight_grams = ?, website_url = ?, category = ?
-                WHERE id = ?;
+                WITH updated AS (
+                    UPDATE gear
+                    SET name = ?, brand = ?, weight_grams = ?, website_url = ?, category = ?
+                    WHERE id = ? AND owner_id = (SELECT id FROM account WHERE auth0_id = ?)
+                    RETURNING owner_id
+                )
+                SELECT (SELECT owner_id FROM updated) AS owner_id,
+                       EXISTS (SELECT 1 FROM gear WHERE id = ?) AS found;
                 """;
 
         try (Connection connection = dataSource.getConnection();
@@ -147,8 +243,16 @@ public class JDBCGearRepository implements GearRepository{
             preparedStatement.setString(4, gear.getWebsiteURL());
             preparedStatement.setString(5, gear.getCategory());
             preparedStatement.setLong(6, gear.getId());
+            preparedStatement.setString(7, auth0Id);
+            preparedStatement.setLong(8, gear.getId());
 
-            preparedStatement.executeUpdate();
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                resultSet.next();
+                UUID ownerId = resultSet.getObject("owner_id", java.util.UUID.class);
+                if (ownerId != null)
+                    gear.setOwnerId(ownerId);
+                return WriteResult.of(ownerId != null, resultSet.getBoolean("found"));
+            }
         } catch (SQLException sqlException) {
             throw new RuntimeException("Error updating gear", sqlException);
         }
@@ -1,5 +1,8 @@
 package com.packtrace.repository;
 
+import com.packtrace.dto.PackGearOperation;
+import com.packtrace.dto.PackGearResponse;
+import com.packtrace.metrics.RepositoryMetrics;
 import com.packtrace.model.PackGear;
 import io.agroal.api.AgroalDataSource;
 import jakarta.enterprise.context.ApplicationScoped;
@@ -10,50 +13,98 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
 
 @ApplicationScoped
+@RepositoryMetrics
 public class JDBCPackGearRepository implements PackGearRepository {
 
     @Inject
     AgroalDataSource dataSource;
 
+    @Inject
+    DataSourceRouter dataSourceRouter;
+
     @Override
-    public void addGearToPack(Long packId, Long gearId, int quantity) {
+    public WriteResult addGearToPack(Long packId, Long gearId, int quantity, String auth0Id) {
+        // Both the pack and the gear must belong to the caller; checked in the same statement as the upsert
         String sql = """
-                INSERT INTO pack_gear (pack_id, gear_id, quantity)
-                VALUES (?, ?, ?)
-                ON CONFLICT (pack_id, gear_id)
-            DO UPDATE SET quantity = pack_gear.quantity + EXCLUDED.quantity;
+                WITH owner AS (
+                    SELECT id FROM account WHERE auth0_id = ?
+                ), owned_pack AS (
+                    SELECT id FROM pack WHERE id = ? AND account_id = (SELECT id FROM owner)
+                ), owned_gear AS (
+                    SELECT id FROM gear WHERE id = ? AND owner_id = (SELECT id FROM owner)
+                ), upserted AS (
+                    INSERT INTO pack_gear (pack_id, gear_id, quantity)
+                    SELECT owned_pack.id, owned_gear.id, ? FROM owned_pack, owned_gear
+                    ON CONFLICT (pack_id, gear_id)
+                    DO UPDATE SET quantity = pack_gear.quantity + EXCLUDED.quantity
+                    RETURNING pack_id
+                )
+                SELECT EXISTS (SELECT 1 FROM upserted) AS applied,
+                       EXISTS (SELECT 1 FROM pack WHERE id = ?) AS pack_found,
+                       EXISTS (SELECT 1 FROM owned_pack) AS pack_owned,
+                       EXISTS (SELECT 1 FROM gear WHERE id = ?) AS gear_found;
                 """;
 
         try (Connection connection = dataSource.getConnection();
              PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
 
-            preparedStatement.setLong(1, packId);
-            preparedStatement.setLong(2, gearId);
-            preparedStatement.setInt(3, quantity);
-            preparedStatement.executeUpdate();
+            preparedStatement.setString(1, auth0Id);
+            preparedStatement.setLong(2, packId);
+            preparedStatement.setLong(3, gearId);
+            preparedStatement.setInt(4, quantity);
+            preparedStatement.setLong(5, packId);
+            preparedStatement.setLong(6, gearId);
+
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                resultSet.next();
+                return WriteResult.ofAddition(
+                        resultSet.getBoolean("applied"),
+                        resultSet.getBoolean("pack_found"),
+                        resultSet.getBoolean("pack_owned"),
+                        resultSet.getBoolean("gear_found")
+                );
+            }
         } catch (SQLException sqlException) {
             throw new RuntimeException("Error adding gear to pack", sqlException);
         }
     }
 
     @Override
-    public void removeGearFromPack(Long packId, Long gearId) {
+    public WriteResult removeGearFromPack(Long packId, Long gearId, String auth0Id) {
         String sql = """
-                DELETE FROM pack_gear
-                WHERE pack_id = ? AND gear_id = ?;
+                WITH owned_pack AS (
+                    SELECT id FROM pack
+                    WHERE id = ? AND account_id = (SELECT id FROM account WHERE auth0_id = ?)
+                ), deleted AS (
+                    DELETE FROM pack_gear
+                    WHERE pack_id = (SELECT id FROM owned_pack) AND gear_id = ?
+                    RETURNING gear_id
+                )
+                SELECT EXISTS (SELECT 1 FROM deleted) AS applied,
+                       EXISTS (SELECT 1 FROM pack WHERE id = ?) AS pack_found,
+                       EXISTS (SELECT 1 FROM owned_pack) AS pack_owned;
                 """;
 
         try (Connection connection = dataSource.getConnection();
              PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
 
             preparedStatement.setLong(1, packId);
-            preparedStatement.setLong(2, gearId);
+            preparedStatement.setString(2, auth0Id);
+            preparedStatement.setLong(3, gearId);
+            preparedStatement.setLong(4, packId);
 
-            preparedStatement.executeUpdate();
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                resultSet.next();
+                return WriteResult.ofMembership(
+                        resultSet.getBoolean("applied"),
+                        resultSet.getBoolean("pack_found"),
+                        resultSet.getBoolean("pack_owned")
+                );
+            }
         } catch (SQLException sqlException) {
             throw new RuntimeException("Error removing gear from pack", sqlException);
         }
@@ -88,46 +139,192 @@ public class JDBCPackGearRepository implements PackGearRepository {
     }
 
     @Override
-    public Optional<Integer> getQuantity(Long packId, Long gearId) {
+    public List<PackGearResponse> findGearResponsesInPack(Long packId) {
+        // Single joined read so listing a pack costs one round-trip regardless of its size
         String sql = """
-                SELECT quantity
-                FROM pack_gear
-                WHERE pack_id = ? AND gear_id = ?;
+                SELECT g.id, g.name, g.brand, g.weight_grams, pg.quantity
+                FROM pack_gear pg
+                JOIN gear g ON g.id = pg.gear_id
+                WHERE pg.pack_id = ?;
+                """;
+
+        List<PackGearResponse> gearList = new ArrayList<>();
+        try (Connection connection = dataSourceRouter.readConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+
+            preparedStatement.setLong(1, packId);
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    gearList.add(new PackGearResponse(
+                            resultSet.getLong("id"),
+                            resultSet.getString("name"),
+                            resultSet.getString("brand"),
+                            resultSet.getInt("weight_grams"),
+                            resultSet.getInt("quantity")
+                    ));
+                }
+            }
+        } catch (SQLException sqlException) {
+            throw new RuntimeException("Error finding gear details in pack", sqlException);
+        }
+        return gearList;
+    }
+
+    @Override
+    public WriteResult updateQuantity(Long packId, Long gearId, int quantity, String auth0Id) {
+        String sql = """
+                WITH owned_pack AS (
+                    SELECT id FROM pack
+                    WHERE id = ? AND account_id = (SELECT id FROM account WHERE auth0_id = ?)
+                ), updated AS (
+                    UPDATE pack_gear
+                    SET quantity = ?
+                    WHERE pack_id = (SELECT id FROM owned_pack) AND gear_id = ?
+                    RETURNING gear_id
+                )
+                SELECT EXISTS (SELECT 1 FROM updated) AS applied,
+                       EXISTS (SELECT 1 FROM pack WHERE id = ?) AS pack_found,
+                       EXISTS (SELECT 1 FROM owned_pack) AS pack_owned;
                 """;
 
         try (Connection connection = dataSource.getConnection();
              PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
 
             preparedStatement.setLong(1, packId);
-            preparedStatement.setLong(2, gearId);
+            preparedStatement.setString(2, auth0Id);
+            preparedStatement.setInt(3, quantity);
+            preparedStatement.setLong(4, gearId);
+            preparedStatement.setLong(5, packId);
+
             try (ResultSet resultSet = preparedStatement.executeQuery()) {
-                if (resultSet.next())
-                    return Optional.of(resultSet.getInt("quantity"));
+                resultSet.next();
+                return WriteResult.ofMembership(
+                        resultSet.getBoolean("applied"),
+                        resultSet.getBoolean("pack_found"),
+                        resultSet.getBoolean("pack_owned")
+                );
             }
         } catch (SQLException sqlException) {
-            throw new RuntimeException("Error getting gear quantity", sqlException);
+            throw new RuntimeException("Error updating gear quantity in pack", sqlException);
         }
-        return Optional.empty();
     }
 
     @Override
-    public void updateQuantity(Long packId, Long gearId, int quantity) {
+    public WriteResult lockForEdit(Long packId, Collection<Long> addedGearIds, String auth0Id) {
+        // Locks the pack only if the caller owns it, and checks every gear item to be added in the same statement.
+        // The row lock holds until the surrounding transaction ends, so the edits that follow cannot interleave
+        // with another batch on the same pack or with its deletion.
         String sql = """
+                WITH owner AS (
+                    SELECT id FROM account WHERE auth0_id = ?
+                ), owned_pack AS (
+                    SELECT id FROM pack
+                    WHERE id = ? AND account_id = (SELECT id FROM owner)
+                    FOR UPDATE
+                ), added AS (
+                    SELECT a.gear_id, g.owner_id
+                    FROM unnest(?::BIGINT[]) AS a(gear_id)
+                    LEFT JOIN gear g ON g.id = a.gear_id
+                )
+                SELECT EXISTS (SELECT 1 FROM owned_pack) AS pack_owned,
+                       EXISTS (SELECT 1 FROM pack WHERE id = ?) AS pack_found,
+                       NOT EXISTS (SELECT 1 FROM added WHERE owner_id IS NULL) AS gear_found,
+                       NOT EXISTS (SELECT 1 FROM added WHERE owner_id IS DISTINCT FROM (SELECT id FROM owner)) AS gear_owned;
+                """;
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+
+            preparedStatement.setString(1, auth0Id);
+            preparedStatement.setLong(2, packId);
+            preparedStatement.setArray(3, connection.createArrayOf("bigint", addedGearIds.toArray()));
+            preparedStatement.setLong(4, packId);
+
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                resultSet.next();
+                boolean gearOwned = resultSet.getBoolean("gear_owned");
+                return WriteResult.ofAddition(
+                        resultSet.getBoolean("pack_owned") && gearOwned,
+                        resultSet.getBoolean("pack_found"),
+                        resultSet.getBoolean("pack_owned"),
+                        resultSet.getBoolean("gear_found")
+                );
+            }
+        } catch (SQLException sqlException) {
+            throw new RuntimeException("Error locking pack for edit", sqlException);
+        }
+    }
+
+    @Override
+    public List<Long> applyOperations(Long packId, List<PackGearOperation> operations) {
+        // Callers take lockForEdit first in the same transaction; this only applies the edits.
+        // Consecutive operations of the same type are sent as one JDBC batch, preserving request order.
+        String addSql = """
+                INSERT INTO pack_gear (pack_id, gear_id, quantity)
+                VALUES (?, ?, ?)
+                ON CONFLICT (pack_id, gear_id)
+                DO UPDATE SET quantity = pack_gear.quantity + EXCLUDED.quantity;
+                """;
+        String removeSql = """
+                DELETE FROM pack_gear
+                WHERE pack_id = ? AND gear_id = ?;
+                """;
+        String setQuantitySql = """
                 UPDATE pack_gear
                 SET quantity = ?
                 WHERE pack_id = ? AND gear_id = ?;
                 """;
 
+        List<Long> missingGearIds = new ArrayList<>();
         try (Connection connection = dataSource.getConnection();
-             PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+             PreparedStatement addStatement = connection.prepareStatement(addSql);
+             PreparedStatement removeStatement = connection.prepareStatement(removeSql);
+             PreparedStatement setQuantityStatement = connection.prepareStatement(setQuantitySql)) {
 
-            preparedStatement.setInt(1, quantity);
-            preparedStatement.setLong(2, packId);
-            preparedStatement.setLong(3, gearId);
+            int start = 0;
+            while (start < operations.size()) {
+                PackGearOperation.Type type = operations.get(start).type();
+                PreparedStatement preparedStatement = switch (type) {
+                    case ADD -> addStatement;
+                    case REMOVE -> removeStatement;
+                    case SET_QUANTITY -> setQuantityStatement;
+                };
+
+                int end = start;
+                while (end < operations.size() && operations.get(end).type() == type) {
+                    PackGearOperation operation = operations.get(end);
+                    switch (type) {
+                        case ADD -> {
+                            preparedStatement.setLong(1, packId);
+                            preparedStatement.setLong(2, operation.gearId());
+                            preparedStatement.setInt(3, operation.quantity());
+                        }
+                        case REMOVE -> {
+                            preparedStatement.setLong(1, packId);
+                            preparedStatement.setLong(2, operation.gearId());
+                        }
+                        case SET_QUANTITY -> {
+                            preparedStatement.setInt(1, operation.quantity());
+                            preparedStatement.setLong(2, packId);
+                            preparedStatement.setLong(3, operation.gearId());
+                        }
+                    }
+                    preparedStatement.addBatch();
+                    end++;
+                }
 
-            preparedStatement.executeUpdate();
+                int[] updateCounts = preparedStatement.executeBatch();
+                if (type == PackGearOperation.Type.SET_QUANTITY) {
+                    for (int i = 0; i < updateCounts.length; i++) {
+                        if (updateCounts[i] == 0)
+                            missingGearIds.add(operations.get(start + i).gearId());
+                    }
+                }
+                start = end;
+            }
         } catch (SQLException sqlException) {
-            throw new RuntimeException("Error updating gear quantity in pack", sqlException);
+            throw new RuntimeException("Error applying gear operations to pack", sqlException);
         }
+        return missingGearIds;
     }
 }
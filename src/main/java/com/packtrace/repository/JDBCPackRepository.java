@@ -1,5 +1,6 @@
 package com.packtrace.repository;
 
+import com.packtrace.metrics.RepositoryMetrics;
 import com.packtrace.model.Pack;
 import io.agroal.api.AgroalDataSource;
 import jakarta.enterprise.context.ApplicationScoped;
@@ -15,29 +16,53 @@ import java.util.Optional;
 import java.util.UUID;
 
 @ApplicationScoped
+@RepositoryMetrics
 public class JDBCPackRepository implements PackRepository {
 
+    private static final String UNIQUE_VIOLATION = "23505";
+
     @Inject
     AgroalDataSource dataSource;
 
+    @Inject
+    DataSourceRouter dataSourceRouter;
+
     @Override
-    public void persist(Pack pack) {
+    public WriteResult persist(Pack pack, String auth0Id) {
+        // Name uniqueness is enforced by the (account_id, name) constraint rather than a racy pre-check
         String sql = """
-                INSERT INTO pack (account_id, name, description)
-                VALUES (?, ?, ?)
-                RETURNING id;
+                WITH owner AS (
+                    SELECT id FROM account WHERE auth0_id = ?
+                ), inserted AS (
+                    INSERT INTO pack (account_id, name, description)
+                    SELECT id, ?, ? FROM owner
+                    ON CONFLICT (account_id, name) DO NOTHING
+                    RETURNING id, account_id
+                )
+                SELECT (SELECT id FROM inserted) AS id,
+                       (SELECT account_id FROM inserted) AS account_id,
+                       EXISTS (SELECT 1 FROM owner) AS account_found;
                 """;
 
         try (Connection connection = dataSource.getConnection();
              PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
 
-            preparedStatement.setObject(1, pack.getAccountId());
+            preparedStatement.setString(1, auth0Id);
             preparedStatement.setString(2, pack.getName());
             preparedStatement.setString(3, pack.getDescription());
 
             try (ResultSet resultSet = preparedStatement.executeQuery()) {
-                if (resultSet.next())
-                    pack.setId(resultSet.getLong(1));
+                resultSet.next();
+                if (!resultSet.getBoolean("account_found"))
+                    return WriteResult.ACCOUNT_NOT_FOUND;
+
+                Long id = resultSet.getObject("id", Long.class);
+                if (id == null)
+                    return WriteResult.CONFLICT;
+
+                pack.setId(id);
+                pack.setAccountId(resultSet.getObject("account_id", java.util.UUID.class));
+                return WriteResult.APPLIED;
             }
         } catch (SQLException sqlException) {
             throw new RuntimeException("Error persisting pack", sqlException);
@@ -89,61 +114,103 @@ public class JDBCPackRepository implements PackRepository {
     }
 
     @Override
-    public void update(Pack pack) {
-        String sql = """
-                UPDATE pack
-                SET name = ?, description = ?
-                WHERE id = ?;
+    public List<Pack> findByAccountId(UUID accountId, PageRequest page) {
+        String firstPageSql = """
+                SELECT id, account_id, name, description
+                FROM pack
+                WHERE account_id = ?
+                ORDER BY name, id
+                LIMIT ?;
                 """;
+        String nextPageSql = """
+                SELECT id, account_id, name, description
+                FROM pack
+                WHERE account_id = ? AND (name, id) > (?, ?)
+                ORDER BY name, id
+                LIMIT ?;
+                """;
+        List<Pack> packs = new ArrayList<>();
+        try (Connection connection = dataSourceRouter.readConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(page.isFirstPage() ? firstPageSql : nextPageSql)) {
 
-        try (Connection connection = dataSource.getConnection();
-             PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
-
-            preparedStatement.setString(1, pack.getName());
-            preparedStatement.setString(2, pack.getDescription());
-            preparedStatement.setLong(3, pack.getId());
-
-            preparedStatement.executeUpdate();
+            preparedStatement.setObject(1, accountId);
+            if (page.isFirstPage()) {
+                preparedStatement.setInt(2, page.limit());
+            } else {
+                preparedStatement.setString(2, page.afterKey());
+                preparedStatement.setLong(3, page.afterId());
+                preparedStatement.setInt(4, page.limit());
+            }
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                while (resultSet.next())
+                    packs.add(mapRow(resultSet));
+            }
         } catch (SQLException sqlException) {
-            throw new RuntimeException("Error updating pack", sqlException);
+            throw new RuntimeException("Error finding pack page by account id", sqlException);
         }
+        return packs;
     }
 
     @Override
-    public void deleteById(Long id) {
+    public WriteResult update(Pack pack, String auth0Id) {
         String sql = """
-                DELETE FROM pack
-                WHERE id = ?;
+                WITH updated AS (
+                    UPDATE pack
+                    SET name = ?, description = ?
+                    WHERE id = ? AND account_id = (SELECT id FROM account WHERE auth0_id = ?)
+                    RETURNING account_id
+                )
+                SELECT (SELECT account_id FROM updated) AS account_id,
+                       EXISTS (SELECT 1 FROM pack WHERE id = ?) AS found;
                 """;
+
         try (Connection connection = dataSource.getConnection();
              PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
 
-            preparedStatement.setLong(1, id);
-            preparedStatement.executeUpdate();
+            preparedStatement.setString(1, pack.getName());
+            preparedStatement.setString(2, pack.getDescription());
+            preparedStatement.setLong(3, pack.getId());
+            preparedStatement.setString(4, auth0Id);
+            preparedStatement.setLong(5, pack.getId());
 
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                resultSet.next();
+                UUID accountId = resultSet.getObject("account_id", java.util.UUID.class);
+                if (accountId != null)
+                    pack.setAccountId(accountId);
+                return WriteResult.of(accountId != null, resultSet.getBoolean("found"));
+            }
         } catch (SQLException sqlException) {
-            throw new RuntimeException("Error deleting pack", sqlException);
+            if (UNIQUE_VIOLATION.equals(sqlException.getSQLState()))
+                return WriteResult.CONFLICT;
+            throw new RuntimeException("Error updating pack", sqlException);
         }
     }
 
     @Override
-    public boolean existsByAccountIdAndName(UUID accountId, String name) {
+    public WriteResult deleteById(Long id, String auth0Id) {
         String sql = """
-                SELECT 1
-                FROM pack
-                WHERE account_id = ? AND name = ?;
+                WITH deleted AS (
+                    DELETE FROM pack
+                    WHERE id = ? AND account_id = (SELECT id FROM account WHERE auth0_id = ?)
+                    RETURNING id
+                )
+                SELECT EXISTS (SELECT 1 FROM deleted) AS applied,
+                       EXISTS (SELECT 1 FROM pack WHERE id = ?) AS found;
                 """;
-
         try (Connection connection = dataSource.getConnection();
              PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
 
-            preparedStatement.setObject(1, accountId);
-            preparedStatement.setString(2, name);
+            preparedStatement.setLong(1, id);
+            preparedStatement.setString(2, auth0Id);
+            preparedStatement.setLong(3, id);
+
             try (ResultSet resultSet = preparedStatement.executeQuery()) {
-                return resultSet.next();
+                resultSet.next();
+                return WriteResult.of(resultSet.getBoolean("applied"), resultSet.getBoolean("found"));
             }
         } catch (SQLException sqlException) {
-            throw new RuntimeException("Error checking pack existence", sqlException);
+            throw new RuntimeException("Error deleting pack", sqlException);
         }
     }
 
@@ -0,0 +1,183 @@
+package com.packtrace.repository;
+
+import com.packtrace.dto.PackWeightResponse;
+import com.packtrace.metrics.RepositoryMetrics;
+import io.agroal.api.AgroalDataSource;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@ApplicationScoped
+@RepositoryMetrics
+public class JDBCPackTotalsRepository implements PackTotalsRepository {
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    @Override
+    public List<PackCategoryTotal> findCategoryTotals(Long packId) {
+        String sql = """
+                SELECT category, grams, item_count
+                FROM pack_category_totals
+                WHERE pack_id = ?
+                ORDER BY category;
+                """;
+        List<PackCategoryTotal> totals = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+
+            preparedStatement.setLong(1, packId);
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    totals.add(new PackCategoryTotal(
+                            resultSet.getString("category"),
+                            resultSet.getLong("grams"),
+                            resultSet.getLong("item_count")
+                    ));
+                }
+            }
+        } catch (SQLException sqlException) {
+            throw new RuntimeException("Error finding pack category totals", sqlException);
+        }
+        return totals;
+    }
+
+    @Override
+    public List<PackWeightResponse> findPackWeights(UUID accountId, Collection<Long> packIds) {
+        // Packs without a totals row are empty
+        String sql = """
+                SELECT p.id AS pack_id, coalesce(t.total_grams, 0) AS total_grams, coalesce(t.item_count, 0) AS item_count
+                FROM pack p
+                LEFT JOIN pack_totals t ON t.pack_id = p.id
+                WHERE p.account_id = ? AND p.id = ANY(?)
+                ORDER BY p.id;
+                """;
+        List<PackWeightResponse> weights = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+
+            preparedStatement.setObject(1, accountId);
+            preparedStatement.setArray(2, connection.createArrayOf("bigint", packIds.toArray()));
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    weights.add(new PackWeightResponse(
+                            resultSet.getLong("pack_id"),
+                            resultSet.getLong("total_grams"),
+                            resultSet.getLong("item_count")
+                    ));
+                }
+            }
+        } catch (SQLException sqlException) {
+            throw new RuntimeException("Error finding pack weights", sqlException);
+        }
+        return weights;
+    }
+
+    @Override
+    public List<Long> findDriftedPackIds(int limit) {
+        // Packs whose category rows disagree with pack_gear, or whose header disagrees with its category rows
+        String sql = """
+                WITH expected AS (
+                    SELECT pg.pack_id, coalesce(g.category, '') AS category,
+                           sum(pg.quantity * coalesce(g.weight_grams, 0)) AS grams,
+                           sum(pg.quantity) AS item_count
+                    FROM pack_gear pg
+                    JOIN gear g ON g.id = pg.gear_id
+                    GROUP BY pg.pack_id, coalesce(g.category, '')
+                    HAVING sum(pg.quantity) <> 0
+                ), category_sums AS (
+                    SELECT pack_id, sum(grams) AS grams, sum(item_count) AS item_count
+                    FROM pack_category_totals
+                    GROUP BY pack_id
+                )
+                SELECT coalesce(e.pack_id, t.pack_id) AS pack_id
+                FROM expected e
+                FULL JOIN pack_category_totals t ON t.pack_id = e.pack_id AND t.category = e.category
+                WHERE e.grams IS DISTINCT FROM t.grams OR e.item_count IS DISTINCT FROM t.item_count
+                UNION
+                SELECT h.pack_id
+                FROM pack_totals h
+                LEFT JOIN category_sums c ON c.pack_id = h.pack_id
+                WHERE h.total_grams <> coalesce(c.grams, 0) OR h.item_count <> coalesce(c.item_count, 0)
+                UNION
+                SELECT c.pack_id
+                FROM category_sums c
+                WHERE NOT EXISTS (SELECT 1 FROM pack_totals h WHERE h.pack_id = c.pack_id)
+                LIMIT ?;
+                """;
+        List<Long> packIds = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+
+            preparedStatement.setInt(1, limit);
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                while (resultSet.next())
+                    packIds.add(resultSet.getLong("pack_id"));
+            }
+        } catch (SQLException sqlException) {
+            throw new RuntimeException("Error finding drifted pack totals", sqlException);
+        }
+        return packIds;
+    }
+
+    @Override
+    public void rebuild(Long packId) {
+        // Must run inside a transaction: the header row lock blocks the totals triggers for this pack
+        // until the rebuilt rows commit, so no concurrent delta is lost or applied twice
+        String lockSql = """
+                INSERT INTO pack_totals (pack_id)
+                SELECT id FROM pack WHERE id = ?
+                ON CONFLICT (pack_id) DO UPDATE SET pack_id = excluded.pack_id;
+                """;
+        String clearSql = """
+                DELETE FROM pack_category_totals WHERE pack_id = ?;
+                """;
+        String categoriesSql = """
+                INSERT INTO pack_category_totals (pack_id, category, grams, item_count)
+                SELECT pg.pack_id, coalesce(g.category, ''),
+                       sum(pg.quantity * coalesce(g.weight_grams, 0)), sum(pg.quantity)
+                FROM pack_gear pg
+                JOIN gear g ON g.id = pg.gear_id
+                WHERE pg.pack_id = ?
+                GROUP BY pg.pack_id, coalesce(g.category, '')
+                HAVING sum(pg.quantity) <> 0;
+                """;
+        String headerSql = """
+                UPDATE pack_totals
+                SET total_grams = coalesce((SELECT sum(grams) FROM pack_category_totals WHERE pack_id = ?), 0),
+                    item_count = coalesce((SELECT sum(item_count) FROM pack_category_totals WHERE pack_id = ?), 0)
+                WHERE pack_id = ?;
+                """;
+
+        try (Connection connection = dataSource.getConnection()) {
+            try (PreparedStatement preparedStatement = connection.prepareStatement(lockSql)) {
+                preparedStatement.setLong(1, packId);
+                preparedStatement.executeUpdate();
+            }
+            try (PreparedStatement preparedStatement = connection.prepareStatement(clearSql)) {
+                preparedStatement.setLong(1, packId);
+                preparedStatement.executeUpdate();
+            }
+            try (PreparedStatement preparedStatement = connection.prepareStatement(categoriesSql)) {
+                preparedStatement.setLong(1, packId);
+                preparedStatement.executeUpdate();
+            }
+            try (PreparedStatement preparedStatement = connection.prepareStatement(headerSql)) {
+                preparedStatement.setLong(1, packId);
+                preparedStatement.setLong(2, packId);
+                preparedStatement.setLong(3, packId);
+                preparedStatement.executeUpdate();
+            }
+        } catch (SQLException sqlException) {
+            throw new RuntimeException("Error rebuilding pack totals", sqlException);
+        }
+    }
+}
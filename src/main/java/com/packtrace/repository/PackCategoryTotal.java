@@ -0,0 +1,8 @@
+package com.packtrace.repository;
+
+public record PackCategoryTotal(
+        String category,
+        long grams,
+        long itemCount
+) {
+}
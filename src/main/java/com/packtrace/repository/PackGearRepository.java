@@ -1,14 +1,18 @@
 package com.packtrace.repository;
 
+import com.packtrace.dto.PackGearOperation;
+import com.packtrace.dto.PackGearResponse;
 import com.packtrace.model.PackGear;
 
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
 
 public interface PackGearRepository {
-    void addGearToPack(Long packId, Long gearId, int quantity);
-    void removeGearFromPack(Long packId, Long gearId);
+    WriteResult addGearToPack(Long packId, Long gearId, int quantity, String auth0Id);
+    WriteResult removeGearFromPack(Long packId, Long gearId, String auth0Id);
     List<PackGear> findGearInPack(Long packId);
-    Optional<Integer> getQuantity(Long packId, Long gearId);
-    void updateQuantity(Long packId, Long gearId, int quantity);
+    List<PackGearResponse> findGearResponsesInPack(Long packId);
+    WriteResult updateQuantity(Long packId, Long gearId, int quantity, String auth0Id);
+    WriteResult lockForEdit(Long packId, Collection<Long> addedGearIds, String auth0Id);
+    List<Long> applyOperations(Long packId, List<PackGearOperation> operations);
 }
@@ -7,10 +7,10 @@ import java.util.Optional;
 import java.util.UUID;
 
 public interface PackRepository {
-    void persist(Pack pack);
+    WriteResult persist(Pack pack, String auth0Id);
     Optional<Pack> findById(Long id);
     List<Pack> findByAccountId(UUID accountId);
-    void update(Pack pack);
-    void deleteById(Long id);
-    boolean existsByAccountIdAndName(UUID accountId, String name);
+    List<Pack> findByAccountId(UUID accountId, PageRequest page);
+    WriteResult update(Pack pack, String auth0Id);
+    WriteResult deleteById(Long id, String auth0Id);
 }
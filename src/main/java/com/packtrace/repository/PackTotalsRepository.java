@@ -0,0 +1,14 @@
+package com.packtrace.repository;
+
+import com.packtrace.dto.PackWeightResponse;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface PackTotalsRepository {
+    List<PackCategoryTotal> findCategoryTotals(Long packId);
+    List<PackWeightResponse> findPackWeights(UUID accountId, Collection<Long> packIds);
+    List<Long> findDriftedPackIds(int limit);
+    void rebuild(Long packId);
+}
@@ -0,0 +1,15 @@
+package com.packtrace.repository;
+
+/**
+ * Keyset page position: rows strictly after (afterKey, afterId) in the requested order.
+ * Both are null for the first page.
+ */
+public record PageRequest(
+        int limit,
+        String afterKey,
+        Long afterId
+) {
+    public boolean isFirstPage() {
+        return afterId == null;
+    }
+}
@@ -0,0 +1,10 @@
+package com.packtrace.repository;
+
+import com.packtrace.model.Account;
+import io.smallrye.mutiny.Uni;
+
+import java.util.Optional;
+
+public interface ReactiveAccountRepository {
+    Uni<Optional<Account>> findByAuth0Id(String auth0Id);
+}
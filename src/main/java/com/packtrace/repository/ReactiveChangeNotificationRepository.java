@@ -0,0 +1,11 @@
+package com.packtrace.repository;
+
+import com.packtrace.dto.ChangeNotification;
+import io.smallrye.mutiny.Uni;
+
+import java.util.function.BiConsumer;
+
+public interface ReactiveChangeNotificationRepository {
+    // Completes once the connection is listening; onClosed runs if it is lost afterwards
+    Uni<Void> listen(BiConsumer<String, ChangeNotification> handler, Runnable onClosed);
+}
@@ -0,0 +1,10 @@
+package com.packtrace.repository;
+
+import com.packtrace.dto.ClosetGearResponse;
+import io.smallrye.mutiny.Uni;
+
+import java.util.List;
+
+public interface ReactiveClosetGearRepository {
+    Uni<List<ClosetGearResponse>> findGearResponsesInCloset(Long closetId);
+}
@@ -0,0 +1,13 @@
+package com.packtrace.repository;
+
+import com.packtrace.model.Closet;
+import io.smallrye.mutiny.Uni;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface ReactiveClosetRepository {
+    Uni<Optional<Closet>> findById(Long id);
+    Uni<List<Closet>> findByAccountId(UUID accountId, PageRequest page);
+}
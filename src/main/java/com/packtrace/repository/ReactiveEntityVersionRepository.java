@@ -0,0 +1,11 @@
+package com.packtrace.repository;
+
+import io.smallrye.mutiny.Uni;
+
+import java.util.Optional;
+
+public interface ReactiveEntityVersionRepository {
+    Uni<Optional<Long>> findPackVersion(Long packId);
+    Uni<Optional<Long>> findClosetVersion(Long closetId);
+    Uni<Optional<Long>> findGearLibraryVersion(String auth0Id);
+}
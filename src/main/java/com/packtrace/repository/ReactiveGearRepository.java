@@ -0,0 +1,13 @@
+package com.packtrace.repository;
+
+import com.packtrace.model.Gear;
+import io.smallrye.mutiny.Uni;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface ReactiveGearRepository {
+    Uni<Optional<Gear>> findById(Long id);
+    Uni<List<Gear>> findByOwnerId(UUID ownerId, GearFilter filter, GearSort sort, PageRequest page);
+}
@@ -0,0 +1,10 @@
+package com.packtrace.repository;
+
+import com.packtrace.dto.PackGearResponse;
+import io.smallrye.mutiny.Uni;
+
+import java.util.List;
+
+public interface ReactivePackGearRepository {
+    Uni<List<PackGearResponse>> findGearResponsesInPack(Long packId);
+}
@@ -0,0 +1,13 @@
+package com.packtrace.repository;
+
+import com.packtrace.model.Pack;
+import io.smallrye.mutiny.Uni;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface ReactivePackRepository {
+    Uni<Optional<Pack>> findById(Long id);
+    Uni<List<Pack>> findByAccountId(UUID accountId, PageRequest page);
+}
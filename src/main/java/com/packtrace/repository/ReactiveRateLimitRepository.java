@@ -0,0 +1,10 @@
+package com.packtrace.repository;
+
+import io.smallrye.mutiny.Uni;
+
+import java.time.Duration;
+
+public interface ReactiveRateLimitRepository {
+    Uni<Long> take(String bucketKey, long capacity, Duration period, long minimum, long wanted);
+    Uni<Integer> deleteIdle(Duration idleFor);
+}
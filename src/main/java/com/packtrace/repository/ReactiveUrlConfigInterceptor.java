@@ -0,0 +1,57 @@
+package com.packtrace.repository;
+
+import io.smallrye.config.ConfigSourceInterceptor;
+import io.smallrye.config.ConfigSourceInterceptorContext;
+import io.smallrye.config.ConfigValue;
+import io.smallrye.config.Priorities;
+import jakarta.annotation.Priority;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Fills in quarkus.datasource.reactive.url from the JDBC URL when DB_REACTIVE_URL is not set, so the
+ * reactive client always talks to the same database as the JDBC pool instead of defaulting to localhost.
+ * Only the host, port, database and sslmode carry over; credentials come from quarkus.datasource.username/password.
+ */
+@Priority(Priorities.APPLICATION)
+public class ReactiveUrlConfigInterceptor implements ConfigSourceInterceptor {
+
+    static final String REACTIVE_URL = "quarkus.datasource.reactive.url";
+    static final String JDBC_URL = "quarkus.datasource.jdbc.url";
+
+    private static final Pattern JDBC_POSTGRES_URL =
+            Pattern.compile("jdbc:postgresql://([^/,?]+)/([^/?]+)(?:\\?(.*))?");
+    private static final Pattern SSL_MODE = Pattern.compile("(?:^|&)(sslmode=[^&]+)");
+
+    @Override
+    public ConfigValue getValue(ConfigSourceInterceptorContext context, String name) {
+        ConfigValue value = context.proceed(name);
+        if (!REACTIVE_URL.equals(name) || (value != null && value.getValue() != null && !value.getValue().isBlank()))
+            return value;
+
+        ConfigValue jdbcUrl = context.proceed(JDBC_URL);
+        if (jdbcUrl == null || jdbcUrl.getValue() == null || jdbcUrl.getValue().isBlank())
+            return value;
+
+        return jdbcUrl.withName(REACTIVE_URL).withValue(toReactiveUrl(jdbcUrl.getValue()));
+    }
+
+    static String toReactiveUrl(String jdbcUrl) {
+        Matcher matcher = JDBC_POSTGRES_URL.matcher(jdbcUrl);
+        if (!matcher.matches())
+            throw new IllegalStateException("Cannot derive " + REACTIVE_URL + " from " + JDBC_URL
+                    + " (expected jdbc:postgresql://host[:port]/database); set DB_REACTIVE_URL");
+
+        StringBuilder reactiveUrl = new StringBuilder("postgresql://")
+                .append(matcher.group(1))
+                .append('/')
+                .append(matcher.group(2));
+        if (matcher.group(3) != null) {
+            Matcher sslMode = SSL_MODE.matcher(matcher.group(3));
+            if (sslMode.find())
+                reactiveUrl.append('?').append(sslMode.group(1));
+        }
+        return reactiveUrl.toString();
+    }
+}
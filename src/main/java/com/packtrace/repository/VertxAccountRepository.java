@@ -0,0 +1,44 @@
+package com.packtrace.repository;
+
+import com.packtrace.model.Account;
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.sqlclient.Pool;
+import io.vertx.mutiny.sqlclient.Row;
+import io.vertx.mutiny.sqlclient.RowIterator;
+import io.vertx.mutiny.sqlclient.Tuple;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.util.Optional;
+
+@ApplicationScoped
+public class VertxAccountRepository implements ReactiveAccountRepository {
+
+    @Inject
+    Pool client;
+
+    @Override
+    public Uni<Optional<Account>> findByAuth0Id(String auth0Id) {
+        String sql = """
+                SELECT id, auth0_id, username, bio
+                FROM account
+                WHERE auth0_id = $1;
+                """;
+
+        return client.preparedQuery(sql)
+                .execute(Tuple.of(auth0Id))
+                .map(rows -> {
+                    RowIterator<Row> iterator = rows.iterator();
+                    return iterator.hasNext() ? Optional.of(mapRow(iterator.next())) : Optional.<Account>empty();
+                });
+    }
+
+    private Account mapRow(Row row) {
+        return new Account(
+                row.getUUID("id"),
+                row.getString("auth0_id"),
+                row.getString("username"),
+                row.getString("bio")
+        );
+    }
+}
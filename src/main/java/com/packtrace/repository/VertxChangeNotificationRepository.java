@@ -0,0 +1,37 @@
+package com.packtrace.repository;
+
+import com.packtrace.dto.ChangeNotification;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.json.JsonObject;
+import io.vertx.mutiny.pgclient.PgConnection;
+import io.vertx.mutiny.sqlclient.Pool;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Holds one connection of the reactive pool for as long as it listens.
+ */
+@ApplicationScoped
+public class VertxChangeNotificationRepository implements ReactiveChangeNotificationRepository {
+
+    @Inject
+    Pool client;
+
+    @Override
+    public Uni<Void> listen(BiConsumer<String, ChangeNotification> handler, Runnable onClosed) {
+        return client.getConnection().chain(connection -> {
+            PgConnection pgConnection = PgConnection.cast(connection);
+            pgConnection.notificationHandler(notification -> {
+                JsonObject payload = new JsonObject(notification.getPayload());
+                handler.accept(payload.getString("auth0Id"), new ChangeNotification(
+                        payload.getString("type"), payload.getLong("id"), payload.getLong("version")));
+            });
+            return connection.query("LISTEN " + ChangeNotificationRepository.CHANNEL).execute()
+                    .onItem().invoke(() -> pgConnection.closeHandler(onClosed))
+                    .onFailure().call(connection::close)
+                    .replaceWithVoid();
+        });
+    }
+}
@@ -0,0 +1,46 @@
+package com.packtrace.repository;
+
+import com.packtrace.dto.ClosetGearResponse;
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.sqlclient.Pool;
+import io.vertx.mutiny.sqlclient.Row;
+import io.vertx.mutiny.sqlclient.Tuple;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+@ApplicationScoped
+public class VertxClosetGearRepository implements ReactiveClosetGearRepository {
+
+    @Inject
+    Pool client;
+
+    @Override
+    public Uni<List<ClosetGearResponse>> findGearResponsesInCloset(Long closetId) {
+        String sql = """
+                SELECT g.id, g.name, g.brand, g.weight_grams, cg.quantity
+                FROM closet_gear cg
+                JOIN gear g ON g.id = cg.gear_id
+                WHERE cg.closet_id = $1;
+                """;
+
+        return client.preparedQuery(sql)
+                .execute(Tuple.of(closetId))
+                .map(rows -> {
+                    List<ClosetGearResponse> gearList = new ArrayList<>(rows.size());
+                    for (Row row : rows) {
+                        gearList.add(new ClosetGearResponse(
+                                row.getLong("id"),
+                                row.getString("name"),
+                                row.getString("brand"),
+                                Objects.requireNonNullElse(row.getInteger("weight_grams"), 0),
+                                row.getInteger("quantity")
+                        ));
+                    }
+                    return gearList;
+                });
+    }
+}
@@ -0,0 +1,51 @@
+package com.packtrace.repository;
+
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.sqlclient.Pool;
+import io.vertx.mutiny.sqlclient.Row;
+import io.vertx.mutiny.sqlclient.RowIterator;
+import io.vertx.mutiny.sqlclient.Tuple;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.util.Optional;
+
+@ApplicationScoped
+public class VertxEntityVersionRepository implements ReactiveEntityVersionRepository {
+
+    @Inject
+    Pool client;
+
+    @Override
+    public Uni<Optional<Long>> findPackVersion(Long packId) {
+        String sql = """
+                SELECT version FROM pack WHERE id = $1;
+                """;
+        return findVersion(sql, packId);
+    }
+
+    @Override
+    public Uni<Optional<Long>> findClosetVersion(Long closetId) {
+        String sql = """
+                SELECT version FROM closet WHERE id = $1;
+                """;
+        return findVersion(sql, closetId);
+    }
+
+    @Override
+    public Uni<Optional<Long>> findGearLibraryVersion(String auth0Id) {
+        String sql = """
+                SELECT gear_version AS version FROM account WHERE auth0_id = $1;
+                """;
+        return findVersion(sql, auth0Id);
+    }
+
+    private Uni<Optional<Long>> findVersion(String sql, Object key) {
+        return client.preparedQuery(sql)
+                .execute(Tuple.of(key))
+                .map(rows -> {
+                    RowIterator<Row> iterator = rows.iterator();
+                    return iterator.hasNext() ? Optional.of(iterator.next().getLong("version")) : Optional.<Long>empty();
+                });
+    }
+}
@@ -0,0 +1,66 @@
+package com.packtrace.repository;
+
+import com.packtrace.model.Gear;
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.sqlclient.Pool;
+import io.vertx.mutiny.sqlclient.Row;
+import io.vertx.mutiny.sqlclient.RowIterator;
+import io.vertx.mutiny.sqlclient.RowSet;
+import io.vertx.mutiny.sqlclient.Tuple;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@ApplicationScoped
+public class VertxGearRepository implements ReactiveGearRepository {
+
+    @Inject
+    Pool client;
+
+    @Override
+    public Uni<Optional<Gear>> findById(Long id) {
+        String sql = """
+                SELECT id, owner_id, name, brand, weight_grams, website_url, category
+                FROM gear
+                WHERE id = $1;
+                """;
+
+        return client.preparedQuery(sql)
+                .execute(Tuple.of(id))
+                .map(rows -> {
+                    RowIterator<Row> iterator = rows.iterator();
+                    return iterator.hasNext() ? Optional.of(mapRow(iterator.next())) : Optional.<Gear>empty();
+                });
+    }
+
+    @Override
+    public Uni<List<Gear>> findByOwnerId(UUID ownerId, GearFilter filter, GearSort sort, PageRequest page) {
+        GearPageQuery query = GearPageQuery.build(ownerId, filter, sort, page, index -> "$" + index);
+        return client.preparedQuery(query.sql())
+                .execute(Tuple.from(query.parameters()))
+                .map(this::mapRows);
+    }
+
+    private List<Gear> mapRows(RowSet<Row> rows) {
+        List<Gear> gears = new ArrayList<>(rows.size());
+        for (Row row : rows)
+            gears.add(mapRow(row));
+        return gears;
+    }
+
+    private Gear mapRow(Row row) {
+        return new Gear(
+                row.getLong("id"),
+                row.getUUID("owner_id"),
+                row.getString("name"),
+                row.getString("brand"),
+                row.getInteger("weight_grams"),
+                row.getString("website_url"),
+                row.getString("category")
+        );
+    }
+}
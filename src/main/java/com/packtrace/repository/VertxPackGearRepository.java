@@ -0,0 +1,46 @@
+package com.packtrace.repository;
+
+import com.packtrace.dto.PackGearResponse;
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.sqlclient.Pool;
+import io.vertx.mutiny.sqlclient.Row;
+import io.vertx.mutiny.sqlclient.Tuple;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+@ApplicationScoped
+public class VertxPackGearRepository implements ReactivePackGearRepository {
+
+    @Inject
+    Pool client;
+
+    @Override
+    public Uni<List<PackGearResponse>> findGearResponsesInPack(Long packId) {
+        String sql = """
+                SELECT g.id, g.name, g.brand, g.weight_grams, pg.quantity
+                FROM pack_gear pg
+                JOIN gear g ON g.id = pg.gear_id
+                WHERE pg.pack_id = $1;
+                """;
+
+        return client.preparedQuery(sql)
+                .execute(Tuple.of(packId))
+                .map(rows -> {
+                    List<PackGearResponse> gearList = new ArrayList<>(rows.size());
+                    for (Row row : rows) {
+                        gearList.add(new PackGearResponse(
+                                row.getLong("id"),
+                                row.getString("name"),
+                                row.getString("brand"),
+                                Objects.requireNonNullElse(row.getInteger("weight_grams"), 0),
+                                row.getInteger("quantity")
+                        ));
+                    }
+                    return gearList;
+                });
+    }
+}
@@ -0,0 +1,76 @@
+package com.packtrace.repository;
+
+import com.packtrace.model.Pack;
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.sqlclient.Pool;
+import io.vertx.mutiny.sqlclient.Row;
+import io.vertx.mutiny.sqlclient.RowIterator;
+import io.vertx.mutiny.sqlclient.RowSet;
+import io.vertx.mutiny.sqlclient.Tuple;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@ApplicationScoped
+public class VertxPackRepository implements ReactivePackRepository {
+
+    @Inject
+    Pool client;
+
+    @Override
+    public Uni<Optional<Pack>> findById(Long id) {
+        String sql = """
+                SELECT id, account_id, name, description
+                FROM pack
+                WHERE id = $1;
+                """;
+
+        return client.preparedQuery(sql)
+                .execute(Tuple.of(id))
+                .map(rows -> {
+                    RowIterator<Row> iterator = rows.iterator();
+                    return iterator.hasNext() ? Optional.of(mapRow(iterator.next())) : Optional.<Pack>empty();
+                });
+    }
+
+    @Override
+    public Uni<List<Pack>> findByAccountId(UUID accountId, PageRequest page) {
+        String firstPageSql = """
+                SELECT id, account_id, name, description
+                FROM pack
+                WHERE account_id = $1
+                ORDER BY name, id
+                LIMIT $2;
+                """;
+        String nextPageSql = """
+                SELECT id, account_id, name, description
+                FROM pack
+                WHERE account_id = $1 AND (name, id) > ($2, $3)
+                ORDER BY name, id
+                LIMIT $4;
+                """;
+
+        Uni<RowSet<Row>> rows = page.isFirstPage()
+                ? client.preparedQuery(firstPageSql).execute(Tuple.of(accountId, page.limit()))
+                : client.preparedQuery(nextPageSql).execute(Tuple.of(accountId, page.afterKey(), page.afterId(), page.limit()));
+        return rows.map(rowSet -> {
+            List<Pack> packs = new ArrayList<>(rowSet.size());
+            for (Row row : rowSet)
+                packs.add(mapRow(row));
+            return packs;
+        });
+    }
+
+    private Pack mapRow(Row row) {
+        return new Pack(
+                row.getLong("id"),
+                row.getUUID("account_id"),
+                row.getString("name"),
+                row.getString("description")
+        );
+    }
+}
@@ -0,0 +1,42 @@
+package com.packtrace.repository;
+
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.sqlclient.Pool;
+import io.vertx.mutiny.sqlclient.SqlResult;
+import io.vertx.mutiny.sqlclient.Tuple;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.time.Duration;
+
+/**
+ * Uses the reactive client because the rate limit filter runs on the event loop for non-blocking endpoints.
+ */
+@ApplicationScoped
+public class VertxRateLimitRepository implements ReactiveRateLimitRepository {
+
+    @Inject
+    Pool client;
+
+    @Override
+    public Uni<Long> take(String bucketKey, long capacity, Duration period, long minimum, long wanted) {
+        String sql = """
+                SELECT rate_limit_take($1, $2, $3, $4, $5) AS granted;
+                """;
+        return client.preparedQuery(sql)
+                .execute(Tuple.of(bucketKey, capacity, period.toMillis(), minimum, wanted))
+                .map(rows -> rows.iterator().next().getLong("granted"));
+    }
+
+    @Override
+    public Uni<Integer> deleteIdle(Duration idleFor) {
+        // A bucket idle for a whole refill period is full again, so dropping it changes nothing
+        String sql = """
+                DELETE FROM rate_limit_bucket
+                WHERE last_used_at < clock_timestamp() - $1::BIGINT * INTERVAL '1 millisecond';
+                """;
+        return client.preparedQuery(sql)
+                .execute(Tuple.of(idleFor.toMillis()))
+                .map(SqlResult::rowCount);
+    }
+}
@@ -0,0 +1,40 @@
+package com.packtrace.repository;
+
+/**
+ * Outcome of an ownership-predicated write. The ownership check runs inside the
+ * statement itself, so the result tells the caller why nothing was written.
+ */
+public enum WriteResult {
+    APPLIED,
+    ACCOUNT_NOT_FOUND,
+    NOT_FOUND,
+    FORBIDDEN,
+    CONFLICT,
+    GEAR_NOT_FOUND,
+    GEAR_FORBIDDEN,
+    NOT_IN_CONTAINER;
+
+    static WriteResult of(boolean applied, boolean found) {
+        if (applied)
+            return APPLIED;
+        return found ? FORBIDDEN : NOT_FOUND;
+    }
+
+    static WriteResult ofMembership(boolean applied, boolean containerFound, boolean containerOwned) {
+        if (applied)
+            return APPLIED;
+        if (!containerFound)
+            return NOT_FOUND;
+        return containerOwned ? NOT_IN_CONTAINER : FORBIDDEN;
+    }
+
+    static WriteResult ofAddition(boolean applied, boolean containerFound, boolean containerOwned, boolean gearFound) {
+        if (applied)
+            return APPLIED;
+        if (!containerFound)
+            return NOT_FOUND;
+        if (!containerOwned)
+            return FORBIDDEN;
+        return gearFound ? GEAR_FORBIDDEN : GEAR_NOT_FOUND;
+    }
+}
@@ -1,9 +1,14 @@
 package com.packtrace.resource;
 
+import com.packtrace.concurrency.PoolAdmission;
+import com.packtrace.exception.ConflictException;
 import com.packtrace.mapper.AccountMapper;
 import com.packtrace.model.Account;
+import com.packtrace.security.RateLimited;
+import com.packtrace.service.AccountExportService;
 import com.packtrace.service.AccountService;
 import io.quarkus.security.Authenticated;
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.Path;
@@ -14,16 +19,24 @@ import org.eclipse.microprofile.jwt.JsonWebToken;
 
 @Path("/account")
 @Authenticated
+@RateLimited(policy = "auth")
 public class AccountResource {
 
     @Inject
     AccountService accountService;
 
+    @Inject
+    AccountExportService accountExportService;
+
     @Inject
     JsonWebToken jwt;
 
+    // Called once per sign-in by the frontend, so it is not throttled
     @GET
     @Produces(MediaType.APPLICATION_JSON)
+    @RunOnVirtualThread
+    @PoolAdmission
+    @RateLimited(cost = 0)
     public Response getAccount() {
         try {
             String auth0Id = jwt.getSubject();
@@ -47,6 +60,10 @@ public class AccountResource {
             return Response.status(Response.Status.UNAUTHORIZED)
                     .entity(new ErrorResponse("Authorization failed: " + e.getMessage()))
                     .build();
+        } catch (ConflictException e) {
+            return Response.status(Response.Status.CONFLICT)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
         } catch (Exception e) {
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                     .entity(new ErrorResponse("Failed to retrieve account"))
@@ -54,5 +71,25 @@ public class AccountResource {
         }
     }
 
+    // Reads the whole account and holds a connection while it streams, so it is charged like an import
+    @GET
+    @Path("/export")
+    @Produces("application/x-ndjson")
+    @RunOnVirtualThread
+    @RateLimited(policy = "bulk", cost = 10)
+    public Response exportAccount() {
+        String auth0Id = jwt.getSubject();
+        try {
+            return Response.ok(accountExportService.exportAccount(auth0Id))
+                    .header("Content-Disposition", "attachment; filename=\"packtrace-export.ndjson\"")
+                    .build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.NOT_FOUND)
+                    .type(MediaType.APPLICATION_JSON)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
+        }
+    }
+
     public record ErrorResponse(String message) {}
 }
@@ -0,0 +1,41 @@
+package com.packtrace.resource;
+
+import com.packtrace.dto.BootstrapResponse;
+import com.packtrace.rest.CborMessageBodyWriter;
+import com.packtrace.security.RateLimited;
+import com.packtrace.service.BootstrapService;
+import io.quarkus.security.Authenticated;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import jakarta.inject.Inject;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.jwt.JsonWebToken;
+
+@Path("/bootstrap")
+@Authenticated
+public class BootstrapResource {
+
+    @Inject
+    BootstrapService bootstrapService;
+
+    @Inject
+    JsonWebToken jwt;
+
+    // No @PoolAdmission: each of the concurrent queries takes its own permit
+    @GET
+    @Produces({MediaType.APPLICATION_JSON, CborMessageBodyWriter.APPLICATION_CBOR})
+    @RunOnVirtualThread
+    @RateLimited(cost = 5)
+    public Response bootstrap(@QueryParam("limit") @DefaultValue("100") @Min(1) @Max(500) int limit) {
+        String auth0Id = jwt.getSubject();
+        BootstrapResponse response = bootstrapService.bootstrap(auth0Id, limit);
+        return Response.ok(response).build();
+    }
+}
@@ -0,0 +1,32 @@
+package com.packtrace.resource;
+
+import com.packtrace.dto.ChangeNotification;
+import com.packtrace.service.ChangeBroadcaster;
+import io.quarkus.security.Authenticated;
+import io.smallrye.mutiny.Multi;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import org.eclipse.microprofile.jwt.JsonWebToken;
+import org.jboss.resteasy.reactive.RestStreamElementType;
+
+@Path("/changes")
+@Authenticated
+public class ChangeStreamResource {
+
+    @Inject
+    ChangeBroadcaster changeBroadcaster;
+
+    @Inject
+    JsonWebToken jwt;
+
+    // Notifications only; clients refetch what changed, or call /sync
+    @GET
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    @RestStreamElementType(MediaType.APPLICATION_JSON)
+    public Multi<ChangeNotification> streamChanges() {
+        return changeBroadcaster.subscribe(jwt.getSubject());
+    }
+}
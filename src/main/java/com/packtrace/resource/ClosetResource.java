@@ -1,26 +1,38 @@
 package com.packtrace.resource;
 
+import com.packtrace.concurrency.PoolAdmission;
 import com.packtrace.dto.ClosetGearRequest;
-import com.packtrace.dto.ClosetGearResponse;
 import com.packtrace.dto.ClosetRequest;
 import com.packtrace.dto.ClosetResponse;
+import com.packtrace.dto.PageResponse;
 import com.packtrace.dto.CreateAndAddGearToClosetRequest;
+import com.packtrace.exception.ConflictException;
+import com.packtrace.exception.EntityNotFoundException;
 import com.packtrace.model.Closet;
 import com.packtrace.model.Gear;
 import com.packtrace.mapper.ClosetMapper;
 import com.packtrace.mapper.GearMapper;
+import com.packtrace.repository.DataSourceRouter;
+import com.packtrace.repository.DataSourceRouter.ReadSource;
+import com.packtrace.rest.CborMessageBodyWriter;
+import com.packtrace.service.EntityVersionService;
 import com.packtrace.service.ClosetService;
 import com.packtrace.validation.PositiveId;
 import io.quarkus.security.Authenticated;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import io.smallrye.mutiny.Uni;
 import jakarta.inject.Inject;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
 import org.eclipse.microprofile.jwt.JsonWebToken;
 
-import java.util.List;
-
 @Path("/closet")
 @Authenticated
 public class ClosetResource {
@@ -28,38 +40,54 @@ public class ClosetResource {
     @Inject
     ClosetService closetService;
 
+    @Inject
+    EntityVersionService entityVersionService;
+
+    @Inject
+    DataSourceRouter dataSourceRouter;
+
     @Inject
     JsonWebToken jwt;
 
     @GET
     @Produces(MediaType.APPLICATION_JSON)
-    public List<ClosetResponse> getMyClosets() {
+    public Uni<Response> getMyClosets(@QueryParam("limit") @DefaultValue("100") @Min(1) @Max(500) int limit,
+                                      @QueryParam("after") String after) {
         String auth0Id = jwt.getSubject();
-        return closetService.getMyClosets(auth0Id)
-                .stream()
-                .map(ClosetMapper::toResponse)
-                .toList();
+        return closetService.getMyClosetsPageAsync(auth0Id, limit, after)
+                .map(page -> {
+                    Response.ResponseBuilder response = Response.ok(page.items()
+                            .stream()
+                            .map(ClosetMapper::toResponse)
+                            .toList());
+                    if (page.nextCursor() != null)
+                        response.header(PageResponse.NEXT_CURSOR_HEADER, page.nextCursor());
+                    return response.build();
+                })
+                .onFailure(IllegalArgumentException.class).recoverWithItem(e -> Response.status(Response.Status.BAD_REQUEST)
+                        .entity(new ErrorResponse(e.getMessage()))
+                        .build());
     }
 
     @GET
     @Path("/{id}")
     @Produces(MediaType.APPLICATION_JSON)
-    public Response getClosetById(@PathParam("id") @PositiveId Long id) {
+    public Uni<Response> getClosetById(@PathParam("id") @PositiveId Long id) {
         String auth0Id = jwt.getSubject();
-        try {
-            return closetService.getClosetById(id, auth0Id)
-                    .map(closet -> Response.ok(ClosetMapper.toResponse(closet)).build())
-                    .orElse(Response.status(Response.Status.NOT_FOUND).build());
-        } catch (SecurityException e) {
-            return Response.status(Response.Status.FORBIDDEN)
-                    .entity(new ErrorResponse(e.getMessage()))
-                    .build();
-        }
+        return closetService.getClosetByIdAsync(id, auth0Id)
+                .map(closetOpt -> closetOpt
+                        .map(closet -> Response.ok(ClosetMapper.toResponse(closet)).build())
+                        .orElse(Response.status(Response.Status.NOT_FOUND).build()))
+                .onFailure(SecurityException.class).recoverWithItem(e -> Response.status(Response.Status.FORBIDDEN)
+                        .entity(new ErrorResponse(e.getMessage()))
+                        .build());
     }
 
     @POST
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
+    @RunOnVirtualThread
+    @PoolAdmission
     public Response createCloset(@Valid ClosetRequest request) {
         String auth0Id = jwt.getSubject();
         try {
@@ -68,6 +96,10 @@ public class ClosetResource {
             return Response.status(Response.Status.CREATED)
                     .entity(ClosetMapper.toResponse(createdCloset))
                     .build();
+        } catch (ConflictException e) {
+            return Response.status(Response.Status.CONFLICT)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
         } catch (IllegalArgumentException e) {
             return Response.status(Response.Status.BAD_REQUEST)
                     .entity(new ErrorResponse(e.getMessage()))
@@ -79,6 +111,8 @@ public class ClosetResource {
     @Path("/{id}")
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
+    @RunOnVirtualThread
+    @PoolAdmission
     public Response updateCloset(@PathParam("id") @PositiveId Long id, @Valid ClosetRequest request) {
         String auth0Id = jwt.getSubject();
         try {
@@ -89,6 +123,14 @@ public class ClosetResource {
             return Response.status(Response.Status.FORBIDDEN)
                     .entity(new ErrorResponse(e.getMessage()))
                     .build();
+        } catch (EntityNotFoundException e) {
+            return Response.status(Response.Status.NOT_FOUND)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
+        } catch (ConflictException e) {
+            return Response.status(Response.Status.CONFLICT)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
         } catch (IllegalArgumentException e) {
             return Response.status(Response.Status.BAD_REQUEST)
                     .entity(new ErrorResponse(e.getMessage()))
@@ -98,6 +140,8 @@ public class ClosetResource {
 
     @DELETE
     @Path("/{id}")
+    @RunOnVirtualThread
+    @PoolAdmission
     public Response deleteCloset(@PathParam("id") @PositiveId Long id) {
         String auth0Id = jwt.getSubject();
         try {
@@ -112,15 +156,23 @@ public class ClosetResource {
 
     @GET
     @Path("/{id}/gear")
-    @Produces(MediaType.APPLICATION_JSON)
-    public List<ClosetGearResponse> getClosetGear(@PathParam("id") @PositiveId Long closetId) {
-        return closetService.getClosetGear(closetId);
+    @Produces({MediaType.APPLICATION_JSON, CborMessageBodyWriter.APPLICATION_CBOR})
+    public Uni<Response> getClosetGear(@PathParam("id") @PositiveId Long closetId, @Context Request request) {
+        String auth0Id = jwt.getSubject();
+        // One routing decision for both reads, so the tag and the body come from the same server
+        ReadSource source = dataSourceRouter.chooseSource(auth0Id);
+        return ConditionalGet.respond(request,
+                entityVersionService.getClosetVersionAsync(closetId, source)
+                        .map(version -> version.map(v -> new EntityTag("closet-" + closetId + "-" + v))),
+                () -> closetService.getClosetGearAsync(closetId, source).map(gear -> Response.ok(gear).build()));
     }
 
     @POST
     @Path("/{id}/gear")
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
+    @RunOnVirtualThread
+    @PoolAdmission
     public Response addGearToCloset(@PathParam("id") @PositiveId Long closetId, @Valid ClosetGearRequest request) {
         String auth0Id = jwt.getSubject();
         try {
@@ -130,6 +182,10 @@ public class ClosetResource {
             return Response.status(Response.Status.FORBIDDEN)
                     .entity(new ErrorResponse(e.getMessage()))
                     .build();
+        } catch (EntityNotFoundException e) {
+            return Response.status(Response.Status.NOT_FOUND)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
         } catch (IllegalArgumentException e) {
             return Response.status(Response.Status.BAD_REQUEST)
                     .entity(new ErrorResponse(e.getMessage()))
@@ -141,6 +197,8 @@ public class ClosetResource {
     @Path("/{id}/gear/create")
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
+    @RunOnVirtualThread
+    @PoolAdmission
     public Response createGearAndAddToCloset(@PathParam("id") @PositiveId Long closetId, @Valid CreateAndAddGearToClosetRequest request) {
         String auth0Id = jwt.getSubject();
         try {
@@ -159,6 +217,10 @@ public class ClosetResource {
             return Response.status(Response.Status.FORBIDDEN)
                     .entity(new ErrorResponse(e.getMessage()))
                     .build();
+        } catch (EntityNotFoundException e) {
+            return Response.status(Response.Status.NOT_FOUND)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
         } catch (IllegalArgumentException e) {
             return Response.status(Response.Status.BAD_REQUEST)
                     .entity(new ErrorResponse(e.getMessage()))
@@ -168,6 +230,8 @@ public class ClosetResource {
 
     @DELETE
     @Path("/{id}/gear/{gearId}")
+    @RunOnVirtualThread
+    @PoolAdmission
     public Response removeGearFromCloset(@PathParam("id") @PositiveId Long closetId, @PathParam("gearId") @PositiveId Long gearId) {
         String auth0Id = jwt.getSubject();
         try {
@@ -177,6 +241,10 @@ public class ClosetResource {
             return Response.status(Response.Status.FORBIDDEN)
                     .entity(new ErrorResponse(e.getMessage()))
                     .build();
+        } catch (EntityNotFoundException e) {
+            return Response.status(Response.Status.NOT_FOUND)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
         } catch (IllegalArgumentException e) {
             return Response.status(Response.Status.BAD_REQUEST)
                     .entity(new ErrorResponse(e.getMessage()))
@@ -188,6 +256,8 @@ public class ClosetResource {
     @Path("/{id}/gear/{gearId}")
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
+    @RunOnVirtualThread
+    @PoolAdmission
     public Response updateClosetGearQuantity(@PathParam("id") @PositiveId Long closetId, @PathParam("gearId") @PositiveId Long gearId, 
                                              @Valid ClosetGearRequest request) {
         String auth0Id = jwt.getSubject();
@@ -198,6 +268,10 @@ public class ClosetResource {
             return Response.status(Response.Status.FORBIDDEN)
                     .entity(new ErrorResponse(e.getMessage()))
                     .build();
+        } catch (EntityNotFoundException e) {
+            return Response.status(Response.Status.NOT_FOUND)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
         } catch (IllegalArgumentException e) {
             return Response.status(Response.Status.BAD_REQUEST)
                     .entity(new ErrorResponse(e.getMessage()))
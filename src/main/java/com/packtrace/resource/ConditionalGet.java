@@ -0,0 +1,69 @@
+package com.packtrace.resource;
+
+import com.packtrace.rest.CborMessageBodyWriter;
+import io.smallrye.mutiny.Uni;
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.Variant;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Answers If-None-Match from a version lookup alone; the rows are only loaded when the tag no longer matches.
+ */
+final class ConditionalGet {
+
+    // Lets browsers keep the body but revalidate on every use, so fetch() gets 304s transparently
+    private static final CacheControl REVALIDATE = revalidate();
+
+    private static final List<Variant> REPRESENTATIONS = Variant.mediaTypes(
+            MediaType.APPLICATION_JSON_TYPE, CborMessageBodyWriter.APPLICATION_CBOR_TYPE).build();
+
+    private ConditionalGet() {
+    }
+
+    static Uni<Response> respond(Request request, Uni<Optional<EntityTag>> tag, Supplier<Uni<Response>> load) {
+        return tag.chain(current -> {
+            if (current.isEmpty())
+                return load.get();
+
+            EntityTag entityTag = forRepresentation(request, current.get());
+            Response.ResponseBuilder notModified = request.evaluatePreconditions(entityTag);
+            if (notModified != null)
+                return Uni.createFrom().item(notModified.cacheControl(REVALIDATE)
+                        .header(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+                        .build());
+
+            // Callers read the version and the rows from one source, version first; that server only moves forward,
+            // so the tag can only be older than the body, never newer
+            return load.get().map(response -> response.getStatus() == Response.Status.OK.getStatusCode()
+                    ? Response.fromResponse(response).tag(entityTag).cacheControl(REVALIDATE)
+                            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+                            .build()
+                    : response);
+        });
+    }
+
+    private static CacheControl revalidate() {
+        CacheControl cacheControl = new CacheControl();
+        cacheControl.setPrivate(true);
+        cacheControl.setNoCache(true);
+        // The default is no-transform, which would make the header "private, no-cache, no-transform"
+        cacheControl.setNoTransform(false);
+        return cacheControl;
+    }
+
+    // JSON and CBOR bodies differ byte for byte, so a strong tag must differ too
+    private static EntityTag forRepresentation(Request request, EntityTag tag) {
+        Variant variant = request.selectVariant(REPRESENTATIONS);
+        if (variant == null || !CborMessageBodyWriter.APPLICATION_CBOR_TYPE.isCompatible(variant.getMediaType()))
+            return tag;
+        return new EntityTag(tag.getValue() + "-cbor", tag.isWeak());
+    }
+}
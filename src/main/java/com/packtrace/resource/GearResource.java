@@ -1,21 +1,45 @@
 package com.packtrace.resource;
 
+import com.packtrace.concurrency.PoolAdmission;
+import com.packtrace.dto.GearImportResponse;
 import com.packtrace.dto.GearRequest;
 import com.packtrace.dto.GearResponse;
-import com.packtrace.model.Account;
+import com.packtrace.dto.PageResponse;
+import com.packtrace.exception.EntityNotFoundException;
 import com.packtrace.model.Gear;
 import com.packtrace.mapper.GearMapper;
+import com.packtrace.repository.DataSourceRouter;
+import com.packtrace.repository.DataSourceRouter.ReadSource;
+import com.packtrace.repository.GearFilter;
+import com.packtrace.repository.GearSort;
+import com.packtrace.rest.CborMessageBodyWriter;
+import com.packtrace.security.RateLimited;
 import com.packtrace.service.AccountService;
+import com.packtrace.service.EntityVersionService;
+import com.packtrace.service.GearImportService;
 import com.packtrace.service.GearService;
 import com.packtrace.validation.PositiveId;
 import io.quarkus.security.Authenticated;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import io.smallrye.mutiny.Uni;
 import jakarta.inject.Inject;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
 import org.eclipse.microprofile.jwt.JsonWebToken;
 
+import java.io.InputStream;
 import java.util.List;
 
 @Path("/gear")
@@ -25,6 +49,15 @@ public class GearResource {
     @Inject
     GearService gearService;
 
+    @Inject
+    GearImportService gearImportService;
+
+    @Inject
+    EntityVersionService entityVersionService;
+
+    @Inject
+    DataSourceRouter dataSourceRouter;
+
     @Inject
     AccountService accountService;
 
@@ -32,10 +65,61 @@ public class GearResource {
     JsonWebToken jwt;
 
     @GET
+    @Produces({MediaType.APPLICATION_JSON, CborMessageBodyWriter.APPLICATION_CBOR})
+    public Uni<Response> getMyGear(@QueryParam("limit") @DefaultValue("100") @Min(1) @Max(500) int limit,
+                                   @QueryParam("after") String after,
+                                   @QueryParam("category") String category,
+                                   @QueryParam("brand") String brand,
+                                   @QueryParam("minWeight") @PositiveOrZero Integer minWeight,
+                                   @QueryParam("maxWeight") @PositiveOrZero Integer maxWeight,
+                                   @QueryParam("sort") String sort,
+                                   @Context Request request,
+                                   @Context UriInfo uriInfo) {
+        String auth0Id = jwt.getSubject();
+        GearFilter filter = new GearFilter(category, brand, minWeight, maxWeight);
+        GearSort gearSort;
+        try {
+            gearSort = GearSort.parse(sort);
+        } catch (IllegalArgumentException e) {
+            return Uni.createFrom().item(Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build());
+        }
+
+        // One tag per library version and query, since each filter/cursor combination is a different body
+        String query = uriInfo.getRequestUri().getRawQuery();
+        String queryHash = Integer.toHexString(query == null ? 0 : query.hashCode());
+        // One routing decision for both reads, so the tag and the body come from the same server
+        ReadSource source = dataSourceRouter.chooseSource(auth0Id);
+        return ConditionalGet.respond(request,
+                entityVersionService.getGearLibraryVersionAsync(auth0Id, source)
+                        .map(version -> version.map(v -> new EntityTag("gear-" + v + "-" + queryHash))),
+                () -> gearService.getMyGearPageAsync(auth0Id, source, filter, gearSort, limit, after)
+                        .map(page -> {
+                            // The body stays a plain array; the cursor for the next page travels in a header
+                            Response.ResponseBuilder response = Response.ok(page.items()
+                                    .stream()
+                                    .map(GearMapper::toResponse)
+                                    .toList());
+                            if (page.nextCursor() != null)
+                                response.header(PageResponse.NEXT_CURSOR_HEADER, page.nextCursor());
+                            return response.build();
+                        })
+                        .onFailure(IllegalArgumentException.class).recoverWithItem(e -> Response.status(Response.Status.BAD_REQUEST)
+                                .entity(new ErrorResponse(e.getMessage()))
+                                .build()));
+    }
+
+    @GET
+    @Path("/search")
     @Produces(MediaType.APPLICATION_JSON)
-    public List<GearResponse> getMyGear() {
+    @RunOnVirtualThread
+    @PoolAdmission
+    @RateLimited(cost = 2)
+    public List<GearResponse> searchGear(@QueryParam("q") @NotBlank @Size(max = 100) String query,
+                                         @QueryParam("limit") @DefaultValue("20") @Min(1) @Max(50) int limit) {
         String auth0Id = jwt.getSubject();
-        return gearService.getMyGear(auth0Id)
+        return gearService.searchMyGear(auth0Id, query, limit)
                 .stream()
                 .map(GearMapper::toResponse)
                 .toList();
@@ -44,32 +128,36 @@ public class GearResource {
     @GET
     @Path("/{id}")
     @Produces(MediaType.APPLICATION_JSON)
-    public Response getGearById(@PathParam("id") @PositiveId Long id) {
+    public Uni<Response> getGearById(@PathParam("id") @PositiveId Long id) {
         // Ensure the user owns the gear before returning it
         String auth0Id = jwt.getSubject();
-        Account account = accountService.findByAuth0Id(auth0Id)
-                .orElse(null);
-        if (account == null) {
-            return Response.status(Response.Status.FORBIDDEN)
-                    .entity(new ErrorResponse("Account not found"))
-                    .build();
-        }
-        
-        return gearService.getGearById(id)
-                .map(gear -> {
-                    if (!gear.getOwnerId().equals(account.getId())) {
+        return Uni.combine().all()
+                .unis(accountService.findByAuth0IdAsync(auth0Id), gearService.getGearByIdAsync(id))
+                .with((account, gearOpt) -> {
+                    if (account.isEmpty()) {
                         return Response.status(Response.Status.FORBIDDEN)
-                                .entity(new ErrorResponse("You do not own this gear"))
+                                .entity(new ErrorResponse("Account not found"))
                                 .build();
                     }
-                    return Response.ok(GearMapper.toResponse(gear)).build();
-                })
-                .orElse(Response.status(Response.Status.NOT_FOUND).build());
+
+                    return gearOpt
+                            .map(gear -> {
+                                if (!gear.getOwnerId().equals(account.get().getId())) {
+                                    return Response.status(Response.Status.FORBIDDEN)
+                                            .entity(new ErrorResponse("You do not own this gear"))
+                                            .build();
+                                }
+                                return Response.ok(GearMapper.toResponse(gear)).build();
+                            })
+                            .orElse(Response.status(Response.Status.NOT_FOUND).build());
+                });
     }
 
     @POST
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
+    @RunOnVirtualThread
+    @PoolAdmission
     public Response createGear(@Valid GearRequest request) {
         String auth0Id = jwt.getSubject();
         try {
@@ -85,10 +173,40 @@ public class GearResource {
         }
     }
 
+    @POST
+    @Path("/import")
+    @Consumes({"text/csv", MediaType.TEXT_PLAIN})
+    @Produces(MediaType.APPLICATION_JSON)
+    @RunOnVirtualThread
+    @PoolAdmission
+    @RateLimited(policy = "bulk", cost = 10)
+    public Response importGear(InputStream csv, @QueryParam("packId") @Positive Long packId,
+                               @QueryParam("closetId") @Positive Long closetId) {
+        String auth0Id = jwt.getSubject();
+        try {
+            GearImportResponse result = gearImportService.importGear(auth0Id, csv, packId, closetId);
+            return Response.ok(result).build();
+        } catch (SecurityException e) {
+            return Response.status(Response.Status.FORBIDDEN)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
+        } catch (EntityNotFoundException e) {
+            return Response.status(Response.Status.NOT_FOUND)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
+        }
+    }
+
     @PUT
     @Path("/{id}")
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
+    @RunOnVirtualThread
+    @PoolAdmission
     public Response updateGear(@PathParam("id") @PositiveId Long id, @Valid GearRequest request) {
         String auth0Id = jwt.getSubject();
         try {
@@ -108,6 +226,8 @@ public class GearResource {
 
     @DELETE
     @Path("/{id}")
+    @RunOnVirtualThread
+    @PoolAdmission
     public Response deleteGear(@PathParam("id") @PositiveId Long id) {
         String auth0Id = jwt.getSubject();
         try {
@@ -1,21 +1,38 @@
 package com.packtrace.resource;
 
+import com.packtrace.concurrency.PoolAdmission;
+import com.packtrace.dto.PackGearBatchRequest;
 import com.packtrace.dto.PackGearRequest;
 import com.packtrace.dto.PackGearResponse;
 import com.packtrace.dto.PackRequest;
 import com.packtrace.dto.PackResponse;
+import com.packtrace.dto.PageResponse;
 import com.packtrace.dto.CreateAndAddGearToPackRequest;
+import com.packtrace.exception.ConflictException;
+import com.packtrace.exception.EntityNotFoundException;
 import com.packtrace.model.Pack;
 import com.packtrace.model.Gear;
 import com.packtrace.mapper.PackMapper;
 import com.packtrace.mapper.GearMapper;
+import com.packtrace.repository.DataSourceRouter;
+import com.packtrace.repository.DataSourceRouter.ReadSource;
+import com.packtrace.rest.CborMessageBodyWriter;
+import com.packtrace.security.RateLimited;
+import com.packtrace.service.EntityVersionService;
 import com.packtrace.service.PackService;
 import com.packtrace.validation.PositiveId;
 import io.quarkus.security.Authenticated;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import io.smallrye.mutiny.Uni;
 import jakarta.inject.Inject;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
 import org.eclipse.microprofile.jwt.JsonWebToken;
 
@@ -28,38 +45,54 @@ public class PackResource {
     @Inject
     PackService packService;
 
+    @Inject
+    EntityVersionService entityVersionService;
+
+    @Inject
+    DataSourceRouter dataSourceRouter;
+
     @Inject
     JsonWebToken jwt;
 
     @GET
     @Produces(MediaType.APPLICATION_JSON)
-    public List<PackResponse> getMyPacks() {
+    public Uni<Response> getMyPacks(@QueryParam("limit") @DefaultValue("100") @Min(1) @Max(500) int limit,
+                                    @QueryParam("after") String after) {
         String auth0Id = jwt.getSubject();
-        return packService.getMyPacks(auth0Id)
-                .stream()
-                .map(PackMapper::toResponse)
-                .toList();
+        return packService.getMyPacksPageAsync(auth0Id, limit, after)
+                .map(page -> {
+                    Response.ResponseBuilder response = Response.ok(page.items()
+                            .stream()
+                            .map(PackMapper::toResponse)
+                            .toList());
+                    if (page.nextCursor() != null)
+                        response.header(PageResponse.NEXT_CURSOR_HEADER, page.nextCursor());
+                    return response.build();
+                })
+                .onFailure(IllegalArgumentException.class).recoverWithItem(e -> Response.status(Response.Status.BAD_REQUEST)
+                        .entity(new ErrorResponse(e.getMessage()))
+                        .build());
     }
 
     @GET
     @Path("/{id}")
     @Produces(MediaType.APPLICATION_JSON)
-    public Response getPackById(@PathParam("id") @PositiveId Long id) {
+    public Uni<Response> getPackById(@PathParam("id") @PositiveId Long id) {
         String auth0Id = jwt.getSubject();
-        try {
-            return packService.getPackById(id, auth0Id)
-                    .map(pack -> Response.ok(PackMapper.toResponse(pack)).build())
-                    .orElse(Response.status(Response.Status.NOT_FOUND).build());
-        } catch (SecurityException e) {
-            return Response.status(Response.Status.FORBIDDEN)
-                    .entity(new ErrorResponse(e.getMessage()))
-                    .build();
-        }
+        return packService.getPackByIdAsync(id, auth0Id)
+                .map(packOpt -> packOpt
+                        .map(pack -> Response.ok(PackMapper.toResponse(pack)).build())
+                        .orElse(Response.status(Response.Status.NOT_FOUND).build()))
+                .onFailure(SecurityException.class).recoverWithItem(e -> Response.status(Response.Status.FORBIDDEN)
+                        .entity(new ErrorResponse(e.getMessage()))
+                        .build());
     }
 
     @POST
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
+    @RunOnVirtualThread
+    @PoolAdmission
     public Response createPack(@Valid PackRequest request) {
         String auth0Id = jwt.getSubject();
         try {
@@ -68,6 +101,10 @@ public class PackResource {
             return Response.status(Response.Status.CREATED)
                     .entity(PackMapper.toResponse(createdPack))
                     .build();
+        } catch (ConflictException e) {
+            return Response.status(Response.Status.CONFLICT)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
         } catch (IllegalArgumentException e) {
             return Response.status(Response.Status.BAD_REQUEST)
                     .entity(new ErrorResponse(e.getMessage()))
@@ -79,6 +116,8 @@ public class PackResource {
     @Path("/{id}")
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
+    @RunOnVirtualThread
+    @PoolAdmission
     public Response updatePack(@PathParam("id") @PositiveId Long id, @Valid PackRequest request) {
         String auth0Id = jwt.getSubject();
         try {
@@ -89,6 +128,14 @@ public class PackResource {
             return Response.status(Response.Status.FORBIDDEN)
                     .entity(new ErrorResponse(e.getMessage()))
                     .build();
+        } catch (EntityNotFoundException e) {
+            return Response.status(Response.Status.NOT_FOUND)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
+        } catch (ConflictException e) {
+            return Response.status(Response.Status.CONFLICT)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
         } catch (IllegalArgumentException e) {
             return Response.status(Response.Status.BAD_REQUEST)
                     .entity(new ErrorResponse(e.getMessage()))
@@ -98,6 +145,8 @@ public class PackResource {
 
     @DELETE
     @Path("/{id}")
+    @RunOnVirtualThread
+    @PoolAdmission
     public Response deletePack(@PathParam("id") @PositiveId Long id) {
         String auth0Id = jwt.getSubject();
         try {
@@ -111,16 +160,42 @@ public class PackResource {
     }
 
     @GET
-    @Path("/{id}/gear")
+    @Path("/{id}/summary")
     @Produces(MediaType.APPLICATION_JSON)
-    public List<PackGearResponse> getPackGear(@PathParam("id") @PositiveId Long packId) {
-        return packService.getPackGear(packId);
+    @RunOnVirtualThread
+    @PoolAdmission
+    public Response getPackSummary(@PathParam("id") @PositiveId Long id) {
+        String auth0Id = jwt.getSubject();
+        try {
+            return packService.getPackSummary(id, auth0Id)
+                    .map(summary -> Response.ok(summary).build())
+                    .orElse(Response.status(Response.Status.NOT_FOUND).build());
+        } catch (SecurityException e) {
+            return Response.status(Response.Status.FORBIDDEN)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
+        }
+    }
+
+    @GET
+    @Path("/{id}/gear")
+    @Produces({MediaType.APPLICATION_JSON, CborMessageBodyWriter.APPLICATION_CBOR})
+    public Uni<Response> getPackGear(@PathParam("id") @PositiveId Long packId, @Context Request request) {
+        String auth0Id = jwt.getSubject();
+        // One routing decision for both reads, so the tag and the body come from the same server
+        ReadSource source = dataSourceRouter.chooseSource(auth0Id);
+        return ConditionalGet.respond(request,
+                entityVersionService.getPackVersionAsync(packId, source)
+                        .map(version -> version.map(v -> new EntityTag("pack-" + packId + "-" + v))),
+                () -> packService.getPackGearAsync(packId, source).map(gear -> Response.ok(gear).build()));
     }
 
     @POST
     @Path("/{id}/gear")
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
+    @RunOnVirtualThread
+    @PoolAdmission
     public Response addGearToPack(@PathParam("id") @PositiveId Long packId, @Valid PackGearRequest request) {
         String auth0Id = jwt.getSubject();
         try {
@@ -130,6 +205,37 @@ public class PackResource {
             return Response.status(Response.Status.FORBIDDEN)
                     .entity(new ErrorResponse(e.getMessage()))
                     .build();
+        } catch (EntityNotFoundException e) {
+            return Response.status(Response.Status.NOT_FOUND)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
+        }
+    }
+
+    @PATCH
+    @Path("/{id}/gear")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    @RunOnVirtualThread
+    @PoolAdmission
+    @RateLimited(policy = "bulk", cost = 2)
+    public Response editPackGear(@PathParam("id") @PositiveId Long packId, @Valid PackGearBatchRequest request) {
+        String auth0Id = jwt.getSubject();
+        try {
+            List<PackGearResponse> contents = packService.applyGearOperations(packId, request.operations(), auth0Id);
+            return Response.ok(contents).build();
+        } catch (SecurityException e) {
+            return Response.status(Response.Status.FORBIDDEN)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
+        } catch (EntityNotFoundException e) {
+            return Response.status(Response.Status.NOT_FOUND)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
         } catch (IllegalArgumentException e) {
             return Response.status(Response.Status.BAD_REQUEST)
                     .entity(new ErrorResponse(e.getMessage()))
@@ -141,6 +247,8 @@ public class PackResource {
     @Path("/{id}/gear/create")
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
+    @RunOnVirtualThread
+    @PoolAdmission
     public Response createGearAndAddToPack(@PathParam("id") @PositiveId Long packId, @Valid CreateAndAddGearToPackRequest request) {
         String auth0Id = jwt.getSubject();
         try {
@@ -159,6 +267,10 @@ public class PackResource {
             return Response.status(Response.Status.FORBIDDEN)
                     .entity(new ErrorResponse(e.getMessage()))
                     .build();
+        } catch (EntityNotFoundException e) {
+            return Response.status(Response.Status.NOT_FOUND)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
         } catch (IllegalArgumentException e) {
             return Response.status(Response.Status.BAD_REQUEST)
                     .entity(new ErrorResponse(e.getMessage()))
@@ -168,6 +280,8 @@ public class PackResource {
 
     @DELETE
     @Path("/{id}/gear/{gearId}")
+    @RunOnVirtualThread
+    @PoolAdmission
     public Response removeGearFromPack(@PathParam("id") @PositiveId Long packId, @PathParam("gearId") @PositiveId Long gearId) {
         String auth0Id = jwt.getSubject();
         try {
@@ -177,6 +291,10 @@ public class PackResource {
             return Response.status(Response.Status.FORBIDDEN)
                     .entity(new ErrorResponse(e.getMessage()))
                     .build();
+        } catch (EntityNotFoundException e) {
+            return Response.status(Response.Status.NOT_FOUND)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
         } catch (IllegalArgumentException e) {
             return Response.status(Response.Status.BAD_REQUEST)
                     .entity(new ErrorResponse(e.getMessage()))
@@ -188,6 +306,8 @@ public class PackResource {
     @Path("/{id}/gear/{gearId}")
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
+    @RunOnVirtualThread
+    @PoolAdmission
     public Response updatePackGearQuantity(@PathParam("id") @PositiveId Long packId, @PathParam("gearId") @PositiveId Long gearId, 
                                            @Valid PackGearRequest request) {
         String auth0Id = jwt.getSubject();
@@ -198,6 +318,10 @@ public class PackResource {
             return Response.status(Response.Status.FORBIDDEN)
                     .entity(new ErrorResponse(e.getMessage()))
                     .build();
+        } catch (EntityNotFoundException e) {
+            return Response.status(Response.Status.NOT_FOUND)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
         } catch (IllegalArgumentException e) {
             return Response.status(Response.Status.BAD_REQUEST)
                     .entity(new ErrorResponse(e.getMessage()))
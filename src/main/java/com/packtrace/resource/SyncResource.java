@@ -0,0 +1,58 @@
+package com.packtrace.resource;
+
+import com.packtrace.concurrency.PoolAdmission;
+import com.packtrace.dto.SyncResponse;
+import com.packtrace.exception.SyncTokenExpiredException;
+import com.packtrace.rest.CborMessageBodyWriter;
+import com.packtrace.service.SyncService;
+import io.quarkus.security.Authenticated;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import jakarta.inject.Inject;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.jwt.JsonWebToken;
+
+@Path("/sync")
+@Authenticated
+public class SyncResource {
+
+    @Inject
+    SyncService syncService;
+
+    @Inject
+    JsonWebToken jwt;
+
+    @GET
+    @Produces({MediaType.APPLICATION_JSON, CborMessageBodyWriter.APPLICATION_CBOR})
+    @RunOnVirtualThread
+    @PoolAdmission
+    public Response sync(@QueryParam("since") String since,
+                         @QueryParam("limit") @DefaultValue("500") @Min(1) @Max(1000) int limit) {
+        String auth0Id = jwt.getSubject();
+        try {
+            SyncResponse response = syncService.sync(auth0Id, since, limit);
+            return Response.ok(response).build();
+        } catch (SyncTokenExpiredException e) {
+            return Response.status(Response.Status.GONE)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
+        } catch (SecurityException e) {
+            return Response.status(Response.Status.FORBIDDEN)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new ErrorResponse(e.getMessage()))
+                    .build();
+        }
+    }
+
+    public record ErrorResponse(String message) {}
+}
@@ -0,0 +1,96 @@
+package com.packtrace.rest;
+
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.ext.Provider;
+import jakarta.ws.rs.ext.WriterInterceptor;
+import jakarta.ws.rs.ext.WriterInterceptorContext;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Leaves small responses uncompressed: below the threshold the compressed bytes barely shrink
+ * while the compressor still costs CPU on every request. Vert.x has no size threshold of its own,
+ * but it skips any response that already carries a Content-Encoding, so a body that ends below
+ * the threshold is marked identity before its first byte is written.
+ */
+@Provider
+public class CompressionThresholdInterceptor implements WriterInterceptor {
+
+    @ConfigProperty(name = "packtrace.http.compression-threshold", defaultValue = "1024")
+    int compressionThreshold;
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException {
+        MediaType mediaType = context.getMediaType();
+        boolean compressible = mediaType != null
+                && (mediaType.isCompatible(MediaType.APPLICATION_JSON_TYPE)
+                || mediaType.isCompatible(CborMessageBodyWriter.APPLICATION_CBOR_TYPE));
+        if (!compressible || context.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)) {
+            context.proceed();
+            return;
+        }
+
+        ThresholdOutputStream output = new ThresholdOutputStream(context);
+        context.setOutputStream(output);
+        context.proceed();
+        output.finish();
+    }
+
+    // Holds the first bytes back until the body is known to reach the threshold or to end short of it
+    private final class ThresholdOutputStream extends OutputStream {
+
+        private final WriterInterceptorContext context;
+        private final OutputStream target;
+        private ByteArrayOutputStream pending = new ByteArrayOutputStream();
+
+        ThresholdOutputStream(WriterInterceptorContext context) {
+            this.context = context;
+            this.target = context.getOutputStream();
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (pending == null) {
+                target.write(b, off, len);
+                return;
+            }
+            pending.write(b, off, len);
+            if (pending.size() >= compressionThreshold) {
+                // Large enough to compress: release what was held and pass the rest straight through
+                byte[] held = pending.toByteArray();
+                pending = null;
+                target.write(held);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (pending == null)
+                target.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            finish();
+            target.close();
+        }
+
+        void finish() throws IOException {
+            if (pending == null)
+                return;
+            byte[] held = pending.toByteArray();
+            pending = null;
+            context.getHeaders().putSingle(HttpHeaders.CONTENT_ENCODING, "identity");
+            target.write(held);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.packtrace.rest;
+
+import com.packtrace.repository.DataSourceRouter;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.HttpMethod;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.core.Cookie;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.NewCookie;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.Provider;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.security.Principal;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Pins a caller's reads to the primary as soon as they send a write, so the write is visible
+ * to their next read even if the replica has not caught up yet. The write is recorded again once
+ * it has succeeded, since the sticky window must start at commit rather than at request arrival.
+ * <p>
+ * A successful write also returns a cookie holding its time, and a request carrying a cookie still
+ * inside the sticky window is pinned on whichever instance serves it. The cookie is not signed: a
+ * forged one can only move its sender's own reads to the primary, which sending writes does as well.
+ */
+@Provider
+public class ReplicaStickinessFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+    static final String LAST_WRITE_COOKIE = "packtrace_last_write";
+
+    private static final Set<String> WRITE_METHODS = Set.of(HttpMethod.POST, HttpMethod.PUT, HttpMethod.PATCH, HttpMethod.DELETE);
+
+    @Inject
+    DataSourceRouter dataSourceRouter;
+
+    @ConfigProperty(name = "packtrace.replica.enabled", defaultValue = "false")
+    boolean replicaEnabled;
+
+    @ConfigProperty(name = "packtrace.replica.sticky-after-write", defaultValue = "5S")
+    Duration stickyAfterWrite;
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) {
+        String auth0Id = caller(requestContext);
+        if (!replicaEnabled || auth0Id == null)
+            return;
+
+        long now = System.currentTimeMillis();
+        if (WRITE_METHODS.contains(requestContext.getMethod())) {
+            dataSourceRouter.recordWrite(auth0Id, now);
+            return;
+        }
+
+        Cookie lastWrite = requestContext.getCookies().get(LAST_WRITE_COOKIE);
+        if (lastWrite == null)
+            return;
+        try {
+            long writtenAt = Long.parseLong(lastWrite.getValue());
+            // Times from the future are clamped, so a bad clock or a forged value cannot pin reads for longer
+            dataSourceRouter.recordWrite(auth0Id, Math.min(writtenAt, now));
+        } catch (NumberFormatException e) {
+            // Ignore a mangled cookie; it expires on its own
+        }
+    }
+
+    // The services commit before the resource returns, so a successful response means the write is committed
+    @Override
+    public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+        String auth0Id = caller(requestContext);
+        if (!replicaEnabled || auth0Id == null || !WRITE_METHODS.contains(requestContext.getMethod())
+                || responseContext.getStatusInfo().getFamily() != Response.Status.Family.SUCCESSFUL)
+            return;
+
+        long now = System.currentTimeMillis();
+        dataSourceRouter.recordWrite(auth0Id, now);
+        NewCookie cookie = new NewCookie.Builder(LAST_WRITE_COOKIE)
+                .value(Long.toString(now))
+                .path("/")
+                .maxAge((int) Math.ceil(stickyAfterWrite.toMillis() / 1000.0))
+                .httpOnly(true)
+                .secure(true)
+                .sameSite(NewCookie.SameSite.STRICT)
+                .build();
+        responseContext.getHeaders().add(HttpHeaders.SET_COOKIE, cookie);
+    }
+
+    private static String caller(ContainerRequestContext requestContext) {
+        Principal principal = requestContext.getSecurityContext().getUserPrincipal();
+        return principal == null ? null : principal.getName();
+    }
+}
@@ -0,0 +1,54 @@
+package com.packtrace.security;
+
+import io.quarkus.security.identity.AuthenticationRequestContext;
+import io.quarkus.security.identity.IdentityProvider;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.quarkus.security.identity.request.TokenAuthenticationRequest;
+import io.quarkus.security.runtime.QuarkusSecurityIdentity;
+import io.quarkus.vertx.http.runtime.security.HttpSecurityUtils;
+import io.smallrye.mutiny.Uni;
+import io.vertx.ext.web.RoutingContext;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Runs ahead of the OIDC provider and answers from {@link VerifiedTokenCache}, skipping JWT parsing and
+ * signature verification for a bearer token that was already verified. A miss returns no identity, which
+ * hands the request on to OIDC; {@link VerifiedTokenCacheAugmentor} then caches the verified result.
+ */
+@ApplicationScoped
+public class CachedTokenIdentityProvider implements IdentityProvider<TokenAuthenticationRequest> {
+
+    @Inject
+    VerifiedTokenCache tokenCache;
+
+    @Override
+    public Class<TokenAuthenticationRequest> getRequestType() {
+        return TokenAuthenticationRequest.class;
+    }
+
+    @Override
+    public int priority() {
+        // Ahead of the OIDC provider, which keeps the default priority
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public Uni<SecurityIdentity> authenticate(TokenAuthenticationRequest request, AuthenticationRequestContext context) {
+        if (!tokenCache.isEnabled())
+            return Uni.createFrom().nullItem();
+
+        SecurityIdentity cached = tokenCache.get(request.getToken().getToken());
+        if (cached == null)
+            return Uni.createFrom().nullItem();
+
+        // The cached identity still points at the request that first presented the token
+        RoutingContext routingContext = HttpSecurityUtils.getRoutingContextAttribute(request);
+        QuarkusSecurityIdentity.Builder builder = QuarkusSecurityIdentity.builder(cached);
+        cached.getAttributes().forEach((name, value) -> {
+            if (value instanceof RoutingContext)
+                builder.addAttribute(name, routingContext);
+        });
+        return Uni.createFrom().item(builder.build());
+    }
+}
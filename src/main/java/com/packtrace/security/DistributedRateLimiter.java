@@ -0,0 +1,143 @@
+package com.packtrace.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.packtrace.repository.ReactiveRateLimitRepository;
+import io.quarkus.scheduler.Scheduled;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Enforces each limit across all instances from the shared buckets in Postgres (V8__rate_limit_buckets.sql).
+ * An instance reserves a batch of tokens per client and spends it locally until it runs out or the lease
+ * expires, so only about one request per batch reaches the database. Unspent reserved tokens are lost when a
+ * lease expires, which can only make the limit stricter, never looser. If the database is unreachable the
+ * per-instance buckets take over.
+ */
+@ApplicationScoped
+public class DistributedRateLimiter {
+
+    private static final Logger LOG = Logger.getLogger(DistributedRateLimiter.class);
+
+    private static final Uni<RateLimitDecision> ALLOWED = Uni.createFrom().item(RateLimitDecision.ALLOWED);
+
+    @Inject
+    ReactiveRateLimitRepository rateLimitRepository;
+
+    @Inject
+    RateLimitBucketStore localStore;
+
+    @ConfigProperty(name = "packtrace.rate-limit.distributed.enabled", defaultValue = "false")
+    boolean enabled;
+
+    // Share of a policy's capacity reserved per database call; at least one token
+    @ConfigProperty(name = "packtrace.rate-limit.distributed.batch-fraction", defaultValue = "0.1")
+    double batchFraction;
+
+    @ConfigProperty(name = "packtrace.rate-limit.distributed.lease-duration", defaultValue = "5S")
+    Duration leaseDuration;
+
+    // A denied client is answered locally for this long instead of asking the database again
+    @ConfigProperty(name = "packtrace.rate-limit.distributed.denial-backoff", defaultValue = "1S")
+    Duration denialBackoff;
+
+    @ConfigProperty(name = "packtrace.rate-limit.distributed.prune-idle-after", defaultValue = "1H")
+    Duration pruneIdleAfter;
+
+    // Read here rather than from localStore: its fields are not visible through the client proxy
+    @ConfigProperty(name = "packtrace.rate-limit.maximum-buckets", defaultValue = "100000")
+    long maximumBuckets;
+
+    // policy name -> leases and denials by client id
+    private final Map<String, PolicyLeases> leases = new ConcurrentHashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // The shared bucket does not report when it refills, so a denial asks the client to wait one policy period
+    public Uni<RateLimitDecision> tryConsume(RateLimitPolicy policy, String clientId, long tokens) {
+        PolicyLeases policyLeases = leases.get(policy.name());
+        if (policyLeases == null)
+            policyLeases = leases.computeIfAbsent(policy.name(), name -> newPolicyLeases());
+
+        Lease lease = policyLeases.leases().getIfPresent(clientId);
+        if (lease != null && lease.tryTake(tokens))
+            return ALLOWED;
+        if (policyLeases.denials().getIfPresent(clientId) != null)
+            return Uni.createFrom().item(RateLimitDecision.denied(policy.period()));
+
+        // Concurrent misses for one client may each reserve a batch; the database still never over-grants
+        PolicyLeases target = policyLeases;
+        long wanted = Math.max(tokens, batchSize(policy));
+        return rateLimitRepository.take(policy.name() + ":" + clientId, policy.capacity(), policy.period(), tokens, wanted)
+                .map(granted -> {
+                    if (granted < tokens) {
+                        target.denials().put(clientId, Boolean.TRUE);
+                        return RateLimitDecision.denied(policy.period());
+                    }
+                    if (granted > tokens)
+                        target.leases().put(clientId, new Lease(granted - tokens));
+                    return RateLimitDecision.ALLOWED;
+                })
+                .onFailure().recoverWithItem(failure -> {
+                    LOG.debugf(failure, "Shared rate limit unavailable; using the local bucket for %s", clientId);
+                    return localStore.tryConsume(policy, clientId, tokens);
+                });
+    }
+
+    private long batchSize(RateLimitPolicy policy) {
+        return Math.max(1, (long) (policy.capacity() * batchFraction));
+    }
+
+    private PolicyLeases newPolicyLeases() {
+        return new PolicyLeases(
+                Caffeine.newBuilder()
+                        .maximumSize(maximumBuckets)
+                        .expireAfterWrite(leaseDuration)
+                        .build(),
+                Caffeine.newBuilder()
+                        .maximumSize(maximumBuckets)
+                        .expireAfterWrite(denialBackoff)
+                        .build());
+    }
+
+    @Scheduled(every = "${packtrace.rate-limit.distributed.prune-interval}", delayed = "1m",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    Uni<Void> pruneIdleBuckets() {
+        if (!enabled)
+            return Uni.createFrom().voidItem();
+        return rateLimitRepository.deleteIdle(pruneIdleAfter)
+                .invoke(pruned -> LOG.debugf("Pruned %d idle shared rate limit bucket(s)", pruned))
+                .replaceWithVoid();
+    }
+
+    private record PolicyLeases(Cache<String, Lease> leases, Cache<String, Boolean> denials) {
+    }
+
+    private static final class Lease {
+        private final AtomicLong tokens;
+
+        Lease(long tokens) {
+            this.tokens = new AtomicLong(tokens);
+        }
+
+        boolean tryTake(long wanted) {
+            long current;
+            do {
+                current = tokens.get();
+                if (current < wanted)
+                    return false;
+            } while (!tokens.compareAndSet(current, current - wanted));
+            return true;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.packtrace.security;
+
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import org.eclipse.microprofile.rest.client.inject.RegisterRestClient;
+
+import java.util.List;
+
+@Path("/.well-known/jwks.json")
+@RegisterRestClient(configKey = "jwks")
+public interface JwksClient {
+
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    KeySet getKeys();
+
+    record KeySet(List<Key> keys) {
+    }
+
+    record Key(String kid) {
+    }
+}
@@ -0,0 +1,54 @@
+package com.packtrace.security;
+
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.rest.client.inject.RestClient;
+import org.jboss.logging.Logger;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Polls the issuer's signing keys and clears {@link VerifiedTokenCache} once a key is withdrawn, since tokens
+ * it signed must go back through OIDC verification. Newly published keys leave the cache alone: nothing
+ * cached was signed with them.
+ */
+@ApplicationScoped
+public class JwksWatcher {
+
+    private static final Logger LOG = Logger.getLogger(JwksWatcher.class);
+
+    @Inject
+    @RestClient
+    JwksClient jwksClient;
+
+    @Inject
+    VerifiedTokenCache tokenCache;
+
+    private volatile Set<String> knownKeyIds;
+
+    @Scheduled(every = "${packtrace.auth.jwks-check-interval}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void checkSigningKeys() {
+        if (!tokenCache.isEnabled())
+            return;
+
+        Set<String> keyIds;
+        try {
+            keyIds = jwksClient.getKeys().keys().stream()
+                    .map(JwksClient.Key::kid)
+                    .collect(Collectors.toUnmodifiableSet());
+        } catch (RuntimeException e) {
+            // OIDC would fail to refresh the keys too; keep serving tokens it already verified
+            LOG.warnf("Could not fetch signing keys: %s", e.getMessage());
+            return;
+        }
+
+        Set<String> previous = knownKeyIds;
+        knownKeyIds = keyIds;
+        if (previous != null && !keyIds.containsAll(previous)) {
+            LOG.infof("Signing key withdrawn; clearing %d cached token(s)", tokenCache.size());
+            tokenCache.invalidateAll();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.packtrace.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.ConsumptionProbe;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Token buckets per client, one bounded cache per policy so keys need no policy suffix. Caffeine stripes
+ * its reads and writes, so concurrent requests do not contend on a shared lock. A bucket idle for longer than
+ * its policy's refill period would be full again anyway, so expiring it loses nothing.
+ */
+@ApplicationScoped
+public class RateLimitBucketStore {
+
+    @ConfigProperty(name = "packtrace.rate-limit.maximum-buckets", defaultValue = "100000")
+    long maximumBuckets;
+
+    // Idle time before a bucket is dropped; a policy whose refill period is longer keeps its buckets that long
+    @ConfigProperty(name = "packtrace.rate-limit.expire-after-access", defaultValue = "20M")
+    Duration expireAfterAccess;
+
+    private final LongAdder rejections = new LongAdder();
+
+    // policy name -> buckets by client id
+    private final Map<String, PolicyBuckets> buckets = new ConcurrentHashMap<>();
+
+    public RateLimitDecision tryConsume(RateLimitPolicy policy, String clientId, long tokens) {
+        // Plain get first: the hot path allocates neither a lambda nor a key
+        PolicyBuckets policyBuckets = buckets.get(policy.name());
+        if (policyBuckets == null)
+            policyBuckets = buckets.computeIfAbsent(policy.name(), name -> newPolicyBuckets(policy));
+        ConsumptionProbe probe = policyBuckets.cache().get(clientId, policyBuckets.factory()).tryConsumeAndReturnRemaining(tokens);
+        return probe.isConsumed()
+                ? RateLimitDecision.ALLOWED
+                : RateLimitDecision.denied(Duration.ofNanos(probe.getNanosToWaitForRefill()));
+    }
+
+    private PolicyBuckets newPolicyBuckets(RateLimitPolicy policy) {
+        // Dropped any sooner, an idle client's bucket would come back full before its period was up
+        Duration idleExpiry = policy.period().compareTo(expireAfterAccess) > 0 ? policy.period() : expireAfterAccess;
+        Cache<String, Bucket> cache = Caffeine.newBuilder()
+                .maximumSize(maximumBuckets)
+                .expireAfterAccess(idleExpiry)
+                .recordStats()
+                .build();
+        return new PolicyBuckets(cache, clientId -> Bucket.builder().addLimit(policy.toBandwidth()).build());
+    }
+
+    private record PolicyBuckets(Cache<String, Bucket> cache, Function<String, Bucket> factory) {
+    }
+
+    public void recordRejection() {
+        rejections.increment();
+    }
+
+    public long liveBuckets() {
+        return buckets.values().stream().mapToLong(policyBuckets -> policyBuckets.cache().estimatedSize()).sum();
+    }
+
+    // Size and idle-expiry evictions together
+    public long evictions() {
+        return buckets.values().stream().mapToLong(policyBuckets -> policyBuckets.cache().stats().evictionCount()).sum();
+    }
+
+    public long rejections() {
+        return rejections.sum();
+    }
+}
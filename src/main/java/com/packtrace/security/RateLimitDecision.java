@@ -0,0 +1,16 @@
+package com.packtrace.security;
+
+import java.time.Duration;
+
+/**
+ * Outcome of charging a bucket. {@code retryAfter} is how long a denied client should wait before the
+ * tokens it asked for can be available again; zero when allowed.
+ */
+public record RateLimitDecision(boolean allowed, Duration retryAfter) {
+
+    static final RateLimitDecision ALLOWED = new RateLimitDecision(true, Duration.ZERO);
+
+    static RateLimitDecision denied(Duration retryAfter) {
+        return new RateLimitDecision(false, retryAfter);
+    }
+}
@@ -1,70 +1,121 @@
 package com.packtrace.security;
 
-import io.github.bucket4j.Bucket;
-import io.github.bucket4j.Bandwidth;
-import io.github.bucket4j.Refill;
-import jakarta.enterprise.context.ApplicationScoped;
+import com.packtrace.security.RateLimitPolicies.RouteLimit;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.net.SocketAddress;
+import jakarta.inject.Inject;
 import jakarta.ws.rs.container.ContainerRequestContext;
-import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ResourceInfo;
 import jakarta.ws.rs.core.Response;
-import java.time.Duration;
+import jakarta.ws.rs.core.SecurityContext;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.resteasy.reactive.server.ServerRequestFilter;
+
+import java.lang.reflect.Method;
+import java.security.Principal;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
-@ApplicationScoped
-public class RateLimitFilter implements ContainerRequestFilter {
+/**
+ * Charges each matched endpoint by its {@link RateLimited} declaration, resolved once per resource method.
+ * Asynchronous so that, in distributed mode, the occasional Postgres reservation never blocks the event loop.
+ */
+public class RateLimitFilter {
 
-    private static final ConcurrentHashMap<String, Bucket> cache = new ConcurrentHashMap<>();
+    private static final Uni<Response> PASS = Uni.createFrom().nullItem();
 
-    private static final Bandwidth GENERAL_LIMIT = Bandwidth.classic(100, Refill.intervally(100, Duration.ofMinutes(1)));
-    private static final Bandwidth AUTH_LIMIT = Bandwidth.classic(5, Refill.intervally(5, Duration.ofMinutes(15)));
+    @Inject
+    RateLimitBucketStore bucketStore;
 
-    @Override
-    public void filter(ContainerRequestContext requestContext) {
-        String path = requestContext.getUriInfo().getPath();
-        
-        // Skip rate limiting for public endpoints
-        if (path.equals("account")) {
-            return;
-        }
+    @Inject
+    DistributedRateLimiter distributedRateLimiter;
+
+    @Inject
+    RateLimitPolicies policies;
+
+    // Peers whose X-Forwarded-For is believed; without any, the header is ignored
+    @ConfigProperty(name = "packtrace.rate-limit.trusted-proxies")
+    Optional<Set<String>> trustedProxies;
+
+    private final Map<Method, RouteLimit> routeLimits = new ConcurrentHashMap<>();
 
-        String clientId = getClientIdentifier(requestContext);
-        Bucket bucket;
-
-        if (path.contains("account")) {
-            // Strict limit for account operations
-            bucket = cache.computeIfAbsent(clientId + ":auth", k -> Bucket.builder()
-                    .addLimit(AUTH_LIMIT)
-                    .build());
-        } else {
-            // General limit for all other endpoints
-            bucket = cache.computeIfAbsent(clientId + ":general", k -> Bucket.builder()
-                    .addLimit(GENERAL_LIMIT)
-                    .build());
+    @ServerRequestFilter
+    public Uni<Response> filter(ContainerRequestContext requestContext, ResourceInfo resourceInfo,
+                                HttpServerRequest httpRequest) {
+        RouteLimit limit = routeLimit(resourceInfo);
+        if (limit.cost() == 0) {
+            return PASS;
         }
 
-        if (!bucket.tryConsume(1)) {
-            requestContext.abortWith(
-                Response.status(429)
-                    .entity("Too many requests. Please try again later.")
-                    .header("Retry-After", "60")
-                    .build()
-            );
+        String clientId = getClientIdentifier(requestContext, httpRequest);
+
+        if (!distributedRateLimiter.isEnabled()) {
+            RateLimitDecision decision = bucketStore.tryConsume(limit.policy(), clientId, limit.cost());
+            return decision.allowed() ? PASS : Uni.createFrom().item(reject(decision));
         }
+
+        return distributedRateLimiter.tryConsume(limit.policy(), clientId, limit.cost())
+                .map(decision -> decision.allowed() ? null : reject(decision));
     }
 
-    private String getClientIdentifier(ContainerRequestContext requestContext) {
-        // Try to use authenticated user ID first
-        if (requestContext.getSecurityContext() != null && 
-            requestContext.getSecurityContext().getUserPrincipal() != null) {
-            return "user:" + requestContext.getSecurityContext().getUserPrincipal().getName();
+    private RouteLimit routeLimit(ResourceInfo resourceInfo) {
+        Method method = resourceInfo.getResourceMethod();
+        if (method == null)
+            return new RouteLimit(policies.get(RateLimitPolicies.DEFAULT_POLICY), 1);
+
+        RouteLimit limit = routeLimits.get(method);
+        if (limit == null)
+            limit = routeLimits.computeIfAbsent(method,
+                    resourceMethod -> policies.limitFor(resourceInfo.getResourceClass(), resourceMethod));
+        return limit;
+    }
+
+    private Response reject(RateLimitDecision decision) {
+        bucketStore.recordRejection();
+        // Whole seconds, rounded up so a client that waits exactly this long finds its tokens back
+        long retryAfterSeconds = Math.max(1, (decision.retryAfter().toMillis() + 999) / 1000);
+        return Response.status(429)
+                .entity("Too many requests. Please try again later.")
+                .header("Retry-After", Long.toString(retryAfterSeconds))
+                .build();
+    }
+
+    // Prefixed so that a forged address can never land in an authenticated caller's bucket
+    private String getClientIdentifier(ContainerRequestContext requestContext, HttpServerRequest httpRequest) {
+        SecurityContext securityContext = requestContext.getSecurityContext();
+        Principal principal = securityContext == null ? null : securityContext.getUserPrincipal();
+        if (principal != null) {
+            return "user:" + principal.getName();
         }
-        
-        // Fall back to IP address
+
+        return "ip:" + getClientAddress(requestContext, httpRequest);
+    }
+
+    // The peer address, unless it is a trusted proxy: then the nearest forwarded hop that is not one.
+    // Hops are read right to left because proxies append, so only the leftmost ones can be forged.
+    private String getClientAddress(ContainerRequestContext requestContext, HttpServerRequest httpRequest) {
+        SocketAddress remoteAddress = httpRequest.remoteAddress();
+        String address = remoteAddress == null ? "unknown" : remoteAddress.hostAddress();
+        Set<String> proxies = trustedProxies.orElse(Set.of());
+        if (!proxies.contains(address))
+            return address;
+
         String xForwardedFor = requestContext.getHeaderString("X-Forwarded-For");
-        if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
-            return "ip:" + xForwardedFor.split(",")[0];
+        if (xForwardedFor == null)
+            return address;
+
+        String[] hops = xForwardedFor.split(",");
+        for (int i = hops.length - 1; i >= 0; i--) {
+            String hop = hops[i].trim();
+            if (hop.isEmpty())
+                break;
+            address = hop;
+            if (!proxies.contains(hop))
+                break;
         }
-        
-        return "ip:" + requestContext.getHeaderString("X-Forwarded-For");
+        return address;
     }
 }
@@ -0,0 +1,80 @@
+package com.packtrace.security;
+
+import io.quarkus.runtime.Startup;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.inject.Any;
+import jakarta.enterprise.inject.spi.Bean;
+import jakarta.enterprise.inject.spi.BeanManager;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Path;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * The configured policies, built eagerly so a missing or invalid policy fails startup rather than a request.
+ * Every {@link RateLimited} endpoint is checked against them at startup for the same reason.
+ */
+@Startup
+@ApplicationScoped
+public class RateLimitPolicies {
+
+    public static final String DEFAULT_POLICY = "general";
+
+    private final Map<String, RateLimitPolicy> policies;
+
+    @Inject
+    public RateLimitPolicies(RateLimitPolicyConfig config) {
+        policies = config.policies().entrySet().stream()
+                .collect(Collectors.toUnmodifiableMap(Map.Entry::getKey,
+                        entry -> toPolicy(entry.getKey(), entry.getValue())));
+        if (!policies.containsKey(DEFAULT_POLICY))
+            throw new IllegalStateException("Rate limit policy '" + DEFAULT_POLICY + "' is not configured");
+    }
+
+    public RateLimitPolicy get(String name) {
+        RateLimitPolicy policy = policies.get(name);
+        if (policy == null)
+            throw new IllegalStateException("Unknown rate limit policy: " + name);
+        return policy;
+    }
+
+    // What one call to the resource method costs, from its own annotation or else its class's
+    public RouteLimit limitFor(Class<?> resourceClass, Method resourceMethod) {
+        RateLimited declared = resourceMethod.getAnnotation(RateLimited.class);
+        if (declared == null)
+            declared = resourceClass.getAnnotation(RateLimited.class);
+        if (declared == null)
+            return new RouteLimit(get(DEFAULT_POLICY), 1);
+
+        RateLimitPolicy policy = get(declared.policy());
+        if (declared.cost() < 0 || declared.cost() > policy.capacity())
+            throw new IllegalStateException("Rate limit cost " + declared.cost() + " on "
+                    + resourceMethod + " does not fit policy '" + policy.name() + "'");
+        return new RouteLimit(policy, declared.cost());
+    }
+
+    void validateEndpoints(@Observes StartupEvent event, BeanManager beanManager) {
+        for (Bean<?> bean : beanManager.getBeans(Object.class, Any.Literal.INSTANCE)) {
+            Class<?> resourceClass = bean.getBeanClass();
+            if (!resourceClass.isAnnotationPresent(Path.class))
+                continue;
+            for (Method method : resourceClass.getDeclaredMethods()) {
+                if (method.isAnnotationPresent(RateLimited.class) || resourceClass.isAnnotationPresent(RateLimited.class))
+                    limitFor(resourceClass, method);
+            }
+        }
+    }
+
+    private static RateLimitPolicy toPolicy(String name, RateLimitPolicyConfig.Limit limit) {
+        if (limit.capacity() < 1 || limit.period().isZero() || limit.period().isNegative())
+            throw new IllegalStateException("Rate limit policy '" + name + "' needs a positive capacity and period");
+        return new RateLimitPolicy(name, limit.capacity(), limit.period());
+    }
+
+    public record RouteLimit(RateLimitPolicy policy, long cost) {
+    }
+}
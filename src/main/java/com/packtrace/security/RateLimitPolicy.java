@@ -0,0 +1,17 @@
+package com.packtrace.security;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Refill;
+
+import java.time.Duration;
+
+/**
+ * A named limit from packtrace.rate-limit.policies: {@code capacity} tokens, all of which return once per
+ * {@code period}.
+ */
+public record RateLimitPolicy(String name, long capacity, Duration period) {
+
+    Bandwidth toBandwidth() {
+        return Bandwidth.classic(capacity, Refill.intervally(capacity, period));
+    }
+}
@@ -0,0 +1,20 @@
+package com.packtrace.security;
+
+import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithParentName;
+
+import java.time.Duration;
+import java.util.Map;
+
+@ConfigMapping(prefix = "packtrace.rate-limit.policies")
+public interface RateLimitPolicyConfig {
+
+    @WithParentName
+    Map<String, Limit> policies();
+
+    interface Limit {
+        long capacity();
+
+        Duration period();
+    }
+}
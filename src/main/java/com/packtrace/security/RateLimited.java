@@ -0,0 +1,20 @@
+package com.packtrace.security;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Charges {@code cost} tokens from the named policy (packtrace.rate-limit.policies.*) for each call.
+ * A method-level annotation overrides the class-level one; unannotated endpoints cost one general token.
+ * A cost of zero exempts the endpoint.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface RateLimited {
+
+    String policy() default RateLimitPolicies.DEFAULT_POLICY;
+
+    long cost() default 1;
+}
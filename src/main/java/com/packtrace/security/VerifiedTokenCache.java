@@ -0,0 +1,108 @@
+package com.packtrace.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.quarkus.security.identity.SecurityIdentity;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.jwt.JsonWebToken;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Identities whose bearer token already passed OIDC verification, keyed by a SHA-256 of the token so raw
+ * tokens are never held as keys. Each entry expires at its token's {@code exp}, so a cached identity is
+ * never served after the token itself would be rejected.
+ */
+@ApplicationScoped
+public class VerifiedTokenCache {
+
+    @ConfigProperty(name = "packtrace.auth.token-cache.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "packtrace.auth.token-cache.maximum-size", defaultValue = "10000")
+    long maximumSize;
+
+    private Cache<String, CachedIdentity> identities;
+
+    @PostConstruct
+    void init() {
+        identities = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<String, CachedIdentity>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedIdentity value, long currentTime) {
+                        return untilExpiry(value);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedIdentity value, long currentTime, long currentDuration) {
+                        return untilExpiry(value);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedIdentity value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public SecurityIdentity get(String token) {
+        CachedIdentity cached = identities.getIfPresent(hash(token));
+        // Caffeine expires lazily, so an entry can outlive its token by up to one maintenance cycle
+        if (cached == null || !cached.expiresAt().isAfter(Instant.now()))
+            return null;
+        return cached.identity();
+    }
+
+    public void put(String token, SecurityIdentity identity) {
+        if (!(identity.getPrincipal() instanceof JsonWebToken jwt) || jwt.getExpirationTime() <= 0)
+            return;
+        Instant expiresAt = Instant.ofEpochSecond(jwt.getExpirationTime());
+        if (expiresAt.isAfter(Instant.now()))
+            identities.asMap().putIfAbsent(hash(token), new CachedIdentity(identity, expiresAt));
+    }
+
+    public void invalidateAll() {
+        identities.invalidateAll();
+    }
+
+    public long size() {
+        return identities.estimatedSize();
+    }
+
+    public CacheStats stats() {
+        return identities.stats();
+    }
+
+    private static long untilExpiry(CachedIdentity value) {
+        long nanos = TimeUnit.MILLISECONDS.toNanos(value.expiresAt().toEpochMilli() - System.currentTimeMillis());
+        return Math.max(0, nanos);
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private record CachedIdentity(SecurityIdentity identity, Instant expiresAt) {
+    }
+}
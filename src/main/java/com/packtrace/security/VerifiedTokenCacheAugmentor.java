@@ -0,0 +1,34 @@
+package com.packtrace.security;
+
+import io.quarkus.oidc.AccessTokenCredential;
+import io.quarkus.security.identity.AuthenticationRequestContext;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.quarkus.security.identity.SecurityIdentityAugmentor;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Runs after every other augmentor, so the cache holds the identity exactly as requests see it.
+ */
+@ApplicationScoped
+public class VerifiedTokenCacheAugmentor implements SecurityIdentityAugmentor {
+
+    @Inject
+    VerifiedTokenCache tokenCache;
+
+    @Override
+    public int priority() {
+        return Integer.MIN_VALUE;
+    }
+
+    @Override
+    public Uni<SecurityIdentity> augment(SecurityIdentity identity, AuthenticationRequestContext context) {
+        if (tokenCache.isEnabled() && !identity.isAnonymous()) {
+            AccessTokenCredential credential = identity.getCredential(AccessTokenCredential.class);
+            if (credential != null)
+                tokenCache.put(credential.getToken(), identity);
+        }
+        return Uni.createFrom().item(identity);
+    }
+}
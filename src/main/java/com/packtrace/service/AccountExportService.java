@@ -0,0 +1,110 @@
+package com.packtrace.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.packtrace.concurrency.AdmissionGate;
+import com.packtrace.mapper.AccountMapper;
+import com.packtrace.mapper.ClosetMapper;
+import com.packtrace.mapper.GearMapper;
+import com.packtrace.mapper.PackMapper;
+import com.packtrace.model.Account;
+import com.packtrace.model.Closet;
+import com.packtrace.model.ClosetGear;
+import com.packtrace.model.Gear;
+import com.packtrace.model.Pack;
+import com.packtrace.model.PackGear;
+import com.packtrace.repository.AccountExportRepository;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.ServiceUnavailableException;
+import jakarta.ws.rs.core.StreamingOutput;
+
+import java.io.IOException;
+
+@ApplicationScoped
+public class AccountExportService {
+
+    // Seconds a rejected client should wait before retrying
+    private static final long RETRY_AFTER_SECONDS = 1;
+
+    @Inject
+    AccountExportRepository accountExportRepository;
+
+    @Inject
+    AccountService accountService;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    AdmissionGate admissionGate;
+
+    /**
+     * Streams the account as newline-delimited JSON, one {"type", "data"} object per row.
+     * Rows are written as they are read from the database cursor, so memory use does not grow with the account.
+     * The pool permit is held for as long as the stream runs, since that is when the connection is in use.
+     */
+    public StreamingOutput exportAccount(String auth0Id) {
+        Account account = accountService.findByAuth0Id(auth0Id)
+                .orElseThrow(() -> new IllegalArgumentException("Account not found. Please login first."));
+
+        return output -> {
+            acquirePermit();
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.setRootValueSeparator(null);
+
+                writeLine(generator, "account", AccountMapper.toResponse(account));
+                accountExportRepository.exportAccount(account.getId(), new AccountExportRepository.ExportSink() {
+                    @Override
+                    public void gear(Gear gear) throws IOException {
+                        writeLine(generator, "gear", GearMapper.toResponse(gear));
+                    }
+
+                    @Override
+                    public void pack(Pack pack) throws IOException {
+                        writeLine(generator, "pack", PackMapper.toResponse(pack));
+                    }
+
+                    @Override
+                    public void packGear(PackGear packGear) throws IOException {
+                        writeLine(generator, "pack_gear", new Membership(packGear.getPackId(), packGear.getGearId(), packGear.getQuantity()));
+                    }
+
+                    @Override
+                    public void closet(Closet closet) throws IOException {
+                        writeLine(generator, "closet", ClosetMapper.toResponse(closet));
+                    }
+
+                    @Override
+                    public void closetGear(ClosetGear closetGear) throws IOException {
+                        writeLine(generator, "closet_gear", new Membership(closetGear.getClosetId(), closetGear.getGearId(), closetGear.getQuantity()));
+                    }
+                });
+            } finally {
+                admissionGate.release();
+            }
+        };
+    }
+
+    private void acquirePermit() {
+        boolean admitted;
+        try {
+            admitted = admissionGate.tryAcquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException(RETRY_AFTER_SECONDS);
+        }
+        if (!admitted)
+            throw new ServiceUnavailableException(RETRY_AFTER_SECONDS);
+    }
+
+    private void writeLine(JsonGenerator generator, String type, Object data) throws IOException {
+        generator.writeObject(new ExportLine(type, data));
+        generator.writeRaw('\n');
+    }
+
+    public record ExportLine(String type, Object data) {}
+
+    public record Membership(Long containerId, Long gearId, int quantity) {}
+}
@@ -1,15 +1,23 @@
 package com.packtrace.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.packtrace.dto.AccountCounts;
+import com.packtrace.exception.ConflictException;
 import com.packtrace.model.Account;
 import com.packtrace.repository.AccountRepository;
+import com.packtrace.repository.ReactiveAccountRepository;
+import io.smallrye.mutiny.Uni;
+import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
-import java.util.HashSet;
-import java.util.List;
+import java.time.Duration;
 import java.util.Optional;
-import java.util.Set;
+import java.util.UUID;
 
 @ApplicationScoped
 public class AccountService {
@@ -17,30 +25,92 @@ public class AccountService {
     @Inject
     AccountRepository accountRepository;
 
+    @Inject
+    ReactiveAccountRepository reactiveAccountRepository;
+
+    @Inject
+    ReadExecution readExecution;
+
+    @ConfigProperty(name = "packtrace.account-cache.maximum-size", defaultValue = "10000")
+    long accountCacheMaximumSize;
+
+    @ConfigProperty(name = "packtrace.account-cache.expire-after-write", defaultValue = "10M")
+    Duration accountCacheExpireAfterWrite;
+
+    private static final int MAX_BOOTSTRAP_ATTEMPTS = 5;
+
+    // auth0 subject -> account; the mapping never changes once the account exists
+    private Cache<String, Account> accountCache;
+
+    @PostConstruct
+    void initAccountCache() {
+        accountCache = Caffeine.newBuilder()
+                .maximumSize(accountCacheMaximumSize)
+                .expireAfterWrite(accountCacheExpireAfterWrite)
+                .recordStats()
+                .build();
+    }
+
     @Transactional
     public Account getOrCreateAccount(String auth0Id, String username) {
-        Optional<Account> existingAccount = accountRepository.findByAuth0Id(auth0Id);
+        Optional<Account> existingAccount = findByAuth0Id(auth0Id);
 
         if (existingAccount.isPresent())
             return existingAccount.get();
 
-        // Ensure the username is unique by appending a number if necessary
-        String finalUsername = username;
-        List<String> conflicts = accountRepository.findAllUsernamesStartingWith(username);
-        Set<String> takenUsernames = new HashSet<>(conflicts);
+        // Each attempt is one statement; a miss means a concurrent first login for the same subject
+        // or a username taken outside the counter, and the next attempt claims the next suffix
+        for (int attempt = 0; attempt < MAX_BOOTSTRAP_ATTEMPTS; attempt++) {
+            Optional<Account> createdAccount = accountRepository.insertWithNextUsername(auth0Id, username);
+            if (createdAccount.isPresent())
+                return createdAccount.get();
 
-        int counter = 1;
-        while (takenUsernames.contains(finalUsername)) {
-            finalUsername = username + "-" + counter;
-            counter++;
+            Optional<Account> concurrentAccount = accountRepository.findByAuth0Id(auth0Id);
+            if (concurrentAccount.isPresent())
+                return concurrentAccount.get();
         }
-
-        Account createdAccount = new Account(auth0Id, finalUsername);
-        accountRepository.persist(createdAccount);
-        return createdAccount;
+        throw new ConflictException("Could not allocate a unique username for " + username);
     }
 
     public Optional<Account> findByAuth0Id(String auth0Id) {
-        return accountRepository.findByAuth0Id(auth0Id);
+        Account cached = accountCache.getIfPresent(auth0Id);
+        if (cached != null)
+            return Optional.of(cached);
+
+        // Misses are not cached so a first login is visible immediately
+        Optional<Account> account = accountRepository.findByAuth0Id(auth0Id);
+        account.ifPresent(found -> accountCache.put(auth0Id, found));
+        return account;
+    }
+
+    public Uni<Optional<Account>> findByAuth0IdAsync(String auth0Id) {
+        Account cached = accountCache.getIfPresent(auth0Id);
+        if (cached != null)
+            return Uni.createFrom().item(Optional.of(cached));
+
+        return readExecution.select(
+                () -> reactiveAccountRepository.findByAuth0Id(auth0Id)
+                        .invoke(account -> account.ifPresent(found -> accountCache.put(auth0Id, found))),
+                () -> findByAuth0Id(auth0Id));
+    }
+
+    public AccountCounts countContents(UUID accountId) {
+        return accountRepository.countContents(accountId);
+    }
+
+    public void invalidateAccount(String auth0Id) {
+        accountCache.invalidate(auth0Id);
+    }
+
+    public void invalidateAllAccounts() {
+        accountCache.invalidateAll();
+    }
+
+    public long accountCacheSize() {
+        return accountCache.estimatedSize();
+    }
+
+    public CacheStats accountCacheStats() {
+        return accountCache.stats();
     }
 }
@@ -0,0 +1,136 @@
+package com.packtrace.service;
+
+import com.packtrace.dto.AccountCounts;
+import com.packtrace.dto.BootstrapResponse;
+import com.packtrace.dto.ClosetGearResponse;
+import com.packtrace.dto.PackGearResponse;
+import com.packtrace.dto.PackWeightResponse;
+import com.packtrace.dto.PageResponse;
+import com.packtrace.mapper.AccountMapper;
+import com.packtrace.mapper.ClosetMapper;
+import com.packtrace.mapper.GearMapper;
+import com.packtrace.mapper.PackMapper;
+import com.packtrace.model.Account;
+import com.packtrace.model.Closet;
+import com.packtrace.model.Gear;
+import com.packtrace.model.Pack;
+import com.packtrace.repository.GearFilter;
+import com.packtrace.repository.GearSort;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Loads the page-load data in one request. The account is resolved once, then every query runs on its own
+ * virtual thread; each takes an admission permit like any other blocking read, and the scope does not
+ * return until all of them have finished or been cancelled.
+ */
+@ApplicationScoped
+public class BootstrapService {
+
+    @Inject
+    AccountService accountService;
+
+    @Inject
+    PackService packService;
+
+    @Inject
+    ClosetService closetService;
+
+    @Inject
+    GearService gearService;
+
+    @Inject
+    ReadExecution readExecution;
+
+    public BootstrapResponse bootstrap(String auth0Id, int limit) {
+        // Like the list endpoints, a caller without an account yet sees empty lists
+        Account account = readExecution.admitted(() -> accountService.findByAuth0Id(auth0Id)).orElse(null);
+        if (account == null)
+            return emptyBootstrap();
+        UUID accountId = account.getId();
+
+        try (ExecutorService scope = Executors.newVirtualThreadPerTaskExecutor()) {
+            try {
+                Future<AccountCounts> counts = fork(scope, () -> accountService.countContents(accountId));
+                Future<PageResponse<Pack>> packs = fork(scope, () -> packService.getPacksPage(accountId, auth0Id, limit, null));
+                Future<PageResponse<Closet>> closets = fork(scope, () -> closetService.getClosetsPage(accountId, auth0Id, limit, null));
+                Future<PageResponse<Gear>> gear = fork(scope, () -> gearService.getGearPage(accountId, auth0Id,
+                        new GearFilter(null, null, null, null), GearSort.parse(null), limit, null));
+
+                // The weights and default selections need the first page of their lists, so they start as soon as it arrives
+                Future<List<PackWeightResponse>> packWeights = scope.submit(() -> {
+                    List<Long> packIds = join(packs).items().stream().map(Pack::getId).toList();
+                    return packIds.isEmpty()
+                            ? List.<PackWeightResponse>of()
+                            : readExecution.admitted(() -> packService.getPackWeights(accountId, packIds));
+                });
+                Future<List<PackGearResponse>> firstPackGear = scope.submit(() -> join(packs).items().stream()
+                        .findFirst()
+                        .map(pack -> readExecution.admitted(() -> packService.getPackGear(pack.getId(), auth0Id)))
+                        .orElse(List.of()));
+                Future<List<ClosetGearResponse>> firstClosetGear = scope.submit(() -> join(closets).items().stream()
+                        .findFirst()
+                        .map(closet -> readExecution.admitted(() -> closetService.getClosetGear(closet.getId(), auth0Id)))
+                        .orElse(List.of()));
+
+                return new BootstrapResponse(
+                        AccountMapper.toResponse(account),
+                        join(counts),
+                        toResponsePage(join(packs), PackMapper::toResponse),
+                        toResponsePage(join(closets), ClosetMapper::toResponse),
+                        toResponsePage(join(gear), GearMapper::toResponse),
+                        join(packWeights),
+                        join(firstPackGear),
+                        join(firstClosetGear)
+                );
+            } catch (RuntimeException e) {
+                // Fail fast: interrupt the remaining queries instead of waiting for them on close
+                scope.shutdownNow();
+                throw e;
+            }
+        }
+    }
+
+    private static BootstrapResponse emptyBootstrap() {
+        return new BootstrapResponse(
+                null,
+                new AccountCounts(0, 0, 0),
+                new PageResponse<>(List.of(), null),
+                new PageResponse<>(List.of(), null),
+                new PageResponse<>(List.of(), null),
+                List.of(),
+                List.of(),
+                List.of()
+        );
+    }
+
+    private <T> Future<T> fork(ExecutorService scope, Supplier<T> query) {
+        return scope.submit(() -> readExecution.admitted(query));
+    }
+
+    private static <T, R> PageResponse<R> toResponsePage(PageResponse<T> page, Function<T, R> mapper) {
+        return new PageResponse<>(page.items().stream().map(mapper).toList(), page.nextCursor());
+    }
+
+    private static <T> T join(Future<T> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException)
+                throw runtimeException;
+            throw new RuntimeException("Error loading bootstrap data", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while loading bootstrap data", e);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.packtrace.service;
+
+import com.packtrace.dto.ChangeNotification;
+import com.packtrace.repository.ReactiveChangeNotificationRepository;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.subscription.BackPressureFailure;
+import io.smallrye.mutiny.subscription.BackPressureStrategy;
+import io.smallrye.mutiny.subscription.MultiEmitter;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fans committed change notifications out to each account's open streams on this instance. Notifications
+ * arrive through Postgres LISTEN/NOTIFY, so a write on any instance reaches streams on every instance.
+ * Every stream buffers at most packtrace.push.buffer-size notifications; a subscriber that falls further
+ * behind is disconnected rather than buffered without bound, and reloads when it reconnects.
+ */
+@ApplicationScoped
+public class ChangeBroadcaster {
+
+    private static final Logger LOG = Logger.getLogger(ChangeBroadcaster.class);
+
+    @ConfigProperty(name = "packtrace.push.buffer-size", defaultValue = "64")
+    int bufferSize;
+
+    @ConfigProperty(name = "packtrace.push.max-streams-per-account", defaultValue = "8")
+    int maxStreamsPerAccount;
+
+    // Longest wait between attempts to listen again after the listening connection is lost
+    @ConfigProperty(name = "packtrace.push.relay-max-backoff", defaultValue = "30S")
+    Duration relayMaxBackoff;
+
+    @Inject
+    ReactiveChangeNotificationRepository changeNotificationRepository;
+
+    private volatile boolean stopping;
+
+    // auth0 subject -> open streams, oldest first
+    private final Map<String, List<MultiEmitter<? super ChangeNotification>>> streams = new ConcurrentHashMap<>();
+
+    public Multi<ChangeNotification> subscribe(String auth0Id) {
+        return Multi.createFrom().<ChangeNotification>emitter(emitter -> {
+                    register(auth0Id, emitter);
+                    emitter.onTermination(() -> unregister(auth0Id, emitter));
+                }, BackPressureStrategy.ERROR)
+                .onOverflow().buffer(bufferSize)
+                .onFailure(BackPressureFailure.class).invoke(() ->
+                        LOG.debugf("Dropped slow change stream subscriber for %s", auth0Id))
+                .onFailure(BackPressureFailure.class).recoverWithCompletion();
+    }
+
+    void startRelay(@Observes StartupEvent event) {
+        listen();
+    }
+
+    void stopRelay(@Observes ShutdownEvent event) {
+        stopping = true;
+    }
+
+    private void listen() {
+        changeNotificationRepository.listen(this::deliver, this::relayLost)
+                .onFailure().invoke(e -> LOG.debugf(e, "Could not listen for change notifications"))
+                .onFailure().retry().withBackOff(Duration.ofSeconds(1), relayMaxBackoff).indefinitely()
+                .subscribe().with(ignored -> LOG.debug("Listening for change notifications"));
+    }
+
+    // Notifications sent while nothing listened are lost, so open streams are closed and their clients reload
+    private void relayLost() {
+        if (stopping)
+            return;
+        LOG.warn("Lost the change notification listener; closing open streams and listening again");
+        List<MultiEmitter<? super ChangeNotification>> open = new ArrayList<>();
+        streams.values().forEach(targets -> {
+            synchronized (targets) {
+                open.addAll(targets);
+            }
+        });
+        open.forEach(MultiEmitter::complete);
+        listen();
+    }
+
+    private void deliver(String auth0Id, ChangeNotification notification) {
+        List<MultiEmitter<? super ChangeNotification>> targets = streams.get(auth0Id);
+        if (targets == null)
+            return;
+
+        List<MultiEmitter<? super ChangeNotification>> snapshot;
+        synchronized (targets) {
+            snapshot = List.copyOf(targets);
+        }
+        for (MultiEmitter<? super ChangeNotification> emitter : snapshot)
+            emitter.emit(notification);
+    }
+
+    private void register(String auth0Id, MultiEmitter<? super ChangeNotification> emitter) {
+        List<MultiEmitter<? super ChangeNotification>> evicted = new ArrayList<>();
+        streams.compute(auth0Id, (key, targets) -> {
+            List<MultiEmitter<? super ChangeNotification>> list = targets == null ? new ArrayList<>() : targets;
+            synchronized (list) {
+                // Past the cap the oldest stream is closed, typically a tab that was left open
+                while (list.size() >= maxStreamsPerAccount)
+                    evicted.add(list.remove(0));
+                list.add(emitter);
+            }
+            return list;
+        });
+        evicted.forEach(MultiEmitter::complete);
+    }
+
+    private void unregister(String auth0Id, MultiEmitter<? super ChangeNotification> emitter) {
+        streams.computeIfPresent(auth0Id, (key, targets) -> {
+            synchronized (targets) {
+                targets.remove(emitter);
+                return targets.isEmpty() ? null : targets;
+            }
+        });
+    }
+}
@@ -0,0 +1,34 @@
+package com.packtrace.service;
+
+import com.packtrace.repository.ChangeLogRepository;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Drops change log rows older than the retention window. Clients holding older tokens get 410 and reload.
+ */
+@ApplicationScoped
+public class ChangeLogPruner {
+
+    private static final Logger LOG = Logger.getLogger(ChangeLogPruner.class);
+
+    @Inject
+    ChangeLogRepository changeLogRepository;
+
+    @ConfigProperty(name = "packtrace.sync.retention", defaultValue = "30D")
+    Duration retention;
+
+    @Scheduled(every = "${packtrace.sync.prune-interval}", delayed = "5m",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void scheduledPrune() {
+        int pruned = changeLogRepository.pruneChangedBefore(Instant.now().minus(retention));
+        if (pruned > 0)
+            LOG.infof("Pruned %d change log row(s)", pruned);
+    }
+}
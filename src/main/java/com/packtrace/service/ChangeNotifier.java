@@ -0,0 +1,42 @@
+package com.packtrace.service;
+
+import com.packtrace.repository.ChangeNotificationRepository;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Called by the services after a write. The notification is queued inside the caller's transaction, so its
+ * version includes the write's own trigger bump, and Postgres only delivers it to the listening instances
+ * (ChangeBroadcaster) if that transaction commits.
+ */
+@ApplicationScoped
+public class ChangeNotifier {
+
+    @Inject
+    ChangeNotificationRepository changeNotificationRepository;
+
+    public void packChanged(String auth0Id, Long packId) {
+        changeNotificationRepository.publishChanged(auth0Id, "pack", packId);
+    }
+
+    public void packDeleted(String auth0Id, Long packId) {
+        changeNotificationRepository.publishDeleted(auth0Id, "pack", packId);
+    }
+
+    public void closetChanged(String auth0Id, Long closetId) {
+        changeNotificationRepository.publishChanged(auth0Id, "closet", closetId);
+    }
+
+    public void closetDeleted(String auth0Id, Long closetId) {
+        changeNotificationRepository.publishDeleted(auth0Id, "closet", closetId);
+    }
+
+    // gearId is null for bulk changes such as an import
+    public void gearChanged(String auth0Id, Long gearId) {
+        changeNotificationRepository.publishChanged(auth0Id, "gear", gearId);
+    }
+
+    public void gearDeleted(String auth0Id, Long gearId) {
+        changeNotificationRepository.publishDeleted(auth0Id, "gear", gearId);
+    }
+}
@@ -1,19 +1,28 @@
 package com.packtrace.service;
 
 import com.packtrace.dto.ClosetGearResponse;
-import com.packtrace.mapper.ClosetMapper;
+import com.packtrace.dto.PageResponse;
+import com.packtrace.exception.ConflictException;
+import com.packtrace.exception.EntityNotFoundException;
 import com.packtrace.model.Account;
 import com.packtrace.model.Closet;
-import com.packtrace.model.ClosetGear;
 import com.packtrace.model.Gear;
+import com.packtrace.repository.DataSourceRouter;
+import com.packtrace.repository.DataSourceRouter.ReadSource;
 import com.packtrace.repository.ClosetRepository;
 import com.packtrace.repository.ClosetGearRepository;
+import com.packtrace.repository.PageRequest;
+import com.packtrace.repository.ReactiveClosetGearRepository;
+import com.packtrace.repository.ReactiveClosetRepository;
+import com.packtrace.repository.WriteResult;
+import io.smallrye.mutiny.Uni;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 @ApplicationScoped
 public class ClosetService {
@@ -24,45 +33,82 @@ public class ClosetService {
     @Inject
     ClosetGearRepository closetGearRepository;
 
+    @Inject
+    ReactiveClosetRepository reactiveClosetRepository;
+
+    @Inject
+    ReactiveClosetGearRepository reactiveClosetGearRepository;
+
+    @Inject
+    ReadExecution readExecution;
+
+    @Inject
+    DataSourceRouter dataSourceRouter;
+
     @Inject
     AccountService accountService;
 
     @Inject
     GearService gearService;
 
+    @Inject
+    ChangeNotifier changeNotifier;
+
     @Transactional
     public Closet createCloset(String auth0Id, Closet closet) {
-        Account account = accountService.findByAuth0Id(auth0Id)
-                .orElseThrow(() -> new IllegalArgumentException("Account not found. Please login first."));
-        
-        if (closetRepository.existsByAccountIdAndName(account.getId(), closet.getName())) {
-            throw new IllegalArgumentException("Closet with this name already exists");
-        }
-        
-        closet.setAccountId(account.getId());
-        closetRepository.persist(closet);
+        requireApplied(closetRepository.persist(closet, auth0Id));
+        changeNotifier.closetChanged(auth0Id, closet.getId());
         return closet;
     }
 
     @Transactional
     public void deleteCloset(Long id, String auth0Id) {
-        Optional<Closet> existingOpt = closetRepository.findById(id);
-        if (existingOpt.isPresent()) {
-            Closet existing = existingOpt.get();
-            Account account = accountService.findByAuth0Id(auth0Id)
-                    .orElseThrow(() -> new SecurityException("Account not found. Please login first."));
-
-            if (!existing.getAccountId().equals(account.getId())) {
-                throw new SecurityException("You do not own this closet");
-            }
-            closetRepository.deleteById(id);
+        // Deleting a closet that no longer exists is a no-op
+        WriteResult result = closetRepository.deleteById(id, auth0Id);
+        if (result != WriteResult.NOT_FOUND) {
+            requireApplied(result);
+            changeNotifier.closetDeleted(auth0Id, id);
         }
     }
 
-    public List<Closet> getMyClosets(String auth0Id) {
+    public PageResponse<Closet> getMyClosetsPage(String auth0Id, int limit, String cursor) {
         return accountService.findByAuth0Id(auth0Id)
-                .map(account -> closetRepository.findByAccountId(account.getId()))
-                .orElse(List.of());
+                .map(account -> getClosetsPage(account.getId(), auth0Id, limit, cursor))
+                .orElse(new PageResponse<>(List.<Closet>of(), null));
+    }
+
+    // For callers that already resolved the account; auth0Id only drives replica routing
+    public PageResponse<Closet> getClosetsPage(UUID accountId, String auth0Id, int limit, String cursor) {
+        PageRequest page = toClosetPageRequest(limit, cursor);
+        return toClosetPage(dataSourceRouter.read(auth0Id, () -> closetRepository.findByAccountId(accountId, page)), limit);
+    }
+
+    public Uni<PageResponse<Closet>> getMyClosetsPageAsync(String auth0Id, int limit, String cursor) {
+        return readExecution.select(
+                () -> {
+                    PageRequest page = toClosetPageRequest(limit, cursor);
+                    return accountService.findByAuth0IdAsync(auth0Id)
+                            .chain(account -> account
+                                    .map(found -> reactiveClosetRepository.findByAccountId(found.getId(), page)
+                                            .map(rows -> toClosetPage(rows, limit)))
+                                    .orElse(Uni.createFrom().item(new PageResponse<Closet>(List.of(), null))));
+                },
+                () -> getMyClosetsPage(auth0Id, limit, cursor));
+    }
+
+    // Asks for one extra row to learn whether another page exists
+    private PageRequest toClosetPageRequest(int limit, String cursor) {
+        PageRequest page = PageCursor.decode(cursor, "name", limit);
+        return new PageRequest(limit + 1, page.afterKey(), page.afterId());
+    }
+
+    private PageResponse<Closet> toClosetPage(List<Closet> rows, int limit) {
+        if (rows.size() <= limit)
+            return new PageResponse<>(rows, null);
+
+        List<Closet> items = rows.subList(0, limit);
+        Closet last = items.get(limit - 1);
+        return new PageResponse<>(items, PageCursor.encode("name", last.getName(), last.getId()));
     }
 
     public Optional<Closet> getClosetById(Long id, String auth0Id) {
@@ -82,132 +128,90 @@ public class ClosetService {
         return Optional.of(closet);
     }
 
+    public Uni<Optional<Closet>> getClosetByIdAsync(Long id, String auth0Id) {
+        return readExecution.select(
+                // Both lookups are independent, so the pg client pipelines them on one connection
+                () -> Uni.combine().all()
+                        .unis(reactiveClosetRepository.findById(id), accountService.findByAuth0IdAsync(auth0Id))
+                        .with((closetOpt, account) -> {
+                            closetOpt.ifPresent(closet -> {
+                                if (account.isEmpty() || !closet.getAccountId().equals(account.get().getId()))
+                                    throw new SecurityException("You do not own this closet");
+                            });
+                            return closetOpt;
+                        }),
+                () -> getClosetById(id, auth0Id));
+    }
+
     @Transactional
     public Closet updateCloset(Long id, Closet updatedCloset, String auth0Id) {
-        Optional<Closet> existingOpt = closetRepository.findById(id);
-        if (existingOpt.isEmpty()) {
-            throw new IllegalArgumentException("Closet not found");
-        }
-
-        Closet existing = existingOpt.get();
-
-        // Verify ownership
-        Account account = accountService.findByAuth0Id(auth0Id)
-                .orElseThrow(() -> new SecurityException("Account not found. Please login first."));
-
-        if (!existing.getAccountId().equals(account.getId())) {
-            throw new SecurityException("You do not own this closet");
-        }
-
-        // Check for name conflict with other closets
-        if (!existing.getName().equals(updatedCloset.getName()) && 
-            closetRepository.existsByAccountIdAndName(account.getId(), updatedCloset.getName())) {
-            throw new IllegalArgumentException("Closet with this name already exists");
-        }
-
-        // Update fields
-        existing.setName(updatedCloset.getName());
-        existing.setDescription(updatedCloset.getDescription());
-
-        closetRepository.update(existing);
-        return existing;
+        updatedCloset.setId(id);
+        requireApplied(closetRepository.update(updatedCloset, auth0Id));
+        changeNotifier.closetChanged(auth0Id, id);
+        return updatedCloset;
     }
 
     @Transactional
     public void addGearToCloset(Long closetId, Long gearId, int quantity, String auth0Id) {
-        // Verify closet ownership
-        Closet closet = closetRepository.findById(closetId)
-                .orElseThrow(() -> new IllegalArgumentException("Closet not found"));
-        
-        Account account = accountService.findByAuth0Id(auth0Id)
-                .orElseThrow(() -> new SecurityException("Account not found. Please login first."));
-        
-        if (!closet.getAccountId().equals(account.getId())) {
-            throw new SecurityException("You do not own this closet");
-        }
-
-        // Verify gear exists and is owned by user
-        Gear gear = gearService.getGearById(gearId)
-                .orElseThrow(() -> new IllegalArgumentException("Gear not found"));
-        
-        if (!gear.getOwnerId().equals(account.getId())) {
-            throw new SecurityException("You do not own this gear");
-        }
-
-        closetGearRepository.addGearToCloset(closetId, gearId, quantity);
+        requireApplied(closetGearRepository.addGearToCloset(closetId, gearId, quantity, auth0Id));
+        changeNotifier.closetChanged(auth0Id, closetId);
     }
 
     @Transactional
     public void removeGearFromCloset(Long closetId, Long gearId, String auth0Id) {
-        // Verify closet ownership
-        Closet closet = closetRepository.findById(closetId)
-                .orElseThrow(() -> new IllegalArgumentException("Closet not found"));
-        
-        Account account = accountService.findByAuth0Id(auth0Id)
-                .orElseThrow(() -> new SecurityException("Account not found. Please login first."));
-        
-        if (!closet.getAccountId().equals(account.getId())) {
-            throw new SecurityException("You do not own this closet");
+        // Removing gear that is not in the closet is a no-op
+        WriteResult result = closetGearRepository.removeGearFromCloset(closetId, gearId, auth0Id);
+        if (result != WriteResult.NOT_IN_CONTAINER) {
+            requireApplied(result);
+            changeNotifier.closetChanged(auth0Id, closetId);
         }
+    }
+
+    public List<ClosetGearResponse> getClosetGear(Long closetId, String auth0Id) {
+        return getClosetGear(closetId, dataSourceRouter.chooseSource(auth0Id));
+    }
 
-        closetGearRepository.removeGearFromCloset(closetId, gearId);
+    public List<ClosetGearResponse> getClosetGear(Long closetId, ReadSource source) {
+        return dataSourceRouter.read(source, () -> closetGearRepository.findGearResponsesInCloset(closetId));
     }
 
-    public List<ClosetGearResponse> getClosetGear(Long closetId) {
-        List<ClosetGear> closetGears = closetGearRepository.findGearInCloset(closetId);
-        return closetGears.stream()
-                .map(closetGear -> {
-                    Gear gear = gearService.getGearById(closetGear.getGearId())
-                            .orElse(null);
-                    return ClosetMapper.toGearResponse(closetGear, gear);
-                })
-                .filter(response -> response != null)
-                .toList();
+    // Callers tagging the result pass the source they read the closet's version from
+    public Uni<List<ClosetGearResponse>> getClosetGearAsync(Long closetId, ReadSource source) {
+        return readExecution.select(
+                () -> reactiveClosetGearRepository.findGearResponsesInCloset(closetId),
+                () -> getClosetGear(closetId, source));
     }
 
     @Transactional
     public Gear createGearAndAddToCloset(Long closetId, Gear gear, int quantity, String auth0Id) {
-        // Verify closet ownership
-        Closet closet = closetRepository.findById(closetId)
-                .orElseThrow(() -> new IllegalArgumentException("Closet not found"));
-
-        Account account = accountService.findByAuth0Id(auth0Id)
-                .orElseThrow(() -> new SecurityException("Account not found. Please login first."));
-
-        if (!closet.getAccountId().equals(account.getId())) {
-            throw new SecurityException("You do not own this closet");
-        }
-
-        // Create the gear
+        // Create the gear, then add it; the closet ownership check rolls the creation back on failure
         Gear createdGear = gearService.createGear(auth0Id, gear);
-
-        // Add it to the closet
-        closetGearRepository.addGearToCloset(closetId, createdGear.getId(), quantity);
-
+        requireApplied(closetGearRepository.addGearToCloset(closetId, createdGear.getId(), quantity, auth0Id));
+        changeNotifier.closetChanged(auth0Id, closetId);
         return createdGear;
     }
 
     @Transactional
     public void updateClosetGearQuantity(Long closetId, Long gearId, int quantity, String auth0Id) {
-        // Verify closet ownership
-        Closet closet = closetRepository.findById(closetId)
-                .orElseThrow(() -> new IllegalArgumentException("Closet not found"));
-        
-        Account account = accountService.findByAuth0Id(auth0Id)
-                .orElseThrow(() -> new SecurityException("Account not found. Please login first."));
-        
-        if (!closet.getAccountId().equals(account.getId())) {
-            throw new SecurityException("You do not own this closet");
-        }
-
-        // Verify gear is in closet
-        closetGearRepository.getQuantity(closetId, gearId)
-                .orElseThrow(() -> new IllegalArgumentException("Gear is not in this closet"));
-
+        // If quantity is zero or negative, remove the gear from the closet
         if (quantity <= 0) {
-            closetGearRepository.removeGearFromCloset(closetId, gearId);
+            requireApplied(closetGearRepository.removeGearFromCloset(closetId, gearId, auth0Id));
         } else {
-            closetGearRepository.updateQuantity(closetId, gearId, quantity);
+            requireApplied(closetGearRepository.updateQuantity(closetId, gearId, quantity, auth0Id));
+        }
+        changeNotifier.closetChanged(auth0Id, closetId);
+    }
+
+    private void requireApplied(WriteResult result) {
+        switch (result) {
+            case APPLIED -> { }
+            case ACCOUNT_NOT_FOUND -> throw new IllegalArgumentException("Account not found. Please login first.");
+            case NOT_FOUND -> throw new EntityNotFoundException("Closet not found");
+            case FORBIDDEN -> throw new SecurityException("You do not own this closet");
+            case CONFLICT -> throw new ConflictException("Closet with this name already exists");
+            case GEAR_NOT_FOUND -> throw new EntityNotFoundException("Gear not found");
+            case GEAR_FORBIDDEN -> throw new SecurityException("You do not own this gear");
+            case NOT_IN_CONTAINER -> throw new IllegalArgumentException("Gear is not in this closet");
         }
     }
 }
@@ -0,0 +1,46 @@
+package com.packtrace.service;
+
+import com.packtrace.repository.DataSourceRouter;
+import com.packtrace.repository.DataSourceRouter.ReadSource;
+import com.packtrace.repository.EntityVersionRepository;
+import com.packtrace.repository.ReactiveEntityVersionRepository;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.util.Optional;
+
+@ApplicationScoped
+public class EntityVersionService {
+
+    @Inject
+    EntityVersionRepository entityVersionRepository;
+
+    @Inject
+    ReactiveEntityVersionRepository reactiveEntityVersionRepository;
+
+    @Inject
+    ReadExecution readExecution;
+
+    // Callers pass the source their tagged body is read from, so a tag never comes from a newer server than its rows
+    @Inject
+    DataSourceRouter dataSourceRouter;
+
+    public Uni<Optional<Long>> getPackVersionAsync(Long packId, ReadSource source) {
+        return readExecution.select(
+                () -> reactiveEntityVersionRepository.findPackVersion(packId),
+                () -> dataSourceRouter.read(source, () -> entityVersionRepository.findPackVersion(packId)));
+    }
+
+    public Uni<Optional<Long>> getClosetVersionAsync(Long closetId, ReadSource source) {
+        return readExecution.select(
+                () -> reactiveEntityVersionRepository.findClosetVersion(closetId),
+                () -> dataSourceRouter.read(source, () -> entityVersionRepository.findClosetVersion(closetId)));
+    }
+
+    public Uni<Optional<Long>> getGearLibraryVersionAsync(String auth0Id, ReadSource source) {
+        return readExecution.select(
+                () -> reactiveEntityVersionRepository.findGearLibraryVersion(auth0Id),
+                () -> dataSourceRouter.read(source, () -> entityVersionRepository.findGearLibraryVersion(auth0Id)));
+    }
+}
@@ -0,0 +1,158 @@
+package com.packtrace.service;
+
+import com.packtrace.csv.CsvReader;
+import com.packtrace.dto.GearImportResponse;
+import com.packtrace.exception.EntityNotFoundException;
+import com.packtrace.model.Account;
+import com.packtrace.repository.GearImportRepository;
+import com.packtrace.repository.GearImportResult;
+import com.packtrace.repository.GearImportRow;
+import com.packtrace.repository.WriteResult;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+@ApplicationScoped
+public class GearImportService {
+
+    // Header aliases, including the columns of a LighterPack CSV export
+    private static final Map<String, String> COLUMN_ALIASES = Map.ofEntries(
+            Map.entry("name", "name"),
+            Map.entry("item name", "name"),
+            Map.entry("item", "name"),
+            Map.entry("brand", "brand"),
+            Map.entry("category", "category"),
+            Map.entry("weight", "weight"),
+            Map.entry("weight_grams", "weight"),
+            Map.entry("weight (g)", "weight"),
+            Map.entry("unit", "unit"),
+            Map.entry("url", "url"),
+            Map.entry("website", "url"),
+            Map.entry("website_url", "url"),
+            Map.entry("qty", "qty"),
+            Map.entry("quantity", "qty")
+    );
+
+    @Inject
+    GearImportRepository gearImportRepository;
+
+    @Inject
+    AccountService accountService;
+
+    @Inject
+    ChangeNotifier changeNotifier;
+
+    @Transactional
+    public GearImportResponse importGear(String auth0Id, InputStream csv, Long packId, Long closetId) {
+        Account account = accountService.findByAuth0Id(auth0Id)
+                .orElseThrow(() -> new IllegalArgumentException("Account not found. Please login first."));
+
+        try (CsvReader reader = new CsvReader(new InputStreamReader(csv, StandardCharsets.UTF_8))) {
+            List<String> header = reader.readRecord();
+            if (header == null)
+                throw new IllegalArgumentException("CSV file is empty");
+
+            Map<String, Integer> columns = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                String column = COLUMN_ALIASES.get(header.get(i).trim().toLowerCase(Locale.ROOT));
+                if (column != null)
+                    columns.putIfAbsent(column, i);
+            }
+            if (!columns.containsKey("name") || !columns.containsKey("weight"))
+                throw new IllegalArgumentException("CSV header must include name and weight columns");
+
+            GearImportResult result = gearImportRepository.importGear(account.getId(), new RowIterator(reader, columns), packId, closetId);
+            requireApplied(result.pack(), "Pack not found", "You do not own this pack");
+            requireApplied(result.closet(), "Closet not found", "You do not own this closet");
+            // One notification per import rather than per row, so a large file cannot flood subscribers
+            changeNotifier.gearChanged(auth0Id, null);
+            if (packId != null)
+                changeNotifier.packChanged(auth0Id, packId);
+            if (closetId != null)
+                changeNotifier.closetChanged(auth0Id, closetId);
+            return result.summary();
+        } catch (IOException | UncheckedIOException e) {
+            throw new IllegalArgumentException("Unable to read CSV upload", e);
+        }
+    }
+
+    // Ownership is checked by the import statement, so a foreign pack or closet rolls the whole import back
+    private void requireApplied(WriteResult result, String notFound, String forbidden) {
+        switch (result) {
+            case APPLIED -> { }
+            case NOT_FOUND -> throw new EntityNotFoundException(notFound);
+            default -> throw new SecurityException(forbidden);
+        }
+    }
+
+    // Pulls one record at a time from the upload as COPY consumes rows
+    private static class RowIterator implements Iterator<GearImportRow> {
+        private final CsvReader reader;
+        private final Map<String, Integer> columns;
+        private GearImportRow next;
+
+        RowIterator(CsvReader reader, Map<String, Integer> columns) {
+            this.reader = reader;
+            this.columns = columns;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next != null)
+                return true;
+            try {
+                List<String> record;
+                do {
+                    record = reader.readRecord();
+                } while (record != null && record.size() == 1 && record.get(0).isBlank());
+
+                if (record != null)
+                    next = toRow(reader.getRecordLine(), record);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return next != null;
+        }
+
+        @Override
+        public GearImportRow next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            GearImportRow row = next;
+            next = null;
+            return row;
+        }
+
+        private GearImportRow toRow(long line, List<String> record) {
+            return new GearImportRow(
+                    line,
+                    field(record, "name"),
+                    field(record, "brand"),
+                    field(record, "category"),
+                    field(record, "weight"),
+                    field(record, "unit"),
+                    field(record, "url"),
+                    field(record, "qty")
+            );
+        }
+
+        private String field(List<String> record, String column) {
+            Integer index = columns.get(column);
+            if (index == null || index >= record.size())
+                return null;
+            return record.get(index);
+        }
+    }
+}
@@ -1,14 +1,25 @@
 package com.packtrace.service;
 
-import com.packtrace.model.Account;
+import com.packtrace.dto.PageResponse;
+import com.packtrace.exception.EntityNotFoundException;
 import com.packtrace.model.Gear;
+import com.packtrace.repository.DataSourceRouter;
+import com.packtrace.repository.DataSourceRouter.ReadSource;
+import com.packtrace.repository.GearFilter;
 import com.packtrace.repository.GearRepository;
+import com.packtrace.repository.GearSort;
+import com.packtrace.repository.PageRequest;
+import com.packtrace.repository.ReactiveGearRepository;
+import com.packtrace.repository.WriteResult;
+import io.smallrye.mutiny.Uni;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 @ApplicationScoped
 public class GearService {
@@ -19,65 +30,123 @@ public class GearService {
     @Inject
     AccountService accountService;
 
+    @Inject
+    ReactiveGearRepository reactiveGearRepository;
+
+    @Inject
+    ReadExecution readExecution;
+
+    @Inject
+    DataSourceRouter dataSourceRouter;
+
+    @Inject
+    ChangeNotifier changeNotifier;
+
+    // pg_trgm word similarity needed for a fuzzy match; lower tolerates more typos
+    @ConfigProperty(name = "packtrace.gear-search.similarity-threshold", defaultValue = "0.4")
+    double searchSimilarityThreshold;
+
     @Transactional
     public Gear createGear(String auth0Id, Gear gear) {
-        Account account = accountService.findByAuth0Id(auth0Id)
-                .orElseThrow(() -> new IllegalArgumentException("Account not found. Please login first."));
-        gear.setOwnerId(account.getId());
-        gearRepository.persist(gear);
+        requireApplied(gearRepository.persist(gear, auth0Id));
+        changeNotifier.gearChanged(auth0Id, gear.getId());
         return gear;
     }
 
     @Transactional
     public void deleteGear(Long id, String auth0Id) {
-        Optional<Gear> existingOpt = gearRepository.findById(id);
-        if (existingOpt.isPresent()) {
-            Gear existing = existingOpt.get();
-            Account account = accountService.findByAuth0Id(auth0Id)
-                    .orElseThrow(() -> new SecurityException("Account not found. Please login first."));
-
-            if (!existing.getOwnerId().equals(account.getId())) {
-                throw new SecurityException("You do not own this gear");
-            }
-            gearRepository.deleteById(id);
+        // Deleting gear that no longer exists is a no-op
+        WriteResult result = gearRepository.deleteById(id, auth0Id);
+        if (result != WriteResult.NOT_FOUND) {
+            requireApplied(result);
+            changeNotifier.gearDeleted(auth0Id, id);
         }
     }
 
-    public List<Gear> getMyGear(String auth0Id) {
+    public PageResponse<Gear> getMyGearPage(String auth0Id, ReadSource source, GearFilter filter, GearSort sort, int limit, String cursor) {
         return accountService.findByAuth0Id(auth0Id)
-                .map(account -> gearRepository.findByOwnerId(account.getId()))
-                .orElse(List.of());
+                .map(account -> getGearPage(account.getId(), source, filter, sort, limit, cursor))
+                .orElse(new PageResponse<>(List.of(), null));
     }
 
-    public Optional<Gear> getGearById(Long id) {
-        return gearRepository.findById(id);
+    // For callers that already resolved the account; auth0Id only drives replica routing
+    public PageResponse<Gear> getGearPage(UUID ownerId, String auth0Id, GearFilter filter, GearSort sort, int limit, String cursor) {
+        return getGearPage(ownerId, dataSourceRouter.chooseSource(auth0Id), filter, sort, limit, cursor);
     }
 
-    @Transactional
-    public Gear updateGear(Long id, Gear updatedGear, String auth0Id) {
-        Optional<Gear> existingOpt = gearRepository.findById(id);
-        if (existingOpt.isEmpty()) {
-            throw new IllegalArgumentException("Gear not found");
-        }
+    private PageResponse<Gear> getGearPage(UUID ownerId, ReadSource source, GearFilter filter, GearSort sort, int limit, String cursor) {
+        PageRequest page = toGearPageRequest(filter, sort, limit, cursor);
+        return toGearPage(dataSourceRouter.read(source,
+                () -> gearRepository.findByOwnerId(ownerId, filter, sort, page)), sort, limit);
+    }
 
-        Gear existing = existingOpt.get();
+    // Callers tagging the page pass the source they read the library version from
+    public Uni<PageResponse<Gear>> getMyGearPageAsync(String auth0Id, ReadSource source, GearFilter filter, GearSort sort, int limit, String cursor) {
+        return readExecution.select(
+                () -> {
+                    PageRequest page = toGearPageRequest(filter, sort, limit, cursor);
+                    return accountService.findByAuth0IdAsync(auth0Id)
+                            .chain(account -> account
+                                    .map(found -> reactiveGearRepository.findByOwnerId(found.getId(), filter, sort, page)
+                                            .map(rows -> toGearPage(rows, sort, limit)))
+                                    .orElse(Uni.createFrom().item(new PageResponse<Gear>(List.of(), null))));
+                },
+                () -> getMyGearPage(auth0Id, source, filter, sort, limit, cursor));
+    }
 
-        // Ensure the user owns the gear before allowing updates
-        Account account = accountService.findByAuth0Id(auth0Id)
-                .orElseThrow(() -> new SecurityException("Account not found. Please login first."));
+    // Validates the request and asks for one extra row to learn whether another page exists
+    private PageRequest toGearPageRequest(GearFilter filter, GearSort sort, int limit, String cursor) {
+        if (filter.minWeight() != null && filter.maxWeight() != null && filter.minWeight() > filter.maxWeight())
+            throw new IllegalArgumentException("minWeight must not exceed maxWeight");
 
-        if (!existing.getOwnerId().equals(account.getId())) {
-            throw new SecurityException("You do not own this gear");
-        }
+        PageRequest page = PageCursor.decode(cursor, sort.name(), limit);
+        if (sort.isByWeight() && !page.isFirstPage() && !page.afterKey().matches("-?\\d{1,9}"))
+            throw new IllegalArgumentException("Invalid page cursor");
+        return new PageRequest(limit + 1, page.afterKey(), page.afterId());
+    }
+
+    private PageResponse<Gear> toGearPage(List<Gear> rows, GearSort sort, int limit) {
+        if (rows.size() <= limit)
+            return new PageResponse<>(rows, null);
+
+        List<Gear> items = rows.subList(0, limit);
+        Gear last = items.get(limit - 1);
+        String key = sort.isByWeight()
+                ? String.valueOf(last.getWeightGrams() == null ? 0 : last.getWeightGrams())
+                : last.getName();
+        return new PageResponse<>(items, PageCursor.encode(sort.name(), key, last.getId()));
+    }
 
-        // Only update fields that are allowed to be changed
-        existing.setName(updatedGear.getName());
-        existing.setBrand(updatedGear.getBrand());
-        existing.setWeightGrams(updatedGear.getWeightGrams());
-        existing.setWebsiteURL(updatedGear.getWebsiteURL());
-        existing.setCategory(updatedGear.getCategory());
+    @Transactional
+    public List<Gear> searchMyGear(String auth0Id, String query, int limit) {
+        return accountService.findByAuth0Id(auth0Id)
+                .map(account -> gearRepository.search(account.getId(), query, searchSimilarityThreshold, limit))
+                .orElse(List.of());
+    }
 
-        gearRepository.update(existing);
-        return existing;
+    // The only by-id gear read: contents come from one joined query per container and the add/batch flows
+    // check gear ownership inside their write statements, so no request makes more than one gear lookup
+    public Uni<Optional<Gear>> getGearByIdAsync(Long id) {
+        return readExecution.select(
+                () -> reactiveGearRepository.findById(id),
+                () -> gearRepository.findById(id));
+    }
+
+    @Transactional
+    public Gear updateGear(Long id, Gear updatedGear, String auth0Id) {
+        updatedGear.setId(id);
+        requireApplied(gearRepository.update(updatedGear, auth0Id));
+        changeNotifier.gearChanged(auth0Id, id);
+        return updatedGear;
+    }
+
+    private void requireApplied(WriteResult result) {
+        switch (result) {
+            case APPLIED -> { }
+            case ACCOUNT_NOT_FOUND -> throw new IllegalArgumentException("Account not found. Please login first.");
+            case NOT_FOUND -> throw new EntityNotFoundException("Gear not found");
+            case FORBIDDEN -> throw new SecurityException("You do not own this gear");
+            default -> throw new IllegalStateException("Unexpected gear write result: " + result);
+        }
     }
 }
@@ -1,19 +1,41 @@
 package com.packtrace.service;
 
+import com.packtrace.dto.PackGearOperation;
 import com.packtrace.dto.PackGearResponse;
-import com.packtrace.mapper.PackMapper;
+import com.packtrace.dto.PackSummaryResponse;
+import com.packtrace.dto.PackWeightResponse;
+import com.packtrace.dto.PageResponse;
+import com.packtrace.exception.ConflictException;
+import com.packtrace.exception.EntityNotFoundException;
 import com.packtrace.model.Account;
 import com.packtrace.model.Gear;
 import com.packtrace.model.Pack;
-import com.packtrace.model.PackGear;
+import com.packtrace.repository.DataSourceRouter;
+import com.packtrace.repository.DataSourceRouter.ReadSource;
 import com.packtrace.repository.PackRepository;
+import com.packtrace.repository.PackCategoryTotal;
 import com.packtrace.repository.PackGearRepository;
+import com.packtrace.repository.PackTotalsRepository;
+import com.packtrace.repository.PageRequest;
+import com.packtrace.repository.ReactivePackGearRepository;
+import com.packtrace.repository.ReactivePackRepository;
+import com.packtrace.repository.WriteResult;
+import io.smallrye.mutiny.Uni;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
+
+import java.util.LinkedHashMap;
+import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 @ApplicationScoped
 public class PackService {
@@ -24,45 +46,89 @@ public class PackService {
     @Inject
     PackGearRepository packGearRepository;
 
+    @Inject
+    ReactivePackRepository reactivePackRepository;
+
+    @Inject
+    ReactivePackGearRepository reactivePackGearRepository;
+
+    @Inject
+    ReadExecution readExecution;
+
+    @Inject
+    DataSourceRouter dataSourceRouter;
+
     @Inject
     AccountService accountService;
 
     @Inject
     GearService gearService;
 
+    @Inject
+    ChangeNotifier changeNotifier;
+
+    @Inject
+    PackTotalsRepository packTotalsRepository;
+
+    // Categories excluded from base weight (compared case-insensitively)
+    @ConfigProperty(name = "packtrace.pack-summary.non-base-categories", defaultValue = "consumables,food,water,fuel,worn")
+    Set<String> nonBaseCategories;
+
     @Transactional
     public Pack createPack(String auth0Id, Pack pack) {
-        Account account = accountService.findByAuth0Id(auth0Id)
-                .orElseThrow(() -> new IllegalArgumentException("Account not found. Please login first."));
-        
-        if (packRepository.existsByAccountIdAndName(account.getId(), pack.getName())) {
-            throw new IllegalArgumentException("Pack with this name already exists");
-        }
-        
-        pack.setAccountId(account.getId());
-        packRepository.persist(pack);
+        requireApplied(packRepository.persist(pack, auth0Id));
+        changeNotifier.packChanged(auth0Id, pack.getId());
         return pack;
     }
 
     @Transactional
     public void deletePack(Long id, String auth0Id) {
-        Optional<Pack> existingOpt = packRepository.findById(id);
-        if (existingOpt.isPresent()) {
-            Pack existing = existingOpt.get();
-            Account account = accountService.findByAuth0Id(auth0Id)
-                    .orElseThrow(() -> new SecurityException("Account not found."));
-
-            if (!existing.getAccountId().equals(account.getId())) {
-                throw new SecurityException("You do not own this pack");
-            }
-            packRepository.deleteById(id);
+        // Deleting a pack that no longer exists is a no-op
+        WriteResult result = packRepository.deleteById(id, auth0Id);
+        if (result != WriteResult.NOT_FOUND) {
+            requireApplied(result);
+            changeNotifier.packDeleted(auth0Id, id);
         }
     }
 
-    public List<Pack> getMyPacks(String auth0Id) {
+    public PageResponse<Pack> getMyPacksPage(String auth0Id, int limit, String cursor) {
         return accountService.findByAuth0Id(auth0Id)
-                .map(account -> packRepository.findByAccountId(account.getId()))
-                .orElse(List.of());
+                .map(account -> getPacksPage(account.getId(), auth0Id, limit, cursor))
+                .orElse(new PageResponse<>(List.<Pack>of(), null));
+    }
+
+    // For callers that already resolved the account; auth0Id only drives replica routing
+    public PageResponse<Pack> getPacksPage(UUID accountId, String auth0Id, int limit, String cursor) {
+        PageRequest page = toPackPageRequest(limit, cursor);
+        return toPackPage(dataSourceRouter.read(auth0Id, () -> packRepository.findByAccountId(accountId, page)), limit);
+    }
+
+    public Uni<PageResponse<Pack>> getMyPacksPageAsync(String auth0Id, int limit, String cursor) {
+        return readExecution.select(
+                () -> {
+                    PageRequest page = toPackPageRequest(limit, cursor);
+                    return accountService.findByAuth0IdAsync(auth0Id)
+                            .chain(account -> account
+                                    .map(found -> reactivePackRepository.findByAccountId(found.getId(), page)
+                                            .map(rows -> toPackPage(rows, limit)))
+                                    .orElse(Uni.createFrom().item(new PageResponse<Pack>(List.of(), null))));
+                },
+                () -> getMyPacksPage(auth0Id, limit, cursor));
+    }
+
+    // Asks for one extra row to learn whether another page exists
+    private PageRequest toPackPageRequest(int limit, String cursor) {
+        PageRequest page = PageCursor.decode(cursor, "name", limit);
+        return new PageRequest(limit + 1, page.afterKey(), page.afterId());
+    }
+
+    private PageResponse<Pack> toPackPage(List<Pack> rows, int limit) {
+        if (rows.size() <= limit)
+            return new PageResponse<>(rows, null);
+
+        List<Pack> items = rows.subList(0, limit);
+        Pack last = items.get(limit - 1);
+        return new PageResponse<>(items, PageCursor.encode("name", last.getName(), last.getId()));
     }
 
     public Optional<Pack> getPackById(Long id, String auth0Id) {
@@ -82,126 +148,149 @@ public class PackService {
         return Optional.of(pack);
     }
 
+    public Uni<Optional<Pack>> getPackByIdAsync(Long id, String auth0Id) {
+        return readExecution.select(
+                // Both lookups are independent, so the pg client pipelines them on one connection
+                () -> Uni.combine().all()
+                        .unis(reactivePackRepository.findById(id), accountService.findByAuth0IdAsync(auth0Id))
+                        .with((packOpt, account) -> {
+                            packOpt.ifPresent(pack -> {
+                                if (account.isEmpty() || !pack.getAccountId().equals(account.get().getId()))
+                                    throw new SecurityException("You do not own this pack");
+                            });
+                            return packOpt;
+                        }),
+                () -> getPackById(id, auth0Id));
+    }
+
     @Transactional
     public Pack updatePack(Long id, Pack updatedPack, String auth0Id) {
-        Optional<Pack> existingOpt = packRepository.findById(id);
-        if (existingOpt.isEmpty()) {
-            throw new IllegalArgumentException("Pack not found");
-        }
-
-        Pack existing = existingOpt.get();
-
-        Account account = accountService.findByAuth0Id(auth0Id)
-                .orElseThrow(() -> new SecurityException("Account not found."));
-
-        if (!existing.getAccountId().equals(account.getId())) {
-            throw new SecurityException("You do not own this pack");
-        }
-
-        // Check for name conflict with other packs
-        if (!existing.getName().equals(updatedPack.getName()) && 
-            packRepository.existsByAccountIdAndName(account.getId(), updatedPack.getName())) {
-            throw new IllegalArgumentException("Pack with this name already exists");
-        }
-
-        existing.setName(updatedPack.getName());
-        existing.setDescription(updatedPack.getDescription());
-
-        packRepository.update(existing);
-        return existing;
+        updatedPack.setId(id);
+        requireApplied(packRepository.update(updatedPack, auth0Id));
+        changeNotifier.packChanged(auth0Id, id);
+        return updatedPack;
     }
 
     @Transactional
     public void addGearToPack(Long packId, Long gearId, int quantity, String auth0Id) {
-        Pack pack = packRepository.findById(packId)
-                .orElseThrow(() -> new IllegalArgumentException("Pack not found"));
-        
-        Account account = accountService.findByAuth0Id(auth0Id)
-                .orElseThrow(() -> new SecurityException("Account not found."));
-        
-        if (!pack.getAccountId().equals(account.getId())) {
-            throw new SecurityException("You do not own this pack");
-        }
-
-        Gear gear = gearService.getGearById(gearId)
-                .orElseThrow(() -> new IllegalArgumentException("Gear not found"));
-        
-        if (!gear.getOwnerId().equals(account.getId())) {
-            throw new SecurityException("You do not own this gear");
-        }
-
-        packGearRepository.addGearToPack(packId, gearId, quantity);
+        requireApplied(packGearRepository.addGearToPack(packId, gearId, quantity, auth0Id));
+        changeNotifier.packChanged(auth0Id, packId);
     }
 
     @Transactional
     public void removeGearFromPack(Long packId, Long gearId, String auth0Id) {
-        Pack pack = packRepository.findById(packId)
-                .orElseThrow(() -> new IllegalArgumentException("Pack not found"));
-        
-        Account account = accountService.findByAuth0Id(auth0Id)
-                .orElseThrow(() -> new SecurityException("Account not found"));
-        
-        if (!pack.getAccountId().equals(account.getId())) {
-            throw new SecurityException("You do not own this pack");
+        // Removing gear that is not in the pack is a no-op
+        WriteResult result = packGearRepository.removeGearFromPack(packId, gearId, auth0Id);
+        if (result != WriteResult.NOT_IN_CONTAINER) {
+            requireApplied(result);
+            changeNotifier.packChanged(auth0Id, packId);
         }
+    }
 
-        packGearRepository.removeGearFromPack(packId, gearId);
+    public List<PackGearResponse> getPackGear(Long packId, String auth0Id) {
+        return getPackGear(packId, dataSourceRouter.chooseSource(auth0Id));
     }
 
-    public List<PackGearResponse> getPackGear(Long packId) {
-        List<PackGear> packGears = packGearRepository.findGearInPack(packId);
-        return packGears.stream()
-                .map(packGear -> {
-                    Gear gear = gearService.getGearById(packGear.getGearId())
-                            .orElse(null);
-                    return PackMapper.toGearResponse(packGear, gear);
-                })
-                .filter(response -> response != null)
-                .toList();
+    public List<PackGearResponse> getPackGear(Long packId, ReadSource source) {
+        return dataSourceRouter.read(source, () -> packGearRepository.findGearResponsesInPack(packId));
     }
 
-    @Transactional
-    public Gear createGearAndAddToPack(Long packId, Gear gear, int quantity, String auth0Id) {
-        // Verify pack ownership
-        Pack pack = packRepository.findById(packId)
-                .orElseThrow(() -> new IllegalArgumentException("Pack not found"));
+    // Callers tagging the result pass the source they read the pack's version from
+    public Uni<List<PackGearResponse>> getPackGearAsync(Long packId, ReadSource source) {
+        return readExecution.select(
+                () -> reactivePackGearRepository.findGearResponsesInPack(packId),
+                () -> getPackGear(packId, source));
+    }
 
-        Account account = accountService.findByAuth0Id(auth0Id)
-                .orElseThrow(() -> new SecurityException("Account not found."));
+    public Optional<PackSummaryResponse> getPackSummary(Long packId, String auth0Id) {
+        // Totals are kept current by triggers on pack_gear and gear, so this reads one row per category
+        return getPackById(packId, auth0Id).map(pack -> {
+            Set<String> excluded = nonBaseCategories.stream()
+                    .map(category -> category.trim().toLowerCase(Locale.ROOT))
+                    .collect(Collectors.toSet());
+
+            long totalGrams = 0;
+            long baseGrams = 0;
+            long itemCount = 0;
+            Map<String, Long> categoryGrams = new LinkedHashMap<>();
+            for (PackCategoryTotal total : packTotalsRepository.findCategoryTotals(packId)) {
+                totalGrams += total.grams();
+                itemCount += total.itemCount();
+                if (!excluded.contains(total.category().toLowerCase(Locale.ROOT)))
+                    baseGrams += total.grams();
+                String category = total.category().isEmpty() ? "Uncategorized" : total.category();
+                categoryGrams.merge(category, total.grams(), Long::sum);
+            }
+            return new PackSummaryResponse(packId, totalGrams, baseGrams, itemCount, categoryGrams);
+        });
+    }
 
-        if (!pack.getAccountId().equals(account.getId())) {
-            throw new SecurityException("You do not own this pack");
-        }
+    public List<PackWeightResponse> getPackWeights(UUID accountId, Collection<Long> packIds) {
+        return packTotalsRepository.findPackWeights(accountId, packIds);
+    }
 
-        // Create the gear
+    @Transactional
+    public Gear createGearAndAddToPack(Long packId, Gear gear, int quantity, String auth0Id) {
+        // Create the gear, then add it; the pack ownership check rolls the creation back on failure
         Gear createdGear = gearService.createGear(auth0Id, gear);
-
-        // Add it to the pack
-        packGearRepository.addGearToPack(packId, createdGear.getId(), quantity);
-
+        requireApplied(packGearRepository.addGearToPack(packId, createdGear.getId(), quantity, auth0Id));
+        changeNotifier.packChanged(auth0Id, packId);
         return createdGear;
     }
 
     @Transactional
     public void updatePackGearQuantity(Long packId, Long gearId, int quantity, String auth0Id) {
-        Pack pack = packRepository.findById(packId)
-                .orElseThrow(() -> new IllegalArgumentException("Pack not found"));
-        
-        Account account = accountService.findByAuth0Id(auth0Id)
-                .orElseThrow(() -> new SecurityException("Account not found"));
-        
-        if (!pack.getAccountId().equals(account.getId())) {
-            throw new SecurityException("You do not own this pack");
-        }
-
-        packGearRepository.getQuantity(packId, gearId)
-                .orElseThrow(() -> new IllegalArgumentException("Gear is not in this pack"));
-
         // If quantity is zero or negative, remove the gear from the pack
         if (quantity <= 0) {
-            packGearRepository.removeGearFromPack(packId, gearId);
+            requireApplied(packGearRepository.removeGearFromPack(packId, gearId, auth0Id));
         } else {
-            packGearRepository.updateQuantity(packId, gearId, quantity);
+            requireApplied(packGearRepository.updateQuantity(packId, gearId, quantity, auth0Id));
+        }
+        changeNotifier.packChanged(auth0Id, packId);
+    }
+
+    @Transactional
+    public List<PackGearResponse> applyGearOperations(Long packId, List<PackGearOperation> operations, String auth0Id) {
+        // One statement checks and locks the pack and verifies every added gear item
+        List<Long> addedGearIds = operations.stream()
+                .filter(operation -> operation.type() == PackGearOperation.Type.ADD)
+                .map(PackGearOperation::gearId)
+                .distinct()
+                .toList();
+        requireApplied(packGearRepository.lockForEdit(packId, addedGearIds, auth0Id));
+
+        // A quantity of zero removes the gear, matching updatePackGearQuantity
+        List<PackGearOperation> normalized = operations.stream()
+                .map(operation -> {
+                    if (operation.type() == PackGearOperation.Type.ADD && operation.quantity() < 1) {
+                        throw new IllegalArgumentException("Quantity must be at least 1");
+                    }
+                    if (operation.type() == PackGearOperation.Type.SET_QUANTITY && operation.quantity() == 0) {
+                        return new PackGearOperation(PackGearOperation.Type.REMOVE, operation.gearId(), 0);
+                    }
+                    return operation;
+                })
+                .toList();
+
+        List<Long> missingGearIds = packGearRepository.applyOperations(packId, normalized);
+        if (!missingGearIds.isEmpty()) {
+            throw new IllegalArgumentException("Gear is not in this pack: " + missingGearIds);
+        }
+        changeNotifier.packChanged(auth0Id, packId);
+
+        return packGearRepository.findGearResponsesInPack(packId);
+    }
+
+    private void requireApplied(WriteResult result) {
+        switch (result) {
+            case APPLIED -> { }
+            case ACCOUNT_NOT_FOUND -> throw new IllegalArgumentException("Account not found. Please login first.");
+            case NOT_FOUND -> throw new EntityNotFoundException("Pack not found");
+            case FORBIDDEN -> throw new SecurityException("You do not own this pack");
+            case CONFLICT -> throw new ConflictException("Pack with this name already exists");
+            case GEAR_NOT_FOUND -> throw new EntityNotFoundException("Gear not found");
+            case GEAR_FORBIDDEN -> throw new SecurityException("You do not own this gear");
+            case NOT_IN_CONTAINER -> throw new IllegalArgumentException("Gear is not in this pack");
         }
     }
 }
@@ -0,0 +1,43 @@
+package com.packtrace.service;
+
+import com.packtrace.repository.PackTotalsRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.util.List;
+
+/**
+ * Periodically compares the trigger-maintained pack totals against pack_gear and rebuilds any pack that drifted.
+ */
+@ApplicationScoped
+public class PackTotalsReconciler {
+
+    private static final Logger LOG = Logger.getLogger(PackTotalsReconciler.class);
+
+    @Inject
+    PackTotalsRepository packTotalsRepository;
+
+    @ConfigProperty(name = "packtrace.pack-totals.reconcile-batch-size", defaultValue = "500")
+    int batchSize;
+
+    @Scheduled(every = "${packtrace.pack-totals.reconcile-interval}", delayed = "1m",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void scheduledReconcile() {
+        int repaired = reconcile();
+        if (repaired > 0)
+            LOG.warnf("Repaired drifted weight totals for %d pack(s)", repaired);
+    }
+
+    public int reconcile() {
+        List<Long> driftedPackIds = packTotalsRepository.findDriftedPackIds(batchSize);
+        for (Long packId : driftedPackIds) {
+            // One short transaction per pack so writers to other packs are never blocked
+            QuarkusTransaction.requiringNew().run(() -> packTotalsRepository.rebuild(packId));
+        }
+        return driftedPackIds.size();
+    }
+}
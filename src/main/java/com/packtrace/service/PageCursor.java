@@ -0,0 +1,36 @@
+package com.packtrace.service;
+
+import com.packtrace.repository.PageRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor: the sort it was issued for plus the last row's sort key and id.
+ */
+public final class PageCursor {
+
+    private PageCursor() {
+    }
+
+    public static String encode(String sort, String key, long id) {
+        String raw = id + ":" + sort + ":" + key;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PageRequest decode(String cursor, String sort, int limit) {
+        if (cursor == null || cursor.isBlank())
+            return new PageRequest(limit, null, null);
+
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", 3);
+            if (parts.length != 3 || !parts[1].equals(sort))
+                throw new IllegalArgumentException("Cursor does not match the requested sort");
+            return new PageRequest(limit, parts[2], Long.parseLong(parts[0]));
+        } catch (IllegalArgumentException e) {
+            // Also covers malformed base64 and NumberFormatException
+            throw new IllegalArgumentException("Invalid page cursor", e);
+        }
+    }
+}
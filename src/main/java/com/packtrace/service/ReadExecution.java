@@ -0,0 +1,55 @@
+package com.packtrace.service;
+
+import com.packtrace.concurrency.AdmissionGate;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.ServiceUnavailableException;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.function.Supplier;
+
+/**
+ * Chooses how the Uni-returning read paths reach the database: the reactive pg client when
+ * packtrace.repository.reactive is set, otherwise the JDBC repositories offloaded to the worker pool.
+ * Writes always go through JDBC so they keep their JTA transactions.
+ */
+@ApplicationScoped
+public class ReadExecution {
+
+    @Inject
+    AdmissionGate admissionGate;
+
+    @ConfigProperty(name = "packtrace.repository.reactive", defaultValue = "false")
+    boolean reactive;
+
+    public boolean isReactive() {
+        return reactive;
+    }
+
+    public <T> Uni<T> select(Supplier<Uni<T>> reactivePath, Supplier<T> jdbcPath) {
+        return reactive ? Uni.createFrom().<T>deferred(reactivePath::get) : blocking(jdbcPath);
+    }
+
+    public <T> Uni<T> blocking(Supplier<T> jdbcPath) {
+        // Request-scoped beans are not available on the worker thread; callers pass plain values in
+        return Uni.createFrom().item(() -> admitted(jdbcPath)).runSubscriptionOn(Infrastructure.getDefaultWorkerPool());
+    }
+
+    // Same pool admission as the blocking endpoints, which get it from @PoolAdmission
+    public <T> T admitted(Supplier<T> jdbcPath) {
+        try {
+            if (!admissionGate.tryAcquire())
+                throw new ServiceUnavailableException(1L);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException(1L);
+        }
+        try {
+            return jdbcPath.get();
+        } finally {
+            admissionGate.release();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.packtrace.service;
+
+import com.packtrace.dto.SyncResponse;
+import com.packtrace.exception.SyncTokenExpiredException;
+import com.packtrace.model.Account;
+import com.packtrace.repository.ChangeLogRepository;
+import com.packtrace.repository.ChangePage;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.util.List;
+
+@ApplicationScoped
+public class SyncService {
+
+    @Inject
+    ChangeLogRepository changeLogRepository;
+
+    @Inject
+    AccountService accountService;
+
+    public SyncResponse sync(String auth0Id, String since, int limit) {
+        Account account = accountService.findByAuth0Id(auth0Id)
+                .orElseThrow(() -> new SecurityException("Account not found"));
+
+        // Without a token the client loads its lists afterwards; anything written from here on is in the next sync
+        if (since == null || since.isBlank()) {
+            long xmin = changeLogRepository.currentSnapshotXmin();
+            return new SyncResponse(List.of(), new SyncToken(xmin, 0, xmin).encode(), false);
+        }
+
+        SyncToken token = SyncToken.decode(since);
+        if (token.floor() <= changeLogRepository.findPrunedThrough())
+            throw new SyncTokenExpiredException("Sync token has expired; reload all data");
+
+        // Log sequence is not commit order, so a pass reads everything from transactions at or above its floor
+        // and the next pass starts at the xmin taken before the first page, below which nothing is still running
+        long nextFloor = token.afterSeq() == 0 ? changeLogRepository.currentSnapshotXmin() : token.nextFloor();
+        ChangePage page = changeLogRepository.findChanges(account.getId(), token.floor(), token.afterSeq(), limit);
+        SyncToken next = page.hasMore()
+                ? new SyncToken(token.floor(), page.lastSeq(), nextFloor)
+                : new SyncToken(nextFloor, 0, nextFloor);
+        return new SyncResponse(page.changes(), next.encode(), page.hasMore());
+    }
+}
@@ -0,0 +1,29 @@
+package com.packtrace.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque sync position. A client has seen every change from transactions below {@code floor}; within the
+ * current pass it has also seen log rows up to {@code afterSeq}, and the next pass starts at {@code nextFloor}.
+ */
+public record SyncToken(long floor, long afterSeq, long nextFloor) {
+
+    public String encode() {
+        String raw = floor + ":" + afterSeq + ":" + nextFloor;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static SyncToken decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", 3);
+            if (parts.length != 3)
+                throw new IllegalArgumentException("Malformed sync token");
+            return new SyncToken(Long.parseLong(parts[0]), Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException e) {
+            // Also covers malformed base64 and NumberFormatException
+            throw new IllegalArgumentException("Invalid sync token", e);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+-- Base schema as assumed by the JDBC repositories. Existing databases that
+-- predate migrations are baselined at version 1 (see application.properties),
+-- so this script only runs against empty databases.
+
+CREATE TABLE IF NOT EXISTS account (
+    id       UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    auth0_id TEXT NOT NULL UNIQUE,
+    username TEXT NOT NULL UNIQUE,
+    bio      TEXT
+);
+
+CREATE TABLE IF NOT EXISTS gear (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    owner_id     UUID    NOT NULL REFERENCES account (id) ON DELETE CASCADE,
+    name         TEXT    NOT NULL,
+    brand        TEXT,
+    weight_grams INTEGER,
+    website_url  TEXT,
+    category     TEXT
+);
+
+CREATE TABLE IF NOT EXISTS pack (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    account_id  UUID NOT NULL REFERENCES account (id) ON DELETE CASCADE,
+    name        TEXT NOT NULL,
+    description TEXT,
+    UNIQUE (account_id, name)
+);
+
+CREATE TABLE IF NOT EXISTS closet (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    account_id  UUID NOT NULL REFERENCES account (id) ON DELETE CASCADE,
+    name        TEXT NOT NULL,
+    description TEXT,
+    UNIQUE (account_id, name)
+);
+
+CREATE TABLE IF NOT EXISTS pack_gear (
+    pack_id  BIGINT  NOT NULL REFERENCES pack (id) ON DELETE CASCADE,
+    gear_id  BIGINT  NOT NULL REFERENCES gear (id) ON DELETE CASCADE,
+    quantity INTEGER NOT NULL DEFAULT 1,
+    PRIMARY KEY (pack_id, gear_id)
+);
+
+CREATE TABLE IF NOT EXISTS closet_gear (
+    closet_id BIGINT  NOT NULL REFERENCES closet (id) ON DELETE CASCADE,
+    gear_id   BIGINT  NOT NULL REFERENCES gear (id) ON DELETE CASCADE,
+    quantity  INTEGER NOT NULL DEFAULT 1,
+    PRIMARY KEY (closet_id, gear_id)
+);
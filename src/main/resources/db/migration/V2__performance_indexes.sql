@@ -0,0 +1,22 @@
+-- Indexes the repository queries depend on. Databases that predate migrations
+-- are baselined at version 1 and never ran V1, so the unique keys it declares
+-- may be missing there; the ON CONFLICT clauses in the repositories cannot run
+-- without them. IF NOT EXISTS skips the ones V1 or a hand-made index created,
+-- and an index that cannot be built because of duplicate rows fails the
+-- migration rather than leaving the upserts broken.
+
+-- Unique keys behind the ON CONFLICT clauses (V1 declares the same)
+CREATE UNIQUE INDEX IF NOT EXISTS account_auth0_id_key ON account (auth0_id);
+CREATE UNIQUE INDEX IF NOT EXISTS account_username_key ON account (username);
+CREATE UNIQUE INDEX IF NOT EXISTS pack_account_id_name_key ON pack (account_id, name);
+CREATE UNIQUE INDEX IF NOT EXISTS closet_account_id_name_key ON closet (account_id, name);
+CREATE UNIQUE INDEX IF NOT EXISTS pack_gear_pkey ON pack_gear (pack_id, gear_id);
+CREATE UNIQUE INDEX IF NOT EXISTS closet_gear_pkey ON closet_gear (closet_id, gear_id);
+
+-- Gear listing by owner; the trailing columns serve the keyset pages for each sort
+CREATE INDEX IF NOT EXISTS gear_owner_name_idx ON gear (owner_id, name, id);
+CREATE INDEX IF NOT EXISTS gear_owner_weight_idx ON gear (owner_id, (coalesce(weight_grams, 0)), id);
+
+-- Reverse lookups: cascading gear deletes, gear totals triggers and membership checks
+CREATE INDEX IF NOT EXISTS pack_gear_gear_idx ON pack_gear (gear_id);
+CREATE INDEX IF NOT EXISTS closet_gear_gear_idx ON closet_gear (gear_id);
@@ -0,0 +1,133 @@
+-- Incrementally maintained pack weight totals.
+--
+-- pack_totals holds one row per pack and pack_category_totals one row per
+-- (pack, category). Triggers on pack_gear and gear apply deltas in the same
+-- transaction as the write, so every path that touches pack contents (single
+-- edits, batch edits, CSV import, cascading deletes) keeps them current.
+-- Grams are quantity * coalesce(weight_grams, 0); uncategorized gear uses ''.
+
+CREATE TABLE IF NOT EXISTS pack_totals (
+    pack_id     BIGINT PRIMARY KEY REFERENCES pack (id) ON DELETE CASCADE,
+    total_grams BIGINT NOT NULL DEFAULT 0,
+    item_count  BIGINT NOT NULL DEFAULT 0
+);
+
+CREATE TABLE IF NOT EXISTS pack_category_totals (
+    pack_id    BIGINT NOT NULL REFERENCES pack (id) ON DELETE CASCADE,
+    category   TEXT   NOT NULL,
+    grams      BIGINT NOT NULL DEFAULT 0,
+    item_count BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (pack_id, category)
+);
+
+-- Applies a delta to a pack's totals. The pack_totals upsert comes first so
+-- its row lock serializes concurrent writers (and the reconciler) per pack.
+CREATE OR REPLACE FUNCTION pack_totals_apply(p_pack_id BIGINT, p_category TEXT, p_grams BIGINT, p_items BIGINT)
+RETURNS VOID AS $$
+BEGIN
+    IF p_grams = 0 AND p_items = 0 THEN
+        RETURN;
+    END IF;
+    -- The pack itself is being deleted; its totals cascade away with it
+    IF NOT EXISTS (SELECT 1 FROM pack WHERE id = p_pack_id) THEN
+        RETURN;
+    END IF;
+
+    INSERT INTO pack_totals (pack_id, total_grams, item_count)
+    VALUES (p_pack_id, p_grams, p_items)
+    ON CONFLICT (pack_id) DO UPDATE
+        SET total_grams = pack_totals.total_grams + excluded.total_grams,
+            item_count = pack_totals.item_count + excluded.item_count;
+
+    INSERT INTO pack_category_totals (pack_id, category, grams, item_count)
+    VALUES (p_pack_id, p_category, p_grams, p_items)
+    ON CONFLICT (pack_id, category) DO UPDATE
+        SET grams = pack_category_totals.grams + excluded.grams,
+            item_count = pack_category_totals.item_count + excluded.item_count;
+
+    DELETE FROM pack_category_totals
+    WHERE pack_id = p_pack_id AND category = p_category AND item_count = 0;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION pack_gear_totals_trigger()
+RETURNS TRIGGER AS $$
+DECLARE
+    gear_weight   BIGINT;
+    gear_category TEXT;
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        SELECT coalesce(weight_grams, 0), coalesce(category, '')
+        INTO gear_weight, gear_category
+        FROM gear WHERE id = OLD.gear_id;
+        -- Not found when the gear is being deleted; gear_totals_trigger already removed it
+        IF FOUND THEN
+            PERFORM pack_totals_apply(OLD.pack_id, gear_category, -gear_weight * OLD.quantity, -OLD.quantity);
+        END IF;
+    END IF;
+
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        SELECT coalesce(weight_grams, 0), coalesce(category, '')
+        INTO gear_weight, gear_category
+        FROM gear WHERE id = NEW.gear_id;
+        IF FOUND THEN
+            PERFORM pack_totals_apply(NEW.pack_id, gear_category, gear_weight * NEW.quantity, NEW.quantity);
+        END IF;
+    END IF;
+
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION gear_totals_trigger()
+RETURNS TRIGGER AS $$
+DECLARE
+    membership RECORD;
+BEGIN
+    FOR membership IN SELECT pack_id, quantity FROM pack_gear WHERE gear_id = OLD.id LOOP
+        PERFORM pack_totals_apply(membership.pack_id, coalesce(OLD.category, ''),
+                                  -coalesce(OLD.weight_grams, 0) * membership.quantity, -membership.quantity);
+        IF TG_OP = 'UPDATE' THEN
+            PERFORM pack_totals_apply(membership.pack_id, coalesce(NEW.category, ''),
+                                      coalesce(NEW.weight_grams, 0) * membership.quantity, membership.quantity);
+        END IF;
+    END LOOP;
+
+    IF TG_OP = 'DELETE' THEN
+        RETURN OLD;
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS pack_gear_totals ON pack_gear;
+CREATE TRIGGER pack_gear_totals
+    AFTER INSERT OR UPDATE OR DELETE ON pack_gear
+    FOR EACH ROW EXECUTE FUNCTION pack_gear_totals_trigger();
+
+DROP TRIGGER IF EXISTS gear_totals_update ON gear;
+CREATE TRIGGER gear_totals_update
+    AFTER UPDATE OF weight_grams, category ON gear
+    FOR EACH ROW
+    WHEN (OLD.weight_grams IS DISTINCT FROM NEW.weight_grams OR OLD.category IS DISTINCT FROM NEW.category)
+    EXECUTE FUNCTION gear_totals_trigger();
+
+-- BEFORE so the gear row is still readable; the cascaded pack_gear deletes then find no gear and skip
+DROP TRIGGER IF EXISTS gear_totals_delete ON gear;
+CREATE TRIGGER gear_totals_delete
+    BEFORE DELETE ON gear
+    FOR EACH ROW EXECUTE FUNCTION gear_totals_trigger();
+
+-- Backfill existing packs
+INSERT INTO pack_category_totals (pack_id, category, grams, item_count)
+SELECT pg.pack_id, coalesce(g.category, ''), sum(pg.quantity * coalesce(g.weight_grams, 0)), sum(pg.quantity)
+FROM pack_gear pg
+JOIN gear g ON g.id = pg.gear_id
+GROUP BY pg.pack_id, coalesce(g.category, '')
+ON CONFLICT (pack_id, category) DO NOTHING;
+
+INSERT INTO pack_totals (pack_id, total_grams, item_count)
+SELECT pack_id, sum(grams), sum(item_count)
+FROM pack_category_totals
+GROUP BY pack_id
+ON CONFLICT (pack_id) DO NOTHING;
@@ -0,0 +1,16 @@
+-- Gear search: prefix and typo-tolerant matching over name, brand and category.
+--
+-- search_text is a stored, lower-cased concatenation of the searchable columns.
+-- The composite GIN index (btree_gin for owner_id, pg_trgm for search_text)
+-- narrows to the caller's gear and the trigram matches in a single index scan,
+-- serving both LIKE '%q%' and the word-similarity operator (<%).
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE EXTENSION IF NOT EXISTS btree_gin;
+
+ALTER TABLE gear
+    ADD COLUMN IF NOT EXISTS search_text TEXT
+    GENERATED ALWAYS AS (lower(coalesce(name, '') || ' ' || coalesce(brand, '') || ' ' || coalesce(category, ''))) STORED;
+
+CREATE INDEX IF NOT EXISTS gear_owner_search_idx
+    ON gear USING gin (owner_id, search_text gin_trgm_ops);
@@ -0,0 +1,19 @@
+-- Username suffix allocation for first-login account bootstrap.
+--
+-- username_counter holds the last suffix handed out per base name, so a new
+-- account claims "alex", then "alex-1", "alex-2", ... with one row update
+-- instead of scanning every existing "alex-%" username.
+
+CREATE TABLE IF NOT EXISTS username_counter (
+    base_name   TEXT PRIMARY KEY,
+    last_suffix INTEGER NOT NULL
+);
+
+-- Seed from existing accounts: "alex-7" advances "alex" to at least 7, a bare "alex" to at least 0
+INSERT INTO username_counter (base_name, last_suffix)
+SELECT coalesce(parts[1], a.username), max(coalesce(parts[2]::INTEGER, 0))
+FROM account a
+LEFT JOIN LATERAL regexp_match(a.username, '^(.+)-([0-9]{1,9})$') AS parts ON true
+GROUP BY coalesce(parts[1], a.username)
+ON CONFLICT (base_name) DO UPDATE
+    SET last_suffix = greatest(username_counter.last_suffix, excluded.last_suffix);
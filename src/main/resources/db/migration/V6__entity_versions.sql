@@ -0,0 +1,95 @@
+-- Version counters for conditional GETs.
+--
+-- pack.version and closet.version change whenever the container's contents
+-- (membership rows or any contained gear) change; account.gear_version changes
+-- whenever any of the account's gear changes. They only ever increase, so a
+-- strong ETag can be derived from them without reading the rows themselves.
+-- Statement-level triggers with transition tables bump each affected row once
+-- per statement, so bulk writes such as the CSV import stay cheap.
+
+ALTER TABLE pack ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE closet ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE account ADD COLUMN IF NOT EXISTS gear_version BIGINT NOT NULL DEFAULT 0;
+
+CREATE OR REPLACE FUNCTION pack_gear_version_trigger()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        UPDATE pack SET version = version + 1 WHERE id IN (SELECT DISTINCT pack_id FROM new_rows);
+    ELSE
+        UPDATE pack SET version = version + 1 WHERE id IN (SELECT DISTINCT pack_id FROM old_rows);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION closet_gear_version_trigger()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        UPDATE closet SET version = version + 1 WHERE id IN (SELECT DISTINCT closet_id FROM new_rows);
+    ELSE
+        UPDATE closet SET version = version + 1 WHERE id IN (SELECT DISTINCT closet_id FROM old_rows);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION gear_version_trigger()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        UPDATE account SET gear_version = gear_version + 1 WHERE id IN (SELECT DISTINCT owner_id FROM new_rows);
+    ELSE
+        UPDATE account SET gear_version = gear_version + 1 WHERE id IN (SELECT DISTINCT owner_id FROM old_rows);
+    END IF;
+
+    -- Container contents embed gear details; deletes reach containers through the membership cascade
+    IF TG_OP = 'UPDATE' THEN
+        UPDATE pack SET version = version + 1
+        WHERE id IN (SELECT DISTINCT pg.pack_id FROM pack_gear pg JOIN old_rows o ON o.id = pg.gear_id);
+        UPDATE closet SET version = version + 1
+        WHERE id IN (SELECT DISTINCT cg.closet_id FROM closet_gear cg JOIN old_rows o ON o.id = cg.gear_id);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS pack_gear_version_insert ON pack_gear;
+CREATE TRIGGER pack_gear_version_insert AFTER INSERT ON pack_gear
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION pack_gear_version_trigger();
+DROP TRIGGER IF EXISTS pack_gear_version_update ON pack_gear;
+CREATE TRIGGER pack_gear_version_update AFTER UPDATE ON pack_gear
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION pack_gear_version_trigger();
+DROP TRIGGER IF EXISTS pack_gear_version_delete ON pack_gear;
+CREATE TRIGGER pack_gear_version_delete AFTER DELETE ON pack_gear
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION pack_gear_version_trigger();
+
+DROP TRIGGER IF EXISTS closet_gear_version_insert ON closet_gear;
+CREATE TRIGGER closet_gear_version_insert AFTER INSERT ON closet_gear
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION closet_gear_version_trigger();
+DROP TRIGGER IF EXISTS closet_gear_version_update ON closet_gear;
+CREATE TRIGGER closet_gear_version_update AFTER UPDATE ON closet_gear
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION closet_gear_version_trigger();
+DROP TRIGGER IF EXISTS closet_gear_version_delete ON closet_gear;
+CREATE TRIGGER closet_gear_version_delete AFTER DELETE ON closet_gear
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION closet_gear_version_trigger();
+
+DROP TRIGGER IF EXISTS gear_version_insert ON gear;
+CREATE TRIGGER gear_version_insert AFTER INSERT ON gear
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION gear_version_trigger();
+DROP TRIGGER IF EXISTS gear_version_update ON gear;
+CREATE TRIGGER gear_version_update AFTER UPDATE ON gear
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION gear_version_trigger();
+DROP TRIGGER IF EXISTS gear_version_delete ON gear;
+CREATE TRIGGER gear_version_delete AFTER DELETE ON gear
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION gear_version_trigger();
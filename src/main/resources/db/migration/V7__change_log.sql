@@ -0,0 +1,166 @@
+-- Change log for delta sync (GET /sync).
+--
+-- Statement-level triggers append one row per created, updated or deleted
+-- pack, closet, gear or membership row, in the same transaction as the write.
+-- seq orders the log, but sequence values are handed out before commit, so
+-- sync tokens are based on xact_id (the 64-bit transaction id) and the
+-- snapshot xmin instead: every transaction below a snapshot's xmin has
+-- finished, so a client that has read everything from xact_id >= previous
+-- xmin can never miss a late commit. Rows are idempotent upserts or
+-- tombstones, so re-delivering a few is harmless.
+
+CREATE TABLE IF NOT EXISTS change_log (
+    seq         BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    xact_id     BIGINT      NOT NULL DEFAULT pg_current_xact_id()::TEXT::BIGINT,
+    account_id  UUID        NOT NULL,
+    entity_type TEXT        NOT NULL,
+    entity_id   BIGINT      NOT NULL,
+    -- gear id for pack_gear/closet_gear rows, 0 otherwise
+    member_id   BIGINT      NOT NULL DEFAULT 0,
+    deleted     BOOLEAN     NOT NULL,
+    changed_at  TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS change_log_account_seq_idx ON change_log (account_id, seq);
+CREATE INDEX IF NOT EXISTS change_log_changed_at_idx ON change_log (changed_at);
+
+-- Highest xact_id removed by pruning; tokens at or below it can no longer be served
+CREATE TABLE IF NOT EXISTS change_log_watermark (
+    id             INTEGER PRIMARY KEY CHECK (id = 1),
+    pruned_through BIGINT NOT NULL
+);
+INSERT INTO change_log_watermark (id, pruned_through) VALUES (1, 0) ON CONFLICT (id) DO NOTHING;
+
+CREATE OR REPLACE FUNCTION container_change_log_trigger()
+RETURNS TRIGGER AS $$
+BEGIN
+    -- TG_ARGV[0] is the entity type ('pack' or 'closet'); both tables share their shape
+    IF TG_OP = 'DELETE' THEN
+        INSERT INTO change_log (account_id, entity_type, entity_id, deleted)
+        SELECT account_id, TG_ARGV[0], id, true FROM old_rows;
+    ELSIF TG_OP = 'UPDATE' THEN
+        -- Skip updates that only bump the contents version (V6); memberships are logged on their own
+        INSERT INTO change_log (account_id, entity_type, entity_id, deleted)
+        SELECT n.account_id, TG_ARGV[0], n.id, false
+        FROM new_rows n JOIN old_rows o ON o.id = n.id
+        WHERE (n.name, n.description) IS DISTINCT FROM (o.name, o.description);
+    ELSE
+        INSERT INTO change_log (account_id, entity_type, entity_id, deleted)
+        SELECT account_id, TG_ARGV[0], id, false FROM new_rows;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION gear_change_log_trigger()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        INSERT INTO change_log (account_id, entity_type, entity_id, deleted)
+        SELECT owner_id, 'gear', id, true FROM old_rows;
+    ELSE
+        INSERT INTO change_log (account_id, entity_type, entity_id, deleted)
+        SELECT owner_id, 'gear', id, false FROM new_rows;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Memberships are attributed through their container. When the container itself is
+-- being deleted it is already gone here, and its tombstone covers the memberships.
+CREATE OR REPLACE FUNCTION pack_gear_change_log_trigger()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        INSERT INTO change_log (account_id, entity_type, entity_id, member_id, deleted)
+        SELECT p.account_id, 'pack_gear', o.pack_id, o.gear_id, true
+        FROM old_rows o JOIN pack p ON p.id = o.pack_id;
+    ELSE
+        INSERT INTO change_log (account_id, entity_type, entity_id, member_id, deleted)
+        SELECT p.account_id, 'pack_gear', n.pack_id, n.gear_id, false
+        FROM new_rows n JOIN pack p ON p.id = n.pack_id;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION closet_gear_change_log_trigger()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        INSERT INTO change_log (account_id, entity_type, entity_id, member_id, deleted)
+        SELECT c.account_id, 'closet_gear', o.closet_id, o.gear_id, true
+        FROM old_rows o JOIN closet c ON c.id = o.closet_id;
+    ELSE
+        INSERT INTO change_log (account_id, entity_type, entity_id, member_id, deleted)
+        SELECT c.account_id, 'closet_gear', n.closet_id, n.gear_id, false
+        FROM new_rows n JOIN closet c ON c.id = n.closet_id;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS pack_change_log_insert ON pack;
+CREATE TRIGGER pack_change_log_insert AFTER INSERT ON pack
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION container_change_log_trigger('pack');
+DROP TRIGGER IF EXISTS pack_change_log_update ON pack;
+CREATE TRIGGER pack_change_log_update AFTER UPDATE ON pack
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION container_change_log_trigger('pack');
+DROP TRIGGER IF EXISTS pack_change_log_delete ON pack;
+CREATE TRIGGER pack_change_log_delete AFTER DELETE ON pack
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION container_change_log_trigger('pack');
+
+DROP TRIGGER IF EXISTS closet_change_log_insert ON closet;
+CREATE TRIGGER closet_change_log_insert AFTER INSERT ON closet
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION container_change_log_trigger('closet');
+DROP TRIGGER IF EXISTS closet_change_log_update ON closet;
+CREATE TRIGGER closet_change_log_update AFTER UPDATE ON closet
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION container_change_log_trigger('closet');
+DROP TRIGGER IF EXISTS closet_change_log_delete ON closet;
+CREATE TRIGGER closet_change_log_delete AFTER DELETE ON closet
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION container_change_log_trigger('closet');
+
+DROP TRIGGER IF EXISTS gear_change_log_insert ON gear;
+CREATE TRIGGER gear_change_log_insert AFTER INSERT ON gear
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION gear_change_log_trigger();
+DROP TRIGGER IF EXISTS gear_change_log_update ON gear;
+CREATE TRIGGER gear_change_log_update AFTER UPDATE ON gear
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION gear_change_log_trigger();
+DROP TRIGGER IF EXISTS gear_change_log_delete ON gear;
+CREATE TRIGGER gear_change_log_delete AFTER DELETE ON gear
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION gear_change_log_trigger();
+
+DROP TRIGGER IF EXISTS pack_gear_change_log_insert ON pack_gear;
+CREATE TRIGGER pack_gear_change_log_insert AFTER INSERT ON pack_gear
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION pack_gear_change_log_trigger();
+DROP TRIGGER IF EXISTS pack_gear_change_log_update ON pack_gear;
+CREATE TRIGGER pack_gear_change_log_update AFTER UPDATE ON pack_gear
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION pack_gear_change_log_trigger();
+DROP TRIGGER IF EXISTS pack_gear_change_log_delete ON pack_gear;
+CREATE TRIGGER pack_gear_change_log_delete AFTER DELETE ON pack_gear
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION pack_gear_change_log_trigger();
+
+DROP TRIGGER IF EXISTS closet_gear_change_log_insert ON closet_gear;
+CREATE TRIGGER closet_gear_change_log_insert AFTER INSERT ON closet_gear
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION closet_gear_change_log_trigger();
+DROP TRIGGER IF EXISTS closet_gear_change_log_update ON closet_gear;
+CREATE TRIGGER closet_gear_change_log_update AFTER UPDATE ON closet_gear
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION closet_gear_change_log_trigger();
+DROP TRIGGER IF EXISTS closet_gear_change_log_delete ON closet_gear;
+CREATE TRIGGER closet_gear_change_log_delete AFTER DELETE ON closet_gear
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION closet_gear_change_log_trigger();
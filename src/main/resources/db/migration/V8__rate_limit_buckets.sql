@@ -0,0 +1,54 @@
+-- Shared token buckets for cluster-wide rate limiting (packtrace.rate-limit.distributed=true).
+--
+-- Instances reserve tokens in batches through rate_limit_take and spend them locally, so the
+-- database sees one call per batch rather than one per request. A reservation is all-or-nothing
+-- for the tokens the request needs, so the cluster can never admit more than the bucket holds.
+
+CREATE TABLE IF NOT EXISTS rate_limit_bucket (
+    bucket_key   TEXT PRIMARY KEY,
+    tokens       BIGINT      NOT NULL,
+    refilled_at  TIMESTAMPTZ NOT NULL,
+    last_used_at TIMESTAMPTZ NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS rate_limit_bucket_last_used_idx ON rate_limit_bucket (last_used_at);
+
+-- Takes between p_min and p_wanted tokens, or none if fewer than p_min are available.
+-- Refill matches Bucket4j's intervally refill: the full capacity returns once per elapsed period.
+CREATE OR REPLACE FUNCTION rate_limit_take(p_key TEXT, p_capacity BIGINT, p_period_millis BIGINT,
+                                           p_min BIGINT, p_wanted BIGINT)
+RETURNS BIGINT AS $$
+DECLARE
+    v_now         TIMESTAMPTZ := clock_timestamp();
+    v_period      INTERVAL := p_period_millis * INTERVAL '1 millisecond';
+    v_tokens      BIGINT;
+    v_refilled_at TIMESTAMPTZ;
+    v_periods     BIGINT;
+    v_granted     BIGINT := 0;
+BEGIN
+    INSERT INTO rate_limit_bucket (bucket_key, tokens, refilled_at, last_used_at)
+    VALUES (p_key, p_capacity, v_now, v_now)
+    ON CONFLICT (bucket_key) DO NOTHING;
+
+    SELECT tokens, refilled_at INTO v_tokens, v_refilled_at
+    FROM rate_limit_bucket
+    WHERE bucket_key = p_key
+    FOR UPDATE;
+
+    v_periods := floor(extract(EPOCH FROM v_now - v_refilled_at) * 1000 / p_period_millis);
+    IF v_periods > 0 THEN
+        v_tokens := least(p_capacity, v_tokens + v_periods * p_capacity);
+        v_refilled_at := v_refilled_at + v_periods * v_period;
+    END IF;
+
+    IF v_tokens >= p_min THEN
+        v_granted := least(p_wanted, v_tokens);
+    END IF;
+
+    UPDATE rate_limit_bucket
+    SET tokens = v_tokens - v_granted, refilled_at = v_refilled_at, last_used_at = v_now
+    WHERE bucket_key = p_key;
+
+    RETURN v_granted;
+END;
+$$ LANGUAGE plpgsql;
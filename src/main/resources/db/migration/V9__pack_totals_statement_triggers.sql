@@ -0,0 +1,60 @@
+-- Applies pack_gear changes to pack totals once per statement instead of once per row.
+--
+-- The row-level trigger from V3 updated a pack's pack_totals row once for every
+-- membership row, so adding 10,000 imported items to one pack rewrote the same
+-- row 10,000 times in one transaction. The statement-level triggers below sum
+-- the transition tables per (pack, category) and apply each sum once, in pack
+-- order so concurrent statements take the pack_totals row locks consistently.
+-- Deltas keep V3's semantics: gear that is already gone (a cascading gear
+-- delete, handled by gear_totals_trigger) contributes nothing.
+
+CREATE OR REPLACE FUNCTION pack_gear_totals_statement_trigger()
+RETURNS TRIGGER AS $$
+DECLARE
+    delta RECORD;
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        FOR delta IN
+            SELECT o.pack_id, coalesce(g.category, '') AS category,
+                   sum(coalesce(g.weight_grams, 0) * o.quantity) AS grams, sum(o.quantity) AS items
+            FROM old_rows o
+            JOIN gear g ON g.id = o.gear_id
+            GROUP BY o.pack_id, coalesce(g.category, '')
+            ORDER BY o.pack_id, coalesce(g.category, '')
+        LOOP
+            PERFORM pack_totals_apply(delta.pack_id, delta.category, -delta.grams, -delta.items);
+        END LOOP;
+    END IF;
+
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        FOR delta IN
+            SELECT n.pack_id, coalesce(g.category, '') AS category,
+                   sum(coalesce(g.weight_grams, 0) * n.quantity) AS grams, sum(n.quantity) AS items
+            FROM new_rows n
+            JOIN gear g ON g.id = n.gear_id
+            GROUP BY n.pack_id, coalesce(g.category, '')
+            ORDER BY n.pack_id, coalesce(g.category, '')
+        LOOP
+            PERFORM pack_totals_apply(delta.pack_id, delta.category, delta.grams, delta.items);
+        END LOOP;
+    END IF;
+
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS pack_gear_totals ON pack_gear;
+DROP FUNCTION IF EXISTS pack_gear_totals_trigger();
+
+DROP TRIGGER IF EXISTS pack_gear_totals_insert ON pack_gear;
+CREATE TRIGGER pack_gear_totals_insert AFTER INSERT ON pack_gear
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION pack_gear_totals_statement_trigger();
+DROP TRIGGER IF EXISTS pack_gear_totals_update ON pack_gear;
+CREATE TRIGGER pack_gear_totals_update AFTER UPDATE ON pack_gear
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION pack_gear_totals_statement_trigger();
+DROP TRIGGER IF EXISTS pack_gear_totals_delete ON pack_gear;
+CREATE TRIGGER pack_gear_totals_delete AFTER DELETE ON pack_gear
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION pack_gear_totals_statement_trigger();
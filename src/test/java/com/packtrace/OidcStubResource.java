@@ -0,0 +1,150 @@
+package com.packtrace;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.quarkus.test.common.QuarkusTestResourceLifecycleManager;
+import io.smallrye.jwt.build.Jwt;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Stands in for Auth0: serves OIDC discovery and the JWKS, and mints tokens signed with its current key.
+ * Tests drive it over HTTP (see {@link TestIssuer}) because it is loaded outside the application's class loader.
+ */
+public class OidcStubResource implements QuarkusTestResourceLifecycleManager {
+
+    static final String AUDIENCE = "https://api.packtrace.test";
+
+    // kid -> key pair, oldest first; the newest one signs
+    private final Map<String, KeyPair> keys = new LinkedHashMap<>();
+
+    private HttpServer server;
+    private String issuer;
+
+    @Override
+    public Map<String, String> start() {
+        try {
+            server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not start the OIDC stub", e);
+        }
+        String baseUrl = "http://localhost:" + server.getAddress().getPort();
+        issuer = baseUrl + "/";
+        rotate();
+
+        server.createContext("/.well-known/openid-configuration", exchange -> respond(exchange, 200, """
+                {"issuer": "%s", "jwks_uri": "%s.well-known/jwks.json"}
+                """.formatted(issuer, issuer)));
+        server.createContext("/.well-known/jwks.json", exchange -> respond(exchange, 200, jwks()));
+        server.createContext("/test/token", exchange -> respond(exchange, 200, token(query(exchange).get("sub"))));
+        server.createContext("/test/rotate", exchange -> respond(exchange, 200, rotate()));
+        server.createContext("/test/withdraw", exchange -> {
+            synchronized (keys) {
+                keys.remove(query(exchange).get("kid"));
+            }
+            respond(exchange, 204, null);
+        });
+        server.start();
+
+        return Map.of(
+                "quarkus.oidc.auth-server-url", baseUrl,
+                "quarkus.oidc.token.audience", AUDIENCE,
+                "quarkus.rest-client.jwks.url", baseUrl,
+                TestIssuer.URL_PROPERTY, baseUrl);
+    }
+
+    @Override
+    public void stop() {
+        if (server != null)
+            server.stop(0);
+    }
+
+    // Publishes a new signing key and returns its kid; older keys stay published until withdrawn
+    private String rotate() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            String kid = UUID.randomUUID().toString();
+            synchronized (keys) {
+                keys.put(kid, generator.generateKeyPair());
+            }
+            return kid;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("RSA is not available", e);
+        }
+    }
+
+    private String token(String subject) {
+        Map.Entry<String, KeyPair> signing;
+        synchronized (keys) {
+            signing = keys.entrySet().stream().reduce((first, second) -> second).orElseThrow();
+        }
+        return Jwt.issuer(issuer)
+                .subject(subject)
+                .audience(AUDIENCE)
+                .expiresIn(300)
+                .jws()
+                .keyId(signing.getKey())
+                .sign(signing.getValue().getPrivate());
+    }
+
+    private String jwks() {
+        synchronized (keys) {
+            return keys.entrySet().stream()
+                    .map(entry -> {
+                        RSAPublicKey key = (RSAPublicKey) entry.getValue().getPublic();
+                        return """
+                                {"kty": "RSA", "use": "sig", "alg": "RS256", "kid": "%s", "n": "%s", "e": "%s"}"""
+                                .formatted(entry.getKey(), base64Url(key.getModulus().toByteArray()),
+                                        base64Url(key.getPublicExponent().toByteArray()));
+                    })
+                    .collect(Collectors.joining(",", "{\"keys\": [", "]}"));
+        }
+    }
+
+    // JWK integers are unsigned big-endian, without BigInteger's sign byte
+    private static String base64Url(byte[] bytes) {
+        byte[] unsigned = bytes.length > 1 && bytes[0] == 0 ? Arrays.copyOfRange(bytes, 1, bytes.length) : bytes;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(unsigned);
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        URI uri = exchange.getRequestURI();
+        if (uri.getRawQuery() == null)
+            return Map.of();
+        return Arrays.stream(uri.getRawQuery().split("&"))
+                .map(pair -> pair.split("=", 2))
+                .collect(Collectors.toMap(
+                        pair -> URLDecoder.decode(pair[0], StandardCharsets.UTF_8),
+                        pair -> pair.length > 1 ? URLDecoder.decode(pair[1], StandardCharsets.UTF_8) : ""));
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+            return;
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+}
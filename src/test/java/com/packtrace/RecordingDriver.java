@@ -0,0 +1,115 @@
+package com.packtrace;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverPropertyInfo;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+
+/**
+ * The PostgreSQL driver with every executed statement reported to {@link StatementLog}. The test profile
+ * configures it for both datasources, so tests see exactly the SQL the repositories send.
+ */
+public class RecordingDriver implements Driver {
+
+    private static final Set<String> EXECUTE = Set.of("execute", "executeQuery", "executeUpdate", "executeLargeUpdate");
+
+    private final Driver delegate = new org.postgresql.Driver();
+
+    @Override
+    public Connection connect(String url, Properties info) throws SQLException {
+        Connection connection = delegate.connect(url, info);
+        return connection == null ? null : proxy(Connection.class, connection, (target, method, args) -> {
+            Object result = invoke(target, method, args);
+            if (result instanceof PreparedStatement preparedStatement && method.getName().startsWith("prepare"))
+                return recording(preparedStatement, (String) args[0]);
+            if (result instanceof Statement statement && method.getName().equals("createStatement"))
+                return recording(statement);
+            return result;
+        });
+    }
+
+    private static PreparedStatement recording(PreparedStatement preparedStatement, String sql) {
+        Map<Integer, StatementLog.Binding> bindings = new TreeMap<>();
+        return proxy(PreparedStatement.class, preparedStatement, (target, method, args) -> {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index)
+                bindings.put(index, new StatementLog.Binding(method, args.clone()));
+            else if (name.equals("clearParameters"))
+                bindings.clear();
+            else if ((EXECUTE.contains(name) && (args == null || args.length == 0)) || name.equals("addBatch"))
+                StatementLog.record(sql, bindings.values().stream().toList());
+            return invoke(target, method, args);
+        });
+    }
+
+    private static Statement recording(Statement statement) {
+        return proxy(Statement.class, statement, (target, method, args) -> {
+            if ((EXECUTE.contains(method.getName()) || method.getName().equals("addBatch"))
+                    && args != null && args[0] instanceof String sql)
+                StatementLog.record(sql, List.of());
+            return invoke(target, method, args);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, Handler<T> handler) {
+        InvocationHandler invocationHandler = (proxy, method, args) -> handler.handle(target, method, args);
+        return (T) Proxy.newProxyInstance(RecordingDriver.class.getClassLoader(), new Class<?>[]{type}, invocationHandler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Handler<T> {
+        Object handle(T target, Method method, Object[] args) throws Throwable;
+    }
+
+    @Override
+    public boolean acceptsURL(String url) throws SQLException {
+        return delegate.acceptsURL(url);
+    }
+
+    @Override
+    public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) throws SQLException {
+        return delegate.getPropertyInfo(url, info);
+    }
+
+    @Override
+    public int getMajorVersion() {
+        return delegate.getMajorVersion();
+    }
+
+    @Override
+    public int getMinorVersion() {
+        return delegate.getMinorVersion();
+    }
+
+    @Override
+    public boolean jdbcCompliant() {
+        return delegate.jdbcCompliant();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return delegate.getParentLogger();
+    }
+}
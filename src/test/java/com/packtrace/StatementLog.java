@@ -0,0 +1,66 @@
+package com.packtrace;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Statements executed through {@link RecordingDriver} while recording is on, from any thread. Each batch entry
+ * counts as one statement.
+ */
+public final class StatementLog {
+
+    private static final List<RecordedStatement> STATEMENTS = new ArrayList<>();
+    private static boolean recording;
+
+    private StatementLog() {
+    }
+
+    public static synchronized void start() {
+        STATEMENTS.clear();
+        recording = true;
+    }
+
+    public static synchronized List<RecordedStatement> stop() {
+        recording = false;
+        List<RecordedStatement> statements = List.copyOf(STATEMENTS);
+        STATEMENTS.clear();
+        return statements;
+    }
+
+    static synchronized void record(String sql, List<Binding> bindings) {
+        if (recording)
+            STATEMENTS.add(new RecordedStatement(sql, List.copyOf(bindings)));
+    }
+
+    /**
+     * SQL text as the application sent it, with the parameter setter calls that preceded execution.
+     */
+    public record RecordedStatement(String sql, List<Binding> bindings) {
+
+        // Replays the recorded parameters onto a statement prepared from the same SQL, possibly with a prefix
+        public void bind(PreparedStatement preparedStatement) throws SQLException {
+            for (Binding binding : bindings)
+                binding.apply(preparedStatement);
+        }
+    }
+
+    // A PreparedStatement setter call such as setLong(2, 42L)
+    record Binding(Method setter, Object[] arguments) {
+
+        void apply(PreparedStatement preparedStatement) throws SQLException {
+            try {
+                setter.invoke(preparedStatement, arguments);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            } catch (InvocationTargetException e) {
+                if (e.getCause() instanceof SQLException sqlException)
+                    throw sqlException;
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.packtrace;
+
+import io.restassured.RestAssured;
+import org.eclipse.microprofile.config.ConfigProvider;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Client for {@link OidcStubResource}.
+ */
+public final class TestIssuer {
+
+    static final String URL_PROPERTY = "packtrace.test.issuer-url";
+
+    private static final Pattern KEY_ID = Pattern.compile("\"kid\"\\s*:\\s*\"([^\"]+)\"");
+
+    private TestIssuer() {
+    }
+
+    // A subject no other test uses, so each test starts from an empty account
+    public static String newSubject() {
+        return "auth0|" + UUID.randomUUID();
+    }
+
+    public static String token(String subject) {
+        return RestAssured.given().baseUri(url()).queryParam("sub", subject)
+                .get("/test/token").then().statusCode(200).extract().asString();
+    }
+
+    // The kid in the token's header
+    public static String keyId(String token) {
+        String header = new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))), StandardCharsets.UTF_8);
+        Matcher matcher = KEY_ID.matcher(header);
+        if (!matcher.find())
+            throw new IllegalArgumentException("Token has no kid: " + header);
+        return matcher.group(1);
+    }
+
+    // Publishes a new signing key, which signs every token minted from now on; returns its kid
+    public static String rotateKey() {
+        return RestAssured.given().baseUri(url())
+                .get("/test/rotate").then().statusCode(200).extract().asString();
+    }
+
+    public static void withdrawKey(String kid) {
+        RestAssured.given().baseUri(url()).queryParam("kid", kid)
+                .get("/test/withdraw").then().statusCode(204);
+    }
+
+    private static String url() {
+        return ConfigProvider.getConfig().getValue(URL_PROPERTY, String.class);
+    }
+}
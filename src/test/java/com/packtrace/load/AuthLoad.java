@@ -0,0 +1,56 @@
+package com.packtrace.load;
+
+import com.packtrace.TestIssuer;
+import io.quarkus.test.common.http.TestHTTPResource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.net.URI;
+import java.net.URL;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The cheapest authenticated read, so that verifying the bearer token is a large share of each request; subclasses
+ * switch the verified-token cache. Run with {@code gradle loadTest}.
+ */
+@Tag("load")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+abstract class AuthLoad {
+
+    static final int CLIENTS = 32;
+    static final Duration WARMUP = Duration.ofSeconds(10);
+    static final Duration MEASURE = Duration.ofSeconds(20);
+
+    @TestHTTPResource("/api/account")
+    URL account;
+
+    private String token;
+
+    abstract String variant();
+
+    // Once per class, but after the application is up: @BeforeAll runs before the test port is known
+    @BeforeEach
+    void signIn() {
+        if (token != null)
+            return;
+        token = TestIssuer.token(TestIssuer.newSubject());
+        given().auth().oauth2(token).get("/api/account").then().statusCode(200);
+    }
+
+    @Test
+    void account() throws InterruptedException {
+        URI uri = URI.create(account.toString());
+        LoadDriver.Result result = LoadDriver.run(variant() + " GET /account", CLIENTS, WARMUP, MEASURE,
+                i -> HttpRequest.newBuilder(uri)
+                        .header("Authorization", "Bearer " + token)
+                        .header("Accept", "application/json")
+                        .build());
+        assertEquals(0, result.errors(), result.toString());
+    }
+}
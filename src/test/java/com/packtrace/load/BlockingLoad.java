@@ -0,0 +1,83 @@
+package com.packtrace.load;
+
+import com.packtrace.TestIssuer;
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.restassured.http.ContentType;
+import io.restassured.specification.RequestSpecification;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.net.URI;
+import java.net.URL;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The blocking JDBC endpoints (those behind {@code @PoolAdmission}) under more concurrent callers than the pool has
+ * connections; subclasses pick platform or virtual threads. Run with {@code gradle loadTest}.
+ */
+@Tag("load")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+abstract class BlockingLoad {
+
+    static final int CLIENTS = 128;
+    static final Duration WARMUP = Duration.ofSeconds(10);
+    static final Duration MEASURE = Duration.ofSeconds(20);
+
+    private static final int LIBRARY_ITEMS = 100;
+
+    @TestHTTPResource("/api")
+    URL api;
+
+    private String token;
+    private long[] gearIds;
+
+    abstract String variant();
+
+    // Once per class, but after the application is up: @BeforeAll runs before the test port is known
+    @BeforeEach
+    void seed() {
+        if (token != null)
+            return;
+        token = TestIssuer.token(TestIssuer.newSubject());
+        request().get("/api/account").then().statusCode(200);
+        gearIds = new long[LIBRARY_ITEMS];
+        for (int i = 0; i < LIBRARY_ITEMS; i++)
+            gearIds[i] = request().body(Map.of("name", "Load item " + i, "weightGrams", 10 + i))
+                    .post("/api/gear").then().statusCode(201).extract().jsonPath().getLong("id");
+    }
+
+    @Test
+    void search() throws InterruptedException {
+        URI uri = URI.create(api + "/gear/search?q=item");
+        run("GET /gear/search", i -> authorized(HttpRequest.newBuilder(uri)).GET().build());
+    }
+
+    @Test
+    void update() throws InterruptedException {
+        run("PUT /gear/{id}", i -> authorized(HttpRequest.newBuilder(URI.create(api + "/gear/" + gearIds[i % LIBRARY_ITEMS])))
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString("{\"name\": \"Load item\", \"weightGrams\": " + (10 + i % 1000) + "}"))
+                .build());
+    }
+
+    private void run(String name, IntFunction<HttpRequest> request) throws InterruptedException {
+        LoadDriver.Result result = LoadDriver.run(variant() + " " + name, CLIENTS, WARMUP, MEASURE, request);
+        assertEquals(0, result.errors(), result.toString());
+    }
+
+    private HttpRequest.Builder authorized(HttpRequest.Builder builder) {
+        return builder.header("Authorization", "Bearer " + token).header("Accept", "application/json");
+    }
+
+    private RequestSpecification request() {
+        return given().auth().oauth2(token).contentType(ContentType.JSON).accept(ContentType.JSON);
+    }
+}
@@ -0,0 +1,91 @@
+package com.packtrace.load;
+
+import com.packtrace.OidcStubResource;
+import com.packtrace.TestIssuer;
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.test.common.WithTestResource;
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.URL;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * CSV import throughput into a pack, in rows per second. Run with {@code gradle loadTest}.
+ */
+@QuarkusTest
+@TestProfile(LoadProfile.class)
+@WithTestResource(OidcStubResource.class)
+@Tag("load")
+class ImportLoadTest {
+
+    private static final int CLIENTS = 2;
+    private static final int ROWS = 10_000;
+    private static final Duration WARMUP = Duration.ofSeconds(10);
+    private static final Duration MEASURE = Duration.ofSeconds(30);
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    @TestHTTPResource("/api/gear/import")
+    URL importUrl;
+
+    private String subject;
+
+    // Packs go first: the account's gear then cascades alone instead of updating the pack's totals per item
+    @AfterEach
+    void deleteAccount() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            for (String sql : new String[] {
+                    "DELETE FROM pack WHERE account_id = (SELECT id FROM account WHERE auth0_id = ?)",
+                    "DELETE FROM account WHERE auth0_id = ?"}) {
+                try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                    statement.setString(1, subject);
+                    statement.executeUpdate();
+                }
+            }
+        }
+    }
+
+    @Test
+    void importIntoPack() throws InterruptedException {
+        subject = TestIssuer.newSubject();
+        String token = TestIssuer.token(subject);
+        given().auth().oauth2(token).get("/api/account").then().statusCode(200);
+        long packId = given().auth().oauth2(token).contentType("application/json").body(Map.of("name", "Import load"))
+                .post("/api/pack").then().statusCode(201).extract().jsonPath().getLong("id");
+
+        StringBuilder csv = new StringBuilder("name,brand,category,weight,unit,url,qty\n");
+        for (int i = 0; i < ROWS; i++)
+            csv.append("Imported item ").append(i).append(",Outfitter ").append(i % 12).append(",Category ").append(i % 8)
+                    .append(',').append(10 + i % 900).append(",g,https://gear.example.com/catalog/item-").append(i)
+                    .append(',').append(1 + i % 3).append('\n');
+        byte[] body = csv.toString().getBytes(StandardCharsets.UTF_8);
+        URI uri = URI.create(importUrl + "?packId=" + packId);
+
+        LoadDriver.Result result = LoadDriver.run("POST /gear/import (" + ROWS + " rows)", CLIENTS, WARMUP, MEASURE,
+                i -> HttpRequest.newBuilder(uri)
+                        .header("Authorization", "Bearer " + token)
+                        .header("Content-Type", "text/csv")
+                        .header("Accept", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                        .build());
+        System.out.printf("LOAD import rows=%.0f/s (%d bytes per upload)%n", result.throughput() * ROWS, body.length);
+        assertEquals(0, result.errors(), result.toString());
+    }
+}
@@ -0,0 +1,117 @@
+package com.packtrace.load;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.function.IntFunction;
+
+/**
+ * Closed-loop HTTP load: each client sends its next request as soon as the previous one answers. Requests sent
+ * during the warmup are not counted. Clients run on virtual threads in the test JVM, so on a small machine they
+ * compete with the application for CPU; compare results from the same machine only.
+ */
+final class LoadDriver {
+
+    record Result(String name, int clients, long requests, long errors, Duration elapsed, long[] latencyNanos) {
+
+        double throughput() {
+            return requests / (elapsed.toNanos() / 1e9);
+        }
+
+        double percentileMillis(double p) {
+            if (latencyNanos.length == 0)
+                return 0;
+            int index = (int) Math.ceil(p / 100 * latencyNanos.length) - 1;
+            return latencyNanos[Math.clamp(index, 0, latencyNanos.length - 1)] / 1e6;
+        }
+
+        @Override
+        public String toString() {
+            return "%-44s clients=%-4d requests=%-7d errors=%-5d throughput=%8.1f/s p50=%6.1fms p99=%7.1fms".formatted(
+                    name, clients, requests, errors, throughput(), percentileMillis(50), percentileMillis(99));
+        }
+    }
+
+    private LoadDriver() {
+    }
+
+    // Responses with a 2xx or 304 status count as successes
+    static Result run(String name, int clients, Duration warmup, Duration duration, IntFunction<HttpRequest> request)
+            throws InterruptedException {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long stopAt = measureFrom + duration.toNanos();
+
+        List<Client> running = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            Client client = new Client(httpClient, request, measureFrom, stopAt);
+            running.add(client);
+            threads.add(Thread.ofVirtual().start(client));
+        }
+        for (Thread thread : threads)
+            thread.join();
+
+        long[] latencies = running.stream()
+                .flatMapToLong(client -> Arrays.stream(client.latencies, 0, client.count))
+                .sorted()
+                .toArray();
+        long errors = running.stream().mapToLong(client -> client.errors).sum();
+        Result result = new Result(name, clients, latencies.length, errors, duration, latencies);
+        System.out.println("LOAD " + result);
+        return result;
+    }
+
+    private static final class Client implements Runnable {
+
+        private final HttpClient httpClient;
+        private final IntFunction<HttpRequest> request;
+        private final long measureFrom;
+        private final long stopAt;
+
+        private long[] latencies = new long[1024];
+        private int count;
+        private long errors;
+
+        Client(HttpClient httpClient, IntFunction<HttpRequest> request, long measureFrom, long stopAt) {
+            this.httpClient = httpClient;
+            this.request = request;
+            this.measureFrom = measureFrom;
+            this.stopAt = stopAt;
+        }
+
+        @Override
+        public void run() {
+            for (int i = 0; ; i++) {
+                long start = System.nanoTime();
+                if (start >= stopAt)
+                    return;
+                boolean ok;
+                try {
+                    int status = httpClient.send(request.apply(i), HttpResponse.BodyHandlers.discarding()).statusCode();
+                    ok = status / 100 == 2 || status == 304;
+                } catch (Exception e) {
+                    ok = false;
+                }
+                long end = System.nanoTime();
+                if (start < measureFrom || end > stopAt)
+                    continue;
+                if (!ok) {
+                    errors++;
+                } else {
+                    if (count == latencies.length)
+                        latencies = Arrays.copyOf(latencies, count * 2);
+                    latencies[count++] = end - start;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.packtrace.load;
+
+import io.quarkus.test.junit.QuarkusTestProfile;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Lifts the per-client rate limits, which one load-test caller would otherwise exhaust in a second.
+ * Subclasses switch on the variant being compared.
+ */
+public class LoadProfile implements QuarkusTestProfile {
+
+    @Override
+    public Map<String, String> getConfigOverrides() {
+        Map<String, String> overrides = new HashMap<>(variant());
+        for (String policy : new String[] {"general", "auth", "bulk"})
+            overrides.put("packtrace.rate-limit.policies." + policy + ".capacity", "1000000000");
+        return overrides;
+    }
+
+    protected Map<String, String> variant() {
+        return Map.of();
+    }
+
+    public static class Reactive extends LoadProfile {
+        @Override
+        protected Map<String, String> variant() {
+            return Map.of("packtrace.repository.reactive", "true");
+        }
+    }
+
+    public static class VirtualThreads extends LoadProfile {
+        @Override
+        protected Map<String, String> variant() {
+            return Map.of("quarkus.virtual-threads.enabled", "true");
+        }
+    }
+
+    public static class NoTokenCache extends LoadProfile {
+        @Override
+        protected Map<String, String> variant() {
+            return Map.of("packtrace.auth.token-cache.enabled", "false");
+        }
+    }
+}
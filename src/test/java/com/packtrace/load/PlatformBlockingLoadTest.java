@@ -0,0 +1,17 @@
+package com.packtrace.load;
+
+import com.packtrace.OidcStubResource;
+import io.quarkus.test.common.WithTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+
+@QuarkusTest
+@TestProfile(LoadProfile.class)
+@WithTestResource(OidcStubResource.class)
+class PlatformBlockingLoadTest extends BlockingLoad {
+
+    @Override
+    String variant() {
+        return "platform-threads";
+    }
+}
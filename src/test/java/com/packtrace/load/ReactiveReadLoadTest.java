@@ -0,0 +1,17 @@
+package com.packtrace.load;
+
+import com.packtrace.OidcStubResource;
+import io.quarkus.test.common.WithTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+
+@QuarkusTest
+@TestProfile(LoadProfile.Reactive.class)
+@WithTestResource(OidcStubResource.class)
+class ReactiveReadLoadTest extends ReadLoad {
+
+    @Override
+    String variant() {
+        return "reactive";
+    }
+}
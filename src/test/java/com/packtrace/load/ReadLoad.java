@@ -0,0 +1,85 @@
+package com.packtrace.load;
+
+import com.packtrace.TestIssuer;
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.restassured.http.ContentType;
+import io.restassured.specification.RequestSpecification;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.net.URI;
+import java.net.URL;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The hot read endpoints under concurrent load; subclasses pick the backend. Run with {@code gradle loadTest}
+ * and compare the LOAD lines each variant prints.
+ */
+@Tag("load")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+abstract class ReadLoad {
+
+    static final int CLIENTS = 32;
+    static final Duration WARMUP = Duration.ofSeconds(10);
+    static final Duration MEASURE = Duration.ofSeconds(20);
+
+    private static final int PACK_ITEMS = 25;
+    private static final int LIBRARY_ITEMS = 200;
+
+    @TestHTTPResource("/api")
+    URL api;
+
+    private String token;
+    private long packId;
+
+    abstract String variant();
+
+    // Once per class, but after the application is up: @BeforeAll runs before the test port is known
+    @BeforeEach
+    void seed() {
+        if (token != null)
+            return;
+        token = TestIssuer.token(TestIssuer.newSubject());
+        request().get("/api/account").then().statusCode(200);
+        packId = request().body(Map.of("name", "Load test")).post("/api/pack")
+                .then().statusCode(201).extract().jsonPath().getLong("id");
+        for (int i = 0; i < LIBRARY_ITEMS; i++) {
+            long gearId = request().body(Map.of("name", "Load item " + i, "weightGrams", 10 + i, "category", "Category " + i % 8))
+                    .post("/api/gear").then().statusCode(201).extract().jsonPath().getLong("id");
+            if (i < PACK_ITEMS)
+                request().body(Map.of("gearId", gearId, "quantity", 1)).post("/api/pack/" + packId + "/gear")
+                        .then().statusCode(201);
+        }
+    }
+
+    @Test
+    void packContents() throws InterruptedException {
+        run("GET /pack/{id}/gear", "/pack/" + packId + "/gear");
+    }
+
+    @Test
+    void gearPage() throws InterruptedException {
+        run("GET /gear?limit=50", "/gear?limit=50");
+    }
+
+    void run(String name, String path) throws InterruptedException {
+        URI uri = URI.create(api + path);
+        LoadDriver.Result result = LoadDriver.run(variant() + " " + name, CLIENTS, WARMUP, MEASURE,
+                i -> HttpRequest.newBuilder(uri)
+                        .header("Authorization", "Bearer " + token)
+                        .header("Accept", "application/json")
+                        .build());
+        assertEquals(0, result.errors(), result.toString());
+    }
+
+    private RequestSpecification request() {
+        return given().auth().oauth2(token).contentType(ContentType.JSON).accept(ContentType.JSON);
+    }
+}
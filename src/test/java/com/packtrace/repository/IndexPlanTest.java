@@ -0,0 +1,416 @@
+package com.packtrace.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.packtrace.OidcStubResource;
+import com.packtrace.StatementLog;
+import com.packtrace.StatementLog.RecordedStatement;
+import com.packtrace.dto.PackGearOperation;
+import com.packtrace.model.Account;
+import com.packtrace.model.Closet;
+import com.packtrace.model.ClosetGear;
+import com.packtrace.model.Gear;
+import com.packtrace.model.Pack;
+import com.packtrace.model.PackGear;
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.test.common.WithTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Every statement the JDBC repositories send must be answered from an index on the large tables. The repository
+ * methods run against the application's own datasource while {@link StatementLog} records their SQL and
+ * parameters, and each recorded statement is then EXPLAINed inside one transaction that seeds many accounts and
+ * one large gear library, analyzes them and is rolled back. The seeded rows are not committed, so the repository
+ * calls themselves find nothing and change nothing.
+ * <p>
+ * Not covered: {@link JDBCPackTotalsRepository#findDriftedPackIds} compares every pack's totals by design, and
+ * {@link JDBCGearImportRepository} stages rows in a temporary table that only exists on its own connection.
+ */
+@QuarkusTest
+@WithTestResource(OidcStubResource.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class IndexPlanTest {
+
+    private static final int ACCOUNTS = 5000;
+    private static final int GEAR_PER_ACCOUNT = 10;
+    private static final int CONTAINERS_PER_ACCOUNT = 10;
+    private static final int LIBRARY_GEAR = 10000;
+
+    private static final Set<String> SEEDED_TABLES = Set.of("account", "gear", "pack", "closet", "pack_gear",
+            "closet_gear", "change_log", "pack_totals", "pack_category_totals");
+
+    // The trigram and keyset indexes only pay off once filtering the owner's rows costs more than probing them
+    private static final UUID LIBRARY_OWNER = UUID.randomUUID();
+    private static final UUID ORDINARY_OWNER = UUID.randomUUID();
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    @Inject
+    JDBCAccountRepository accountRepository;
+
+    @Inject
+    JDBCAccountExportRepository accountExportRepository;
+
+    @Inject
+    JDBCChangeLogRepository changeLogRepository;
+
+    @Inject
+    JDBCChangeNotificationRepository changeNotificationRepository;
+
+    @Inject
+    JDBCClosetRepository closetRepository;
+
+    @Inject
+    JDBCClosetGearRepository closetGearRepository;
+
+    @Inject
+    JDBCEntityVersionRepository entityVersionRepository;
+
+    @Inject
+    JDBCGearRepository gearRepository;
+
+    @Inject
+    JDBCPackRepository packRepository;
+
+    @Inject
+    JDBCPackGearRepository packGearRepository;
+
+    @Inject
+    JDBCPackTotalsRepository packTotalsRepository;
+
+    private final String tag = "plan-" + UUID.randomUUID() + "-";
+
+    private Connection connection;
+    private String ordinaryAuth0Id;
+    private long packId;
+    private long closetId;
+    private long gearId;
+
+    @BeforeAll
+    void seed() throws SQLException {
+        connection = dataSource.getConnection();
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            // Gear and membership inserts also fill change_log and the pack totals through their triggers
+            statement.execute("""
+                    INSERT INTO account (id, auth0_id, username)
+                    SELECT CASE k WHEN 0 THEN '%2$s'::uuid WHEN 1 THEN '%3$s'::uuid ELSE gen_random_uuid() END,
+                           '%1$s' || k, '%1$s' || k
+                    FROM generate_series(0, %4$d - 1) AS k;
+                    INSERT INTO gear (owner_id, name, brand, weight_grams, category)
+                    SELECT a.id, 'Item ' || n, 'Brand ' || (n %% 40), n %% 2000, 'Category ' || (n %% 12)
+                    FROM account a
+                    CROSS JOIN LATERAL generate_series(1, CASE WHEN a.id = '%2$s' THEN %5$d ELSE %6$d END) AS n
+                    WHERE a.auth0_id LIKE '%1$s%%';
+                    INSERT INTO pack (account_id, name)
+                    SELECT a.id, 'Pack ' || n FROM account a CROSS JOIN generate_series(1, %7$d) AS n
+                    WHERE a.auth0_id LIKE '%1$s%%' AND a.id <> '%2$s';
+                    INSERT INTO closet (account_id, name)
+                    SELECT a.id, 'Closet ' || n FROM account a CROSS JOIN generate_series(1, %7$d) AS n
+                    WHERE a.auth0_id LIKE '%1$s%%' AND a.id <> '%2$s';
+                    ANALYZE account, gear, pack, closet;
+                    -- The totals trigger plans its statements once per session, so analyze the totals tables after
+                    -- a first slice; planned against empty tables, every later row would scan them in full
+                    INSERT INTO pack_gear (pack_id, gear_id, quantity)
+                    SELECT p.id, g.id, 1 FROM pack p JOIN gear g ON g.owner_id = p.account_id AND g.name IN %8$s
+                    WHERE p.account_id IN (SELECT id FROM account WHERE auth0_id LIKE '%1$s%%') AND p.id %% 20 = 0;
+                    ANALYZE pack_totals, pack_category_totals;
+                    INSERT INTO pack_gear (pack_id, gear_id, quantity)
+                    SELECT p.id, g.id, 1 FROM pack p JOIN gear g ON g.owner_id = p.account_id AND g.name IN %8$s
+                    WHERE p.account_id IN (SELECT id FROM account WHERE auth0_id LIKE '%1$s%%') AND p.id %% 20 <> 0;
+                    INSERT INTO closet_gear (closet_id, gear_id, quantity)
+                    SELECT c.id, g.id, 1 FROM closet c JOIN gear g ON g.owner_id = c.account_id AND g.name IN %9$s
+                    WHERE c.account_id IN (SELECT id FROM account WHERE auth0_id LIKE '%1$s%%');
+                    ANALYZE account, gear, pack, closet, pack_gear, closet_gear, change_log, pack_totals, pack_category_totals;
+                    """.formatted(tag, LIBRARY_OWNER, ORDINARY_OWNER, ACCOUNTS, LIBRARY_GEAR, GEAR_PER_ACCOUNT,
+                    CONTAINERS_PER_ACCOUNT, containerItems("p.name"), containerItems("c.name")));
+        }
+        ordinaryAuth0Id = tag + 1;
+        packId = seededId("SELECT min(id) FROM pack WHERE account_id = ?");
+        closetId = seededId("SELECT min(id) FROM closet WHERE account_id = ?");
+        gearId = seededId("SELECT min(id) FROM gear WHERE owner_id = ?");
+    }
+
+    @AfterAll
+    void rollback() throws SQLException {
+        try {
+            connection.rollback();
+            // insertWithNextUsername and persist commit their accounts on their own connections
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("DELETE FROM account WHERE auth0_id LIKE '" + tag + "%'");
+                statement.execute("DELETE FROM username_counter WHERE base_name LIKE '" + tag + "%'");
+            }
+            connection.commit();
+            connection.setAutoCommit(true);
+        } finally {
+            connection.close();
+        }
+    }
+
+    @Test
+    void accountQueriesUseTheirIndexes() {
+        assertIndexed(record(() -> {
+            accountRepository.findByAuth0Id(ordinaryAuth0Id);
+            accountRepository.findByUsername(ordinaryAuth0Id);
+            accountRepository.insertWithNextUsername(tag + "new", tag + "new");
+            accountRepository.persist(new Account(tag + "persisted", tag + "persisted"));
+            accountRepository.countContents(ORDINARY_OWNER);
+            entityVersionRepository.findGearLibraryVersion(ordinaryAuth0Id);
+            accountExportRepository.exportAccount(ORDINARY_OWNER, new DiscardingSink());
+        }));
+    }
+
+    @Test
+    void gearQueriesUseTheirIndexes() {
+        GearFilter noFilter = new GearFilter(null, null, null, null);
+        Gear gear = new Gear(gearId, ORDINARY_OWNER, "Renamed", "Brand", 999, null, "Category 1");
+        assertIndexed(record(() -> {
+            gearRepository.persist(new Gear(ORDINARY_OWNER, "New", "Brand", 100, null, "Category 1"), ordinaryAuth0Id);
+            gearRepository.findById(gearId);
+            gearRepository.findByOwnerId(ORDINARY_OWNER);
+            gearRepository.findByOwnerId(LIBRARY_OWNER, noFilter, GearSort.NAME, new PageRequest(50, "Item 5000", 42L));
+            gearRepository.findByOwnerId(LIBRARY_OWNER, noFilter, GearSort.WEIGHT_DESC, new PageRequest(50, "1200", 42L));
+            gearRepository.search(LIBRARY_OWNER, "tent", 0.3, 20);
+            gearRepository.update(gear, ordinaryAuth0Id);
+            gearRepository.deleteById(gearId, ordinaryAuth0Id);
+        }));
+    }
+
+    @Test
+    void packQueriesUseTheirIndexes() {
+        Pack pack = new Pack(packId, ORDINARY_OWNER, "Renamed", null);
+        assertIndexed(record(() -> {
+            packRepository.persist(new Pack(ORDINARY_OWNER, "New", null), ordinaryAuth0Id);
+            packRepository.findById(packId);
+            packRepository.findByAccountId(ORDINARY_OWNER);
+            packRepository.findByAccountId(ORDINARY_OWNER, new PageRequest(20, "Pack 1", packId));
+            packRepository.update(pack, ordinaryAuth0Id);
+            packRepository.deleteById(packId, ordinaryAuth0Id);
+            entityVersionRepository.findPackVersion(packId);
+            packTotalsRepository.findCategoryTotals(packId);
+            packTotalsRepository.findPackWeights(ORDINARY_OWNER, List.of(packId));
+            packTotalsRepository.rebuild(packId);
+        }));
+    }
+
+    @Test
+    void packContentsQueriesUseTheirIndexes() {
+        List<RecordedStatement> statements = record(() -> {
+            packGearRepository.addGearToPack(packId, gearId, 1, ordinaryAuth0Id);
+            packGearRepository.removeGearFromPack(packId, gearId, ordinaryAuth0Id);
+            packGearRepository.findGearInPack(packId);
+            packGearRepository.findGearResponsesInPack(packId);
+            packGearRepository.updateQuantity(packId, gearId, 2, ordinaryAuth0Id);
+            packGearRepository.lockForEdit(packId, List.of(gearId), ordinaryAuth0Id);
+            packGearRepository.applyOperations(packId, List.of(
+                    new PackGearOperation(PackGearOperation.Type.REMOVE, gearId, 0),
+                    new PackGearOperation(PackGearOperation.Type.SET_QUANTITY, gearId, 3)));
+            // An add is recorded against a pack that does not exist: the seeded pack is uncommitted, and the
+            // foreign key check would wait for this test's own transaction
+            assertThrows(RuntimeException.class, () -> packGearRepository.applyOperations(-1L, List.of(
+                    new PackGearOperation(PackGearOperation.Type.ADD, gearId, 1))));
+        });
+        assertIndexed(statements);
+    }
+
+    @Test
+    void closetQueriesUseTheirIndexes() {
+        Closet closet = new Closet(closetId, ORDINARY_OWNER, "Renamed", null);
+        assertIndexed(record(() -> {
+            closetRepository.persist(new Closet(ORDINARY_OWNER, "New", null), ordinaryAuth0Id);
+            closetRepository.findById(closetId);
+            closetRepository.findByAccountId(ORDINARY_OWNER);
+            closetRepository.findByAccountId(ORDINARY_OWNER, new PageRequest(20, "Closet 1", closetId));
+            closetRepository.update(closet, ordinaryAuth0Id);
+            closetRepository.deleteById(closetId, ordinaryAuth0Id);
+            entityVersionRepository.findClosetVersion(closetId);
+            closetGearRepository.addGearToCloset(closetId, gearId, 1, ordinaryAuth0Id);
+            closetGearRepository.removeGearFromCloset(closetId, gearId, ordinaryAuth0Id);
+            closetGearRepository.findGearInCloset(closetId);
+            closetGearRepository.findGearResponsesInCloset(closetId);
+            closetGearRepository.updateQuantity(closetId, gearId, 2, ordinaryAuth0Id);
+        }));
+    }
+
+    @Test
+    void changeLogQueriesUseTheirIndexes() {
+        assertIndexed(record(() -> {
+            changeLogRepository.currentSnapshotXmin();
+            changeLogRepository.findPrunedThrough();
+            changeLogRepository.findChanges(ORDINARY_OWNER, 0, 0, 500);
+            changeLogRepository.pruneChangedBefore(Instant.EPOCH);
+        }));
+    }
+
+    @Test
+    void changeNotificationsReadVersionsThroughTheirKeys() {
+        assertIndexed(record(() -> {
+            changeNotificationRepository.publishChanged(ordinaryAuth0Id, "pack", packId);
+            changeNotificationRepository.publishChanged(ordinaryAuth0Id, "closet", closetId);
+            changeNotificationRepository.publishChanged(ordinaryAuth0Id, "gear", gearId);
+            changeNotificationRepository.publishDeleted(ordinaryAuth0Id, "gear", gearId);
+        }));
+    }
+
+    @Test
+    void gearWritesFindMembershipsThroughTheGearIdIndexes() throws SQLException {
+        // Updating a weight walks pack_gear by gear_id in gear_totals_trigger; deleting cascades into both
+        // membership tables. Neither lookup shows in EXPLAIN, so run the real statements and count the scans.
+        Gear gear = new Gear(gearId, ORDINARY_OWNER, "Renamed", "Brand", 999, null, "Category 1");
+        List<RecordedStatement> writes = record(() -> {
+            gearRepository.update(gear, ordinaryAuth0Id);
+            gearRepository.deleteById(gearId, ordinaryAuth0Id);
+        });
+
+        Savepoint savepoint = connection.setSavepoint();
+        try {
+            Map<String, Long> before = sequentialScans();
+            for (RecordedStatement write : writes)
+                execute(write);
+            Map<String, Long> after = sequentialScans();
+
+            assertFalse(exists("SELECT 1 FROM pack_gear WHERE gear_id = ?"), "the delete should have cascaded");
+            assertEquals(before.get("pack_gear"), after.get("pack_gear"), "pack_gear was scanned sequentially");
+            assertEquals(before.get("closet_gear"), after.get("closet_gear"), "closet_gear was scanned sequentially");
+        } finally {
+            connection.rollback(savepoint);
+        }
+    }
+
+    private static List<RecordedStatement> record(Runnable calls) {
+        StatementLog.start();
+        try {
+            calls.run();
+        } catch (RuntimeException e) {
+            StatementLog.stop();
+            throw e;
+        }
+        return StatementLog.stop();
+    }
+
+    private void assertIndexed(List<RecordedStatement> statements) {
+        List<String> failures = new ArrayList<>();
+        for (RecordedStatement statement : statements) {
+            List<String> scanned = sequentiallyScanned(plan(statement));
+            if (!scanned.isEmpty())
+                failures.add("Seq Scan on " + scanned + " for:\n" + statement.sql());
+        }
+        assertTrue(failures.isEmpty(), String.join("\n\n", failures));
+    }
+
+    private JsonNode plan(RecordedStatement statement) {
+        try (PreparedStatement preparedStatement = connection.prepareStatement("EXPLAIN (FORMAT JSON) " + statement.sql())) {
+            statement.bind(preparedStatement);
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                resultSet.next();
+                return JSON.readTree(resultSet.getString(1)).get(0).get("Plan");
+            }
+        } catch (SQLException | IOException e) {
+            throw new RuntimeException("Error explaining " + statement.sql(), e);
+        }
+    }
+
+    private static List<String> sequentiallyScanned(JsonNode plan) {
+        List<String> tables = new ArrayList<>();
+        if ("Seq Scan".equals(plan.path("Node Type").asText()) && SEEDED_TABLES.contains(plan.path("Relation Name").asText()))
+            tables.add(plan.path("Relation Name").asText());
+        for (JsonNode child : plan.path("Plans"))
+            tables.addAll(sequentiallyScanned(child));
+        return tables;
+    }
+
+    private void execute(RecordedStatement statement) throws SQLException {
+        try (PreparedStatement preparedStatement = connection.prepareStatement(statement.sql())) {
+            statement.bind(preparedStatement);
+            preparedStatement.execute();
+        }
+    }
+
+    // Counts for this transaction only
+    private Map<String, Long> sequentialScans() throws SQLException {
+        try (PreparedStatement preparedStatement = connection.prepareStatement("""
+                SELECT relname, seq_scan FROM pg_stat_xact_user_tables WHERE relname IN ('pack_gear', 'closet_gear');
+                """);
+             ResultSet resultSet = preparedStatement.executeQuery()) {
+            Map<String, Long> scans = new HashMap<>();
+            while (resultSet.next())
+                scans.put(resultSet.getString("relname"), resultSet.getLong("seq_scan"));
+            return scans;
+        }
+    }
+
+    private boolean exists(String sql) throws SQLException {
+        try (PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+            preparedStatement.setLong(1, gearId);
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                return resultSet.next();
+            }
+        }
+    }
+
+    // Container n holds items n and n + 1 of its owner's gear, wrapping around
+    private static String containerItems(String nameColumn) {
+        String n = "substring(%s from '[0-9]+$')::int".formatted(nameColumn);
+        return "('Item ' || %1$s, 'Item ' || (%1$s %% %2$d + 1))".formatted(n, GEAR_PER_ACCOUNT);
+    }
+
+    private long seededId(String sql) throws SQLException {
+        try (PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+            preparedStatement.setObject(1, ORDINARY_OWNER);
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                resultSet.next();
+                return resultSet.getLong(1);
+            }
+        }
+    }
+
+    private static final class DiscardingSink implements AccountExportRepository.ExportSink {
+        @Override
+        public void gear(Gear gear) {
+        }
+
+        @Override
+        public void pack(Pack pack) {
+        }
+
+        @Override
+        public void packGear(PackGear packGear) {
+        }
+
+        @Override
+        public void closet(Closet closet) {
+        }
+
+        @Override
+        public void closetGear(ClosetGear closetGear) {
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.packtrace.resource;
+
+import com.packtrace.OidcStubResource;
+import com.packtrace.TestIssuer;
+import io.quarkus.test.common.WithTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.specification.RequestSpecification;
+import org.junit.jupiter.api.Test;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.notNullValue;
+
+/**
+ * The export draws ten bulk tokens, so three fit in a minute (bulk: 30 per minute) and the fourth is refused.
+ */
+@QuarkusTest
+@WithTestResource(OidcStubResource.class)
+class AccountExportRateLimitTest {
+
+    @Test
+    void exportsDrawFromTheBulkPolicy() {
+        String token = TestIssuer.token(TestIssuer.newSubject());
+        api(token).get("/api/account").then().statusCode(200);
+
+        for (int i = 0; i < 3; i++)
+            api(token).get("/api/account/export").then().statusCode(200);
+        api(token).get("/api/account/export").then().statusCode(429).header("Retry-After", notNullValue());
+    }
+
+    private static RequestSpecification api(String token) {
+        return given().auth().oauth2(token);
+    }
+}
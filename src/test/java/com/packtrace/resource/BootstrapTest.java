@@ -0,0 +1,78 @@
+package com.packtrace.resource;
+
+import com.packtrace.OidcStubResource;
+import com.packtrace.TestIssuer;
+import io.quarkus.test.common.WithTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import io.restassured.path.json.JsonPath;
+import io.restassured.specification.RequestSpecification;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * The bootstrap response agrees with the list endpoints it replaces on page load.
+ */
+@QuarkusTest
+@WithTestResource(OidcStubResource.class)
+class BootstrapTest {
+
+    private String token;
+
+    @Test
+    void aCallerWithoutAnAccountGetsEmptyData() {
+        token = TestIssuer.token(TestIssuer.newSubject());
+
+        JsonPath bootstrap = api().get("/api/bootstrap").then().statusCode(200).extract().jsonPath();
+
+        assertNull(bootstrap.get("account"));
+        assertEquals(0, bootstrap.getInt("counts.packs"));
+        assertEquals(List.of(), bootstrap.getList("packs.items"));
+        assertEquals(List.of(), bootstrap.getList("gear.items"));
+        assertEquals(List.of(), bootstrap.getList("packWeights"));
+        assertEquals(List.of(), bootstrap.getList("firstPackGear"));
+    }
+
+    @Test
+    void firstPagesWeightsAndDefaultSelectionsMatchTheListEndpoints() {
+        token = TestIssuer.token(TestIssuer.newSubject());
+        api().get("/api/account").then().statusCode(200);
+        long alpha = create("/api/pack", "Alpha");
+        create("/api/pack", "Bravo");
+        long attic = create("/api/closet", "Attic");
+        api().contentType("text/csv").body("name,weight,qty\nTent,1200,1\nStakes,10,6\n")
+                .post("/api/gear/import?packId=" + alpha + "&closetId=" + attic).then().statusCode(200);
+
+        JsonPath bootstrap = api().get("/api/bootstrap?limit=1").then().statusCode(200).extract().jsonPath();
+
+        assertNotNull(bootstrap.get("account.id"));
+        assertEquals(Map.of("packs", 2, "closets", 1, "gear", 2), bootstrap.getMap("counts"));
+        assertEquals(List.of("Alpha"), bootstrap.getList("packs.items.name"));
+        assertNotNull(bootstrap.getString("packs.nextCursor"));
+        assertEquals(1, bootstrap.getList("gear.items").size());
+
+        // Weights only for the packs on the first page
+        assertEquals(List.of(Map.of("packId", (int) alpha, "totalGrams", 1260, "itemCount", 7)),
+                bootstrap.getList("packWeights"));
+        assertEquals(api().get("/api/pack/" + alpha + "/gear").then().statusCode(200).extract().jsonPath().getList(""),
+                bootstrap.getList("firstPackGear"));
+        assertEquals(api().get("/api/closet/" + attic + "/gear").then().statusCode(200).extract().jsonPath().getList(""),
+                bootstrap.getList("firstClosetGear"));
+    }
+
+    private long create(String path, String name) {
+        return api().contentType(ContentType.JSON).body(Map.of("name", name)).post(path)
+                .then().statusCode(201).extract().jsonPath().getLong("id");
+    }
+
+    private RequestSpecification api() {
+        return given().auth().oauth2(token).accept(ContentType.JSON);
+    }
+}
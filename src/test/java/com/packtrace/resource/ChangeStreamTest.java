@@ -0,0 +1,166 @@
+package com.packtrace.resource;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.packtrace.OidcStubResource;
+import com.packtrace.TestIssuer;
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.test.common.WithTestResource;
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import io.restassured.specification.RequestSpecification;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Change notifications travel through Postgres, so a stream sees writes committed by any instance.
+ */
+@QuarkusTest
+@WithTestResource(OidcStubResource.class)
+class ChangeStreamTest {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    @TestHTTPResource("/api/changes")
+    URL changesUrl;
+
+    private String subject;
+    private String token;
+    private Thread reader;
+    private final BlockingQueue<JsonNode> received = new LinkedBlockingQueue<>();
+
+    @BeforeEach
+    void openStream() throws Exception {
+        subject = TestIssuer.newSubject();
+        token = TestIssuer.token(subject);
+        api().get("/api/account").then().statusCode(200);
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create(changesUrl.toString()))
+                .header("Authorization", "Bearer " + token)
+                .header("Accept", "text/event-stream")
+                .build();
+        var response = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build()
+                .send(request, HttpResponse.BodyHandlers.ofInputStream());
+        assertEquals(200, response.statusCode());
+
+        reader = Thread.ofVirtual().start(() -> {
+            try (BufferedReader lines = new BufferedReader(new InputStreamReader(response.body(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = lines.readLine()) != null) {
+                    if (line.startsWith("data:"))
+                        received.add(JSON.readTree(line.substring("data:".length())));
+                }
+            } catch (Exception e) {
+                // The stream is closed when the test ends
+            }
+        });
+    }
+
+    @AfterEach
+    void closeStream() {
+        reader.interrupt();
+    }
+
+    @Test
+    void committedWritesReachTheStream() throws Exception {
+        long packId = api().body(Map.of("name", "Weekend")).post("/api/pack")
+                .then().statusCode(201).extract().jsonPath().getLong("id");
+
+        JsonNode created = next();
+        assertEquals("pack", created.get("type").asText());
+        assertEquals(packId, created.get("id").asLong());
+        assertEquals(0, created.get("version").asLong());
+
+        long gearId = api().body(Map.of("name", "Bivy", "weightGrams", 450)).post("/api/gear")
+                .then().statusCode(201).extract().jsonPath().getLong("id");
+        assertEquals("gear", next().get("type").asText());
+
+        api().body(Map.of("gearId", gearId, "quantity", 1)).post("/api/pack/" + packId + "/gear")
+                .then().statusCode(201);
+        JsonNode added = next();
+        assertEquals(packId, added.get("id").asLong());
+        assertEquals(1, added.get("version").asLong());
+
+        api().delete("/api/pack/" + packId).then().statusCode(204);
+        JsonNode deleted = next();
+        assertEquals(packId, deleted.get("id").asLong());
+        assertEquals(true, deleted.get("version").isNull());
+    }
+
+    @Test
+    void writesFromAnotherInstanceReachTheStream() throws Exception {
+        // Any other session publishing on the channel stands in for a second instance
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            publish(connection, "{\"auth0Id\": \"" + subject + "\", \"type\": \"closet\", \"id\": 7, \"version\": 3}");
+            assertNull(received.poll(500, TimeUnit.MILLISECONDS), "delivered before commit");
+            connection.commit();
+            connection.setAutoCommit(true);
+        }
+
+        JsonNode notification = next();
+        assertEquals("closet", notification.get("type").asText());
+        assertEquals(7, notification.get("id").asLong());
+        assertEquals(3, notification.get("version").asLong());
+    }
+
+    @Test
+    void rolledBackWritesAreNotDelivered() throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            publish(connection, "{\"auth0Id\": \"" + subject + "\", \"type\": \"gear\", \"id\": 1, \"version\": 1}");
+            connection.rollback();
+            connection.setAutoCommit(true);
+        }
+        // Other accounts' notifications are not delivered either
+        try (Connection connection = dataSource.getConnection()) {
+            publish(connection, "{\"auth0Id\": \"someone-else\", \"type\": \"gear\", \"id\": 1, \"version\": 1}");
+        }
+
+        assertNull(received.poll(1, TimeUnit.SECONDS));
+    }
+
+    private static void publish(Connection connection, String payload) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT pg_notify('packtrace_changes', ?)")) {
+            statement.setString(1, payload);
+            statement.execute();
+        }
+    }
+
+    private JsonNode next() throws InterruptedException {
+        JsonNode notification = received.poll(10, TimeUnit.SECONDS);
+        assertNotNull(notification, "no notification arrived");
+        return notification;
+    }
+
+    private RequestSpecification api() {
+        return given().auth().oauth2(token).contentType(ContentType.JSON).accept(ContentType.JSON);
+    }
+}
@@ -0,0 +1,124 @@
+package com.packtrace.resource;
+
+import com.packtrace.OidcStubResource;
+import com.packtrace.TestIssuer;
+import io.quarkus.test.common.WithTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import io.restassured.response.ExtractableResponse;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.emptyString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Contents and the gear library answer If-None-Match with 304 until the data behind their tag changes.
+ */
+@QuarkusTest
+@WithTestResource(OidcStubResource.class)
+class ConditionalGetTest {
+
+    private static final String REVALIDATE = "no-cache, private";
+
+    private String token;
+
+    @BeforeEach
+    void signIn() {
+        token = TestIssuer.token(TestIssuer.newSubject());
+        api().get("/api/account").then().statusCode(200);
+    }
+
+    @Test
+    void packContentsRevalidateUntilTheyChange() {
+        long packId = create("/api/pack", Map.of("name", "Overnight"));
+        long gearId = create("/api/gear", Map.of("name", "Stove", "weightGrams", 80));
+        api().body(Map.of("gearId", gearId, "quantity", 1)).post("/api/pack/" + packId + "/gear")
+                .then().statusCode(201);
+
+        String path = "/api/pack/" + packId + "/gear";
+        String tag = get(path).header("ETag");
+        notModified(path, tag);
+
+        api().body(Map.of("gearId", gearId, "quantity", 2)).put(path + "/" + gearId).then().statusCode(200);
+
+        String changed = api().header("If-None-Match", tag).get(path)
+                .then().statusCode(200).body("[0].quantity", equalTo(2))
+                .extract().header("ETag");
+        assertNotEquals(tag, changed);
+        notModified(path, changed);
+    }
+
+    @Test
+    void closetContentsRevalidateUntilTheyChange() {
+        long closetId = create("/api/closet", Map.of("name", "Attic"));
+        long gearId = create("/api/gear", Map.of("name", "Tent", "weightGrams", 1200));
+        api().body(Map.of("gearId", gearId, "quantity", 1)).post("/api/closet/" + closetId + "/gear")
+                .then().statusCode(201);
+
+        String path = "/api/closet/" + closetId + "/gear";
+        String tag = get(path).header("ETag");
+        notModified(path, tag);
+
+        // Editing the gear itself changes what the closet's contents show
+        api().body(Map.of("name", "Tent", "weightGrams", 1100)).put("/api/gear/" + gearId).then().statusCode(200);
+
+        String changed = api().header("If-None-Match", tag).get(path)
+                .then().statusCode(200).body("$", hasSize(1))
+                .extract().header("ETag");
+        assertNotEquals(tag, changed);
+    }
+
+    @Test
+    void gearLibraryTagsDifferPerQueryAndRepresentation() {
+        create("/api/gear", Map.of("name", "Headlamp", "weightGrams", 60));
+
+        String all = get("/api/gear").header("ETag");
+        String firstPage = get("/api/gear?limit=1").header("ETag");
+        assertNotEquals(all, firstPage);
+        notModified("/api/gear", all);
+
+        String cbor = given().auth().oauth2(token).accept("application/cbor").get("/api/gear")
+                .then().statusCode(200).extract().header("ETag");
+        assertNotEquals(all, cbor);
+
+        // A JSON tag must not validate the CBOR body, or a client could be handed the wrong bytes
+        given().auth().oauth2(token).accept("application/cbor").header("If-None-Match", all).get("/api/gear")
+                .then().statusCode(200);
+
+        create("/api/gear", Map.of("name", "Spare batteries", "weightGrams", 24));
+        api().header("If-None-Match", all).get("/api/gear").then().statusCode(200).body("$", hasSize(2));
+    }
+
+    private ExtractableResponse<Response> get(String path) {
+        return api().get(path).then().statusCode(200)
+                .header("ETag", notNullValue())
+                .header("Cache-Control", equalTo(REVALIDATE))
+                .extract();
+    }
+
+    private void notModified(String path, String tag) {
+        api().header("If-None-Match", tag).get(path)
+                .then().statusCode(304)
+                .header("ETag", equalTo(tag))
+                .header("Cache-Control", equalTo(REVALIDATE))
+                .header("Vary", equalTo("Accept"))
+                .body(emptyString());
+    }
+
+    private long create(String path, Map<String, ?> body) {
+        return api().body(body).post(path).then().statusCode(201).extract().jsonPath().getLong("id");
+    }
+
+    private RequestSpecification api() {
+        return given().auth().oauth2(token).contentType(ContentType.JSON).accept(ContentType.JSON);
+    }
+}
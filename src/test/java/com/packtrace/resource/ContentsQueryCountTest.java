@@ -0,0 +1,84 @@
+package com.packtrace.resource;
+
+import com.packtrace.OidcStubResource;
+import com.packtrace.StatementLog;
+import com.packtrace.TestIssuer;
+import io.quarkus.test.common.WithTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import io.restassured.specification.RequestSpecification;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pack and closet contents must load in a fixed number of queries, however many items they hold.
+ */
+@QuarkusTest
+@WithTestResource(OidcStubResource.class)
+class ContentsQueryCountTest {
+
+    private static final int LARGE = 25;
+
+    private String token;
+
+    @BeforeEach
+    void signIn() {
+        token = TestIssuer.token(TestIssuer.newSubject());
+        api().get("/api/account").then().statusCode(200);
+    }
+
+    @Test
+    void packContentsCostTheSameForOneItemAndMany() {
+        long small = create("/api/pack", "Day hike");
+        long large = create("/api/pack", "Thru-hike");
+        fill("/api/pack/" + small + "/gear", 1);
+        fill("/api/pack/" + large + "/gear", LARGE);
+
+        assertEquals(queriesFor("/api/pack/" + small + "/gear", 1),
+                queriesFor("/api/pack/" + large + "/gear", LARGE));
+    }
+
+    @Test
+    void closetContentsCostTheSameForOneItemAndMany() {
+        long small = create("/api/closet", "Garage");
+        long large = create("/api/closet", "Basement");
+        fill("/api/closet/" + small + "/gear", 1);
+        fill("/api/closet/" + large + "/gear", LARGE);
+
+        assertEquals(queriesFor("/api/closet/" + small + "/gear", 1),
+                queriesFor("/api/closet/" + large + "/gear", LARGE));
+    }
+
+    private int queriesFor(String path, int items) {
+        StatementLog.start();
+        api().get(path).then().statusCode(200).body("$", hasSize(items));
+        int queries = StatementLog.stop().size();
+        assertTrue(queries > 0, "no statements were recorded for " + path);
+        return queries;
+    }
+
+    private long create(String path, String name) {
+        return api().body(Map.of("name", name)).post(path)
+                .then().statusCode(201).extract().jsonPath().getLong("id");
+    }
+
+    private void fill(String contentsPath, int items) {
+        for (int i = 0; i < items; i++) {
+            long gearId = api().body(Map.of("name", contentsPath + " item " + i, "weightGrams", 100 + i)).post("/api/gear")
+                    .then().statusCode(201).extract().jsonPath().getLong("id");
+            api().body(Map.of("gearId", gearId, "quantity", 1)).post(contentsPath)
+                    .then().statusCode(201);
+        }
+    }
+
+    private RequestSpecification api() {
+        return given().auth().oauth2(token).contentType(ContentType.JSON).accept(ContentType.JSON);
+    }
+}
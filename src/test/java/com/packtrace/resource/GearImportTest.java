@@ -0,0 +1,96 @@
+package com.packtrace.resource;
+
+import com.packtrace.OidcStubResource;
+import com.packtrace.TestIssuer;
+import io.quarkus.test.common.WithTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import io.restassured.specification.RequestSpecification;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+
+/**
+ * The import checks the target pack or closet in its insert statement; a refused import leaves no gear behind.
+ */
+@QuarkusTest
+@WithTestResource(OidcStubResource.class)
+class GearImportTest {
+
+    private static final String CSV = """
+            Item Name,Category,weight,unit,qty
+            Tarp,Shelter,310,g,1
+            Stakes,Shelter,1.5,oz,6
+            Stove,Kitchen,heavy,g,1
+            """;
+
+    private String token;
+
+    @BeforeEach
+    void signIn() {
+        token = TestIssuer.token(TestIssuer.newSubject());
+        api(token).get("/api/account").then().statusCode(200);
+    }
+
+    @Test
+    void importsIntoOwnPackAndCloset() {
+        long packId = create(token, "/api/pack");
+        long closetId = create(token, "/api/closet");
+
+        importCsv(token, "packId=" + packId + "&closetId=" + closetId).then().statusCode(200)
+                .body("imported", equalTo(2))
+                .body("rejected", equalTo(1))
+                .body("errors[0].line", equalTo(4));
+
+        api(token).get("/api/pack/" + packId + "/gear").then().statusCode(200)
+                .body("", hasSize(2))
+                .body("find { it.name == 'Stakes' }.weightGrams", equalTo(43))
+                .body("find { it.name == 'Stakes' }.quantity", equalTo(6));
+        api(token).get("/api/closet/" + closetId + "/gear").then().statusCode(200).body("", hasSize(2));
+    }
+
+    @Test
+    void refusesSomeoneElsesPackOrCloset() {
+        String otherToken = TestIssuer.token(TestIssuer.newSubject());
+        api(otherToken).get("/api/account").then().statusCode(200);
+        long otherPackId = create(otherToken, "/api/pack");
+        long otherClosetId = create(otherToken, "/api/closet");
+
+        importCsv(token, "packId=" + otherPackId).then().statusCode(403)
+                .body("message", equalTo("You do not own this pack"));
+        importCsv(token, "closetId=" + otherClosetId).then().statusCode(403)
+                .body("message", equalTo("You do not own this closet"));
+
+        api(token).get("/api/gear").then().statusCode(200).body("", hasSize(0));
+        api(otherToken).get("/api/pack/" + otherPackId + "/gear").then().statusCode(200).body("", hasSize(0));
+    }
+
+    @Test
+    void refusesAMissingPackOrCloset() {
+        long packId = create(token, "/api/pack");
+
+        importCsv(token, "packId=" + packId + "&closetId=" + Long.MAX_VALUE).then().statusCode(404)
+                .body("message", equalTo("Closet not found"));
+
+        api(token).get("/api/gear").then().statusCode(200).body("", hasSize(0));
+        api(token).get("/api/pack/" + packId + "/gear").then().statusCode(200).body("", hasSize(0));
+    }
+
+    private static long create(String token, String path) {
+        return api(token).contentType(ContentType.JSON).body(Map.of("name", "Import target")).post(path)
+                .then().statusCode(201).extract().jsonPath().getLong("id");
+    }
+
+    private static io.restassured.response.Response importCsv(String token, String query) {
+        return api(token).contentType("text/csv").body(CSV).post("/api/gear/import?" + query);
+    }
+
+    private static RequestSpecification api(String token) {
+        return given().auth().oauth2(token).accept(ContentType.JSON);
+    }
+}
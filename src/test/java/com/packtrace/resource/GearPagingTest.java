@@ -0,0 +1,107 @@
+package com.packtrace.resource;
+
+import com.packtrace.OidcStubResource;
+import com.packtrace.TestIssuer;
+import com.packtrace.dto.PageResponse;
+import io.quarkus.test.common.WithTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Following the next-page cursor through a library returns every item exactly once, in the order a single large
+ * page has, for each sort and with a filter. Names and weights repeat so that ties are broken by id across pages.
+ */
+@QuarkusTest
+@WithTestResource(OidcStubResource.class)
+class GearPagingTest {
+
+    private static final int ITEMS = 37;
+    private static final int PAGE_SIZE = 5;
+
+    private String token;
+
+    @BeforeEach
+    void seed() {
+        token = TestIssuer.token(TestIssuer.newSubject());
+        api().get("/api/account").then().statusCode(200);
+        // One import keeps the seeding within the per-caller rate limit. Names repeat every 7 items and contain
+        // the cursor's separator; weights repeat every 4
+        StringBuilder csv = new StringBuilder("name,weight,category\n");
+        for (int i = 0; i < ITEMS; i++)
+            csv.append("Item:").append((char) ('a' + i % 7)).append(" é,").append(100 + i % 4 * 25).append(',')
+                    .append(i % 3 == 0 ? "" : i % 3 == 1 ? "Shelter" : "Kitchen").append('\n');
+        api().contentType("text/csv; charset=UTF-8").body(csv.toString()).post("/api/gear/import")
+                .then().statusCode(200).body("imported", equalTo(ITEMS));
+    }
+
+    @Test
+    void cursorsVisitEveryItemOnceInSortOrder() {
+        for (String sort : List.of("name", "-name", "weight", "-weight")) {
+            for (String filter : List.of("", "&category=Shelter&minWeight=125")) {
+                String query = "sort=" + sort + filter;
+                List<Long> expected = ids(api().get("/api/gear?limit=500&" + query).then().statusCode(200).extract().response());
+
+                List<Long> paged = new ArrayList<>();
+                String cursor = null;
+                do {
+                    Response page = api().queryParam("after", cursor == null ? "" : cursor)
+                            .get("/api/gear?limit=" + PAGE_SIZE + "&" + query)
+                            .then().statusCode(200).extract().response();
+                    List<Long> pageIds = ids(page);
+                    assertTrue(pageIds.size() <= PAGE_SIZE, query);
+                    paged.addAll(pageIds);
+                    cursor = page.getHeader(PageResponse.NEXT_CURSOR_HEADER);
+                } while (cursor != null);
+
+                assertEquals(expected, paged, query);
+                assertEquals(paged.size(), new HashSet<>(paged).size(), query);
+            }
+        }
+    }
+
+    @Test
+    void descendingWeightIsOrderedByWeightThenIdDescending() {
+        List<Map<String, Object>> items = api().get("/api/gear?limit=500&sort=-weight").then().statusCode(200)
+                .extract().jsonPath().getList("");
+        assertEquals(ITEMS, items.size());
+        for (int i = 1; i < items.size(); i++) {
+            int previousWeight = (Integer) items.get(i - 1).get("weightGrams");
+            int weight = (Integer) items.get(i).get("weightGrams");
+            assertTrue(previousWeight > weight || previousWeight == weight
+                    && ((Number) items.get(i - 1).get("id")).longValue() > ((Number) items.get(i).get("id")).longValue());
+        }
+    }
+
+    @Test
+    void cursorsOnlyWorkForTheSortTheyWereIssuedFor() {
+        String cursor = api().get("/api/gear?limit=" + PAGE_SIZE + "&sort=weight").then().statusCode(200)
+                .extract().header(PageResponse.NEXT_CURSOR_HEADER);
+        assertNotNull(cursor);
+
+        api().queryParam("after", cursor).get("/api/gear?limit=" + PAGE_SIZE + "&sort=name").then().statusCode(400);
+        api().queryParam("after", "not a cursor").get("/api/gear?limit=" + PAGE_SIZE).then().statusCode(400);
+    }
+
+    private static List<Long> ids(Response response) {
+        return response.jsonPath().getList("id", Long.class);
+    }
+
+    private RequestSpecification api() {
+        return given().auth().oauth2(token).contentType(ContentType.JSON).accept(ContentType.JSON);
+    }
+}
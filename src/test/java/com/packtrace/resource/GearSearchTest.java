@@ -0,0 +1,79 @@
+package com.packtrace.resource;
+
+import com.packtrace.OidcStubResource;
+import com.packtrace.TestIssuer;
+import io.quarkus.test.common.WithTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import io.restassured.specification.RequestSpecification;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Search matches substrings of name, brand and category, tolerates typos, ranks name prefixes first and only ever
+ * looks at the caller's own library.
+ */
+@QuarkusTest
+@WithTestResource(OidcStubResource.class)
+class GearSearchTest {
+
+    private String token;
+
+    @BeforeEach
+    void seed() {
+        token = TestIssuer.token(TestIssuer.newSubject());
+        importGear(token, """
+                name,brand,category,weight
+                Zpacks tarp,Zpacks,Shelter,170
+                Tarptent Notch,Tarptent,Shelter,790
+                Down quilt,Enlightened Equipment,Sleep,620
+                Headlamp,Nitecore,Electronics,33
+                100% merino tee,,Clothing,140
+                """);
+
+        String otherToken = TestIssuer.token(TestIssuer.newSubject());
+        importGear(otherToken, "name,weight\nTarp,300\n");
+    }
+
+    @Test
+    void namePrefixesRankFirst() {
+        assertEquals(List.of("Tarptent Notch", "Zpacks tarp"), search("tarp", 20));
+        assertEquals(List.of("Tarptent Notch"), search("tarp", 1));
+    }
+
+    @Test
+    void brandAndCategoryAreSearchedToo() {
+        assertEquals(List.of("Down quilt"), search("enlightened", 20));
+        assertEquals(List.of("Headlamp"), search("electronics", 20));
+    }
+
+    @Test
+    void typosStillMatch() {
+        assertEquals(List.of("Headlamp"), search("headlmap", 20));
+    }
+
+    @Test
+    void likeWildcardsAreLiteral() {
+        assertEquals(List.of("100% merino tee"), search("100%", 20));
+        assertEquals(List.of(), search("_", 20));
+    }
+
+    private List<String> search(String query, int limit) {
+        return api().queryParam("q", query).queryParam("limit", limit).get("/api/gear/search")
+                .then().statusCode(200).extract().jsonPath().getList("name", String.class);
+    }
+
+    private static void importGear(String token, String csv) {
+        given().auth().oauth2(token).get("/api/account").then().statusCode(200);
+        given().auth().oauth2(token).contentType("text/csv").body(csv).post("/api/gear/import").then().statusCode(200);
+    }
+
+    private RequestSpecification api() {
+        return given().auth().oauth2(token).accept(ContentType.JSON);
+    }
+}
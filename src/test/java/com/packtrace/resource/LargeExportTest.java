@@ -0,0 +1,111 @@
+package com.packtrace.resource;
+
+import com.packtrace.OidcStubResource;
+import com.packtrace.TestIssuer;
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.test.common.WithTestResource;
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * An export far larger than the heap streams through it. The largeExportTest task runs this class alone
+ * with a capped -Xmx, so buffering the rows anywhere between the cursor and the socket fails it.
+ */
+@QuarkusTest
+@WithTestResource(OidcStubResource.class)
+@Tag("large-export")
+class LargeExportTest {
+
+    private static final int ROWS = 500_000;
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    @TestHTTPResource("/api/account/export")
+    URL exportUrl;
+
+    private String subject;
+
+    @BeforeEach
+    void seed() throws SQLException {
+        subject = TestIssuer.newSubject();
+        given().auth().oauth2(TestIssuer.token(subject)).get("/api/account").then().statusCode(200);
+
+        String sql = """
+                INSERT INTO gear (owner_id, name, brand, weight_grams, website_url, category)
+                SELECT a.id, 'Export test item ' || n, 'Outfitter ' || (n % 50), 1 + n % 2000,
+                       'https://gear.example.com/catalog/export-test-item-' || n, 'Category ' || (n % 12)
+                FROM account a, generate_series(1, ?) AS n
+                WHERE a.auth0_id = ?;
+                """;
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setInt(1, ROWS);
+            statement.setString(2, subject);
+            assertEquals(ROWS, statement.executeUpdate());
+        }
+    }
+
+    @AfterEach
+    void deleteAccount() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("DELETE FROM account WHERE auth0_id = ?")) {
+            statement.setString(1, subject);
+            statement.executeUpdate();
+        }
+    }
+
+    @Test
+    void exportStreamsEveryRowThroughASmallHeap() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(exportUrl.toString()))
+                .header("Authorization", "Bearer " + TestIssuer.token(subject))
+                .build();
+        // RestAssured buffers whole bodies, so read the lines as they arrive. Pinned to HTTP/1.1: left alone the
+        // client upgrades to h2c, whose server-side write queue this test does not cover
+        HttpResponse<InputStream> response = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build()
+                .send(request, HttpResponse.BodyHandlers.ofInputStream());
+        assertEquals(200, response.statusCode());
+
+        long bytes = 0;
+        int accounts = 0;
+        int gear = 0;
+        try (BufferedReader lines = new BufferedReader(new InputStreamReader(response.body(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = lines.readLine()) != null) {
+                bytes += line.length() + 1;
+                if (line.startsWith("{\"type\":\"account\""))
+                    accounts++;
+                else if (line.startsWith("{\"type\":\"gear\""))
+                    gear++;
+            }
+        }
+
+        assertEquals(1, accounts);
+        assertEquals(ROWS, gear);
+        // Otherwise the export could have fit in memory and the test would prove nothing
+        long maxHeap = Runtime.getRuntime().maxMemory();
+        assertTrue(bytes > maxHeap, bytes + " bytes exported through a " + maxHeap + " byte heap");
+    }
+}
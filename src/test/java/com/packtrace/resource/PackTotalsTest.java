@@ -0,0 +1,163 @@
+package com.packtrace.resource;
+
+import com.packtrace.OidcStubResource;
+import com.packtrace.TestIssuer;
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.test.common.WithTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import io.restassured.specification.RequestSpecification;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The trigger-maintained pack totals must equal a recomputation from pack_gear after every kind of write: single
+ * and batch edits, gear edits and deletes, imports, and concurrent additions to one pack.
+ */
+@QuarkusTest
+@WithTestResource(OidcStubResource.class)
+class PackTotalsTest {
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    private String token;
+
+    @BeforeEach
+    void signIn() {
+        token = TestIssuer.token(TestIssuer.newSubject());
+        api().get("/api/account").then().statusCode(200);
+    }
+
+    @Test
+    void totalsFollowEveryKindOfWrite() {
+        long packId = createPack();
+        long tent = createGear("Tent", 1200, "Shelter");
+        long stove = createGear("Stove", 80, "Kitchen");
+        long pot = createGear("Pot", 110, "Kitchen");
+        long jacket = createGear("Jacket", 300, null);
+
+        api().body(Map.of("gearId", tent, "quantity", 1)).post("/api/pack/" + packId + "/gear").then().statusCode(201);
+        assertTotalsMatch(packId);
+
+        api().body(Map.of("operations", List.of(
+                        Map.of("type", "ADD", "gearId", stove, "quantity", 1),
+                        Map.of("type", "ADD", "gearId", pot, "quantity", 2),
+                        Map.of("type", "ADD", "gearId", jacket, "quantity", 1),
+                        Map.of("type", "SET_QUANTITY", "gearId", tent, "quantity", 2))))
+                .patch("/api/pack/" + packId + "/gear").then().statusCode(200);
+        assertTotalsMatch(packId);
+
+        api().body(Map.of("gearId", pot, "quantity", 3)).put("/api/pack/" + packId + "/gear/" + pot).then().statusCode(200);
+        api().body(Map.of("name", "Stove", "weightGrams", 95, "category", "Cooking"))
+                .put("/api/gear/" + stove).then().statusCode(200);
+        assertTotalsMatch(packId);
+
+        api().delete("/api/pack/" + packId + "/gear/" + tent).then().statusCode(204);
+        api().delete("/api/gear/" + jacket).then().statusCode(204);
+        assertTotalsMatch(packId);
+
+        api().contentType("text/csv").body("name,category,weight,qty\nTarp,Shelter,310,1\nSpoon,Kitchen,15,2\n")
+                .post("/api/gear/import?packId=" + packId).then().statusCode(200);
+        assertTotalsMatch(packId);
+
+        api().body(Map.of("operations", List.of(
+                        Map.of("type", "REMOVE", "gearId", stove, "quantity", 0),
+                        Map.of("type", "SET_QUANTITY", "gearId", pot, "quantity", 0))))
+                .patch("/api/pack/" + packId + "/gear").then().statusCode(200);
+        assertTotalsMatch(packId);
+    }
+
+    @Test
+    void concurrentAdditionsToOnePackAreAllCounted() throws Exception {
+        long packId = createPack();
+        List<Long> gearIds = new ArrayList<>();
+        for (int i = 0; i < 24; i++)
+            gearIds.add(createGear("Item " + i, 10 + i, "Category " + i % 3));
+
+        List<Callable<Integer>> additions = new ArrayList<>();
+        for (long gearId : gearIds)
+            additions.add(() -> api().body(Map.of("gearId", gearId, "quantity", 2))
+                    .post("/api/pack/" + packId + "/gear").then().extract().statusCode());
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (Future<Integer> status : executor.invokeAll(additions))
+                assertEquals(201, status.get());
+        }
+
+        assertTotalsMatch(packId);
+    }
+
+    private void assertTotalsMatch(long packId) {
+        String recomputedSql = """
+                SELECT coalesce(g.category, '') AS category, sum(pg.quantity * g.weight_grams) AS grams,
+                       sum(pg.quantity) AS item_count
+                FROM pack_gear pg
+                JOIN gear g ON g.id = pg.gear_id
+                WHERE pg.pack_id = ?
+                GROUP BY coalesce(g.category, '');
+                """;
+        String categoryTotalsSql = "SELECT category, grams, item_count FROM pack_category_totals WHERE pack_id = ?";
+        String packTotalsSql = """
+                SELECT '' AS category, total_grams AS grams, item_count
+                FROM pack_totals
+                WHERE pack_id = ? AND item_count <> 0;
+                """;
+
+        Map<String, List<Long>> expected = query(recomputedSql, packId);
+        assertEquals(expected, query(categoryTotalsSql, packId));
+
+        long grams = expected.values().stream().mapToLong(totals -> totals.get(0)).sum();
+        long items = expected.values().stream().mapToLong(totals -> totals.get(1)).sum();
+        assertEquals(items == 0 ? Map.of() : Map.of("", List.of(grams, items)), query(packTotalsSql, packId));
+    }
+
+    // category -> [grams, item count]
+    private Map<String, List<Long>> query(String sql, long packId) {
+        Map<String, List<Long>> totals = new HashMap<>();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setLong(1, packId);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next())
+                    totals.put(resultSet.getString("category"),
+                            List.of(resultSet.getLong("grams"), resultSet.getLong("item_count")));
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        return totals;
+    }
+
+    private long createPack() {
+        return api().body(Map.of("name", "Totals")).post("/api/pack")
+                .then().statusCode(201).extract().jsonPath().getLong("id");
+    }
+
+    private long createGear(String name, int weightGrams, String category) {
+        Map<String, Object> gear = new HashMap<>(Map.of("name", name, "weightGrams", weightGrams));
+        if (category != null)
+            gear.put("category", category);
+        return api().body(gear).post("/api/gear").then().statusCode(201).extract().jsonPath().getLong("id");
+    }
+
+    private RequestSpecification api() {
+        return given().auth().oauth2(token).contentType(ContentType.JSON).accept(ContentType.JSON);
+    }
+}
@@ -0,0 +1,25 @@
+package com.packtrace.resource;
+
+import com.packtrace.OidcStubResource;
+import io.quarkus.test.common.WithTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+
+import java.util.Map;
+
+/**
+ * The same round trips through the reactive repository, which builds its page query with the same cursor.
+ */
+@QuarkusTest
+@TestProfile(ReactiveGearPagingTest.Reactive.class)
+@WithTestResource(OidcStubResource.class)
+class ReactiveGearPagingTest extends GearPagingTest {
+
+    public static class Reactive implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("packtrace.repository.reactive", "true");
+        }
+    }
+}
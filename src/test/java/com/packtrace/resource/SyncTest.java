@@ -0,0 +1,189 @@
+package com.packtrace.resource;
+
+import com.packtrace.OidcStubResource;
+import com.packtrace.TestIssuer;
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.test.common.WithTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import io.restassured.path.json.JsonPath;
+import io.restassured.specification.RequestSpecification;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * What the trigger-written change log hands to /sync after creates, updates and deletes: the latest state of each
+ * changed row, tombstones for deleted ones, and nothing for writes that only bump a contents version.
+ */
+@QuarkusTest
+@WithTestResource(OidcStubResource.class)
+class SyncTest {
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    private String subject;
+    private String token;
+
+    @BeforeEach
+    void signIn() {
+        subject = TestIssuer.newSubject();
+        token = TestIssuer.token(subject);
+        api().get("/api/account").then().statusCode(200);
+    }
+
+    @Test
+    void eachSyncCarriesTheChangesSinceThePreviousOne() {
+        String since = startToken();
+
+        long gearId = create("/api/gear", Map.of("name", "Quilt", "weightGrams", 620, "category", "Sleep"));
+        long packId = create("/api/pack", Map.of("name", "Weekend"));
+        long closetId = create("/api/closet", Map.of("name", "Garage"));
+        api().body(Map.of("gearId", gearId, "quantity", 2)).post("/api/pack/" + packId + "/gear").then().statusCode(201);
+        String otherToken = TestIssuer.token(TestIssuer.newSubject());
+        given().auth().oauth2(otherToken).get("/api/account").then().statusCode(200);
+        given().auth().oauth2(otherToken).contentType(ContentType.JSON).body(Map.of("name", "Not mine"))
+                .post("/api/pack").then().statusCode(201);
+
+        Sync created = sync(since, 500);
+        assertEquals(Set.of("gear:" + gearId, "pack:" + packId, "closet:" + closetId, "pack_gear:" + packId + ":" + gearId),
+                created.changes().keySet());
+        assertEquals("Quilt", created.field("gear:" + gearId, "gear.name"));
+        assertEquals(620, created.field("gear:" + gearId, "gear.weightGrams"));
+        assertEquals("Weekend", created.field("pack:" + packId, "pack.name"));
+        assertEquals(2, created.field("pack_gear:" + packId + ":" + gearId, "quantity"));
+
+        api().body(Map.of("name", "Long weekend")).put("/api/pack/" + packId).then().statusCode(200);
+        api().body(Map.of("gearId", gearId, "quantity", 3)).put("/api/pack/" + packId + "/gear/" + gearId).then().statusCode(200);
+
+        Sync updated = sync(created.token(), 500);
+        assertEquals(Set.of("pack:" + packId, "pack_gear:" + packId + ":" + gearId), updated.changes().keySet());
+        assertEquals("Long weekend", updated.field("pack:" + packId, "pack.name"));
+        assertEquals(3, updated.field("pack_gear:" + packId + ":" + gearId, "quantity"));
+
+        api().delete("/api/gear/" + gearId).then().statusCode(204);
+        api().delete("/api/closet/" + closetId).then().statusCode(204);
+
+        Sync deleted = sync(updated.token(), 500);
+        assertEquals(Set.of("gear:" + gearId, "closet:" + closetId, "pack_gear:" + packId + ":" + gearId),
+                deleted.changes().keySet());
+        for (Map<String, Object> change : deleted.changes().values()) {
+            assertEquals(true, change.get("deleted"));
+            assertNull(change.get("gear"));
+        }
+
+        assertEquals(Set.of(), sync(deleted.token(), 500).changes().keySet());
+    }
+
+    @Test
+    void contentsOnlyChangesDoNotLogTheContainer() throws SQLException {
+        long gearId = create("/api/gear", Map.of("name", "Stove", "weightGrams", 80));
+        long packId = create("/api/pack", Map.of("name", "Overnight"));
+        api().body(Map.of("gearId", gearId, "quantity", 1)).post("/api/pack/" + packId + "/gear").then().statusCode(201);
+        api().body(Map.of("name", "Stove", "weightGrams", 95)).put("/api/gear/" + gearId).then().statusCode(200);
+
+        // The pack's version moved twice, but only its creation is a change to the pack row itself
+        assertEquals(List.of("pack:false"), logged("pack", packId));
+        assertEquals(List.of("gear:false", "gear:false"), logged("gear", gearId));
+        assertEquals(List.of("pack_gear:false"), logged("pack_gear", packId));
+    }
+
+    @Test
+    void smallPagesDeliverTheSameChanges() {
+        String since = startToken();
+        for (int i = 0; i < 5; i++)
+            create("/api/gear", Map.of("name", "Item " + i, "weightGrams", 10 + i));
+        long packId = create("/api/pack", Map.of("name", "Paged"));
+        api().body(Map.of("name", "Paged again")).put("/api/pack/" + packId).then().statusCode(200);
+
+        Sync whole = sync(since, 500);
+        Sync paged = sync(since, 1);
+
+        assertEquals(6, whole.changes().size());
+        assertEquals(whole.changes().keySet(), paged.changes().keySet());
+        assertEquals("Paged again", paged.field("pack:" + packId, "pack.name"));
+        assertTrue(paged.pages() >= 7, "expected one page per log row");
+    }
+
+    private record Sync(Map<String, Map<String, Object>> changes, String token, int pages) {
+        // A field of one change, e.g. "pack.name"
+        Object field(String key, String path) {
+            Object value = changes.get(key);
+            for (String name : path.split("\\."))
+                value = value == null ? null : ((Map<?, ?>) value).get(name);
+            return value;
+        }
+    }
+
+    private String startToken() {
+        return api().get("/api/sync").then().statusCode(200).extract().jsonPath().getString("token");
+    }
+
+    // Follows hasMore to the end; a later change to the same row replaces an earlier one, as a client would apply it
+    private Sync sync(String since, int limit) {
+        Map<String, Map<String, Object>> changes = new LinkedHashMap<>();
+        String next = since;
+        int pages = 0;
+        boolean hasMore;
+        do {
+            JsonPath page = api().queryParam("since", next).queryParam("limit", limit).get("/api/sync")
+                    .then().statusCode(200).extract().jsonPath();
+            pages++;
+            for (Map<String, Object> change : page.<Map<String, Object>>getList("changes")) {
+                String key = change.get("type") + ":" + change.get("id")
+                        + (change.get("gearId") == null ? "" : ":" + change.get("gearId"));
+                changes.remove(key);
+                changes.put(key, change);
+            }
+            next = page.getString("token");
+            hasMore = page.getBoolean("hasMore");
+        } while (hasMore);
+        return new Sync(changes, next, pages);
+    }
+
+    private List<String> logged(String entityType, long entityId) throws SQLException {
+        String sql = """
+                SELECT l.entity_type, l.deleted
+                FROM change_log l
+                JOIN account a ON a.id = l.account_id
+                WHERE a.auth0_id = ? AND l.entity_type = ? AND l.entity_id = ?
+                ORDER BY l.seq;
+                """;
+        List<String> rows = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, subject);
+            statement.setString(2, entityType);
+            statement.setLong(3, entityId);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next())
+                    rows.add(resultSet.getString("entity_type") + ":" + resultSet.getBoolean("deleted"));
+            }
+        }
+        return rows;
+    }
+
+    private long create(String path, Map<String, Object> body) {
+        return api().body(body).post(path).then().statusCode(201).extract().jsonPath().getLong("id");
+    }
+
+    private RequestSpecification api() {
+        return given().auth().oauth2(token).contentType(ContentType.JSON).accept(ContentType.JSON);
+    }
+}
@@ -0,0 +1,100 @@
+package com.packtrace.rest;
+
+import com.packtrace.OidcStubResource;
+import com.packtrace.TestIssuer;
+import com.packtrace.repository.DataSourceRouter;
+import com.packtrace.repository.DataSourceRouter.ReadSource;
+import io.quarkus.test.common.WithTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.http.ContentType;
+import io.restassured.specification.RequestSpecification;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The last-write cookie keeps a caller on the primary on any instance. A subject that never wrote through this
+ * instance stands in for a caller whose write went to another one.
+ */
+@QuarkusTest
+@TestProfile(ReplicaStickinessTest.ReplicaEnabled.class)
+@WithTestResource(OidcStubResource.class)
+class ReplicaStickinessTest {
+
+    private static final long STICKY_MILLIS = 2000;
+
+    public static class ReplicaEnabled implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("packtrace.replica.enabled", "true",
+                    "packtrace.replica.sticky-after-write", STICKY_MILLIS + "ms");
+        }
+    }
+
+    @Inject
+    DataSourceRouter dataSourceRouter;
+
+    private String subject;
+    private String token;
+
+    @BeforeEach
+    void signIn() {
+        subject = TestIssuer.newSubject();
+        token = TestIssuer.token(subject);
+        api().get("/api/account").then().statusCode(200);
+    }
+
+    @Test
+    void successfulWritesReturnTheCookie() {
+        assertEquals(ReadSource.REPLICA, dataSourceRouter.chooseSource(subject));
+
+        api().body(Map.of("name", "Alpine")).post("/api/pack").then().statusCode(201)
+                .header("Set-Cookie", allOf(containsString(ReplicaStickinessFilter.LAST_WRITE_COOKIE + "="),
+                        containsString("Max-Age=2"), containsString("HttpOnly"), containsString("SameSite=Strict")));
+
+        assertEquals(ReadSource.PRIMARY, dataSourceRouter.chooseSource(subject));
+    }
+
+    @Test
+    void aRecentWriteElsewherePinsReadsHere() {
+        readWithCookie(System.currentTimeMillis() - 500);
+
+        assertEquals(ReadSource.PRIMARY, dataSourceRouter.chooseSource(subject));
+    }
+
+    @Test
+    void anExpiredWriteDoesNotPinReads() {
+        readWithCookie(System.currentTimeMillis() - STICKY_MILLIS - 1000);
+        readWithCookie("not-a-time");
+
+        assertEquals(ReadSource.REPLICA, dataSourceRouter.chooseSource(subject));
+    }
+
+    @Test
+    void aWriteTimeFromTheFuturePinsReadsForOneWindowOnly() throws InterruptedException {
+        readWithCookie(System.currentTimeMillis() + 3_600_000);
+        assertEquals(ReadSource.PRIMARY, dataSourceRouter.chooseSource(subject));
+
+        Thread.sleep(STICKY_MILLIS + 200);
+
+        assertEquals(ReadSource.REPLICA, dataSourceRouter.chooseSource(subject));
+    }
+
+    private void readWithCookie(Object writtenAt) {
+        api().cookie(ReplicaStickinessFilter.LAST_WRITE_COOKIE, String.valueOf(writtenAt))
+                .get("/api/pack").then().statusCode(200);
+    }
+
+    private RequestSpecification api() {
+        return given().auth().oauth2(token).contentType(ContentType.JSON).accept(ContentType.JSON);
+    }
+}
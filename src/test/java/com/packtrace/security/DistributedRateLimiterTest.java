@@ -0,0 +1,146 @@
+package com.packtrace.security;
+
+import com.packtrace.OidcStubResource;
+import com.packtrace.TestIssuer;
+import io.quarkus.test.common.WithTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.specification.RequestSpecification;
+import org.eclipse.microprofile.config.ConfigProvider;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Two application instances share one general bucket (100 per minute) in Postgres. The test application is one
+ * instance; the other is the packaged application (build/quarkus-app, built by quarkusBuild) started in its own
+ * JVM against the same database and issuer. Run with {@code gradle multiInstanceTest}.
+ */
+@Tag("multi-instance")
+@QuarkusTest
+@TestProfile(DistributedRateLimiterTest.Distributed.class)
+@WithTestResource(OidcStubResource.class)
+class DistributedRateLimiterTest {
+
+    private static final long CAPACITY = 100;
+    private static final Path APPLICATION = Path.of("build", "quarkus-app", "quarkus-run.jar");
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(60);
+
+    public static class Distributed implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("packtrace.rate-limit.distributed.enabled", "true");
+        }
+    }
+
+    @ConfigProperty(name = "quarkus.http.test-port")
+    int port;
+
+    private Process secondInstance;
+    private int secondPort;
+
+    @BeforeEach
+    void startSecondInstance() throws IOException, InterruptedException {
+        assertTrue(Files.exists(APPLICATION), APPLICATION + " is missing; run gradle quarkusBuild first");
+        secondPort = freePort();
+        int managementPort = freePort();
+        String issuer = config("quarkus.oidc.auth-server-url");
+
+        ProcessBuilder builder = new ProcessBuilder(List.of(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(), "-Xmx256m",
+                "-Dquarkus.http.port=" + secondPort,
+                "-Dquarkus.management.port=" + managementPort,
+                "-Dpacktrace.rate-limit.distributed.enabled=true",
+                "-jar", APPLICATION.toString()));
+        builder.environment().putAll(Map.of(
+                "DB_URL", config("quarkus.datasource.jdbc.url"),
+                "DB_USER", config("quarkus.datasource.username"),
+                "DB_PASSWORD", config("quarkus.datasource.password"),
+                "AUTH0_DOMAIN", issuer,
+                "AUTH0_AUDIENCE", config("quarkus.oidc.token.audience")));
+        builder.redirectErrorStream(true).redirectOutput(Path.of("build", "second-instance.log").toFile());
+        secondInstance = builder.start();
+
+        awaitStartup(URI.create("http://localhost:" + managementPort + "/q/metrics"));
+    }
+
+    @AfterEach
+    void stopSecondInstance() throws InterruptedException {
+        if (secondInstance == null)
+            return;
+        secondInstance.destroy();
+        if (!secondInstance.waitFor(20, TimeUnit.SECONDS))
+            secondInstance.destroyForcibly();
+    }
+
+    @Test
+    void instancesTogetherAdmitExactlyTheSharedCapacity() {
+        String token = TestIssuer.token(TestIssuer.newSubject());
+        api(token, port).get("/api/account").then().statusCode(200);
+        List<Integer> ports = List.of(port, secondPort);
+
+        long[] admitted = new long[ports.size()];
+        for (int attempt = 0; attempt < CAPACITY * 4; attempt++) {
+            int instance = attempt % ports.size();
+            int status = api(token, ports.get(instance)).get("/api/pack").then().extract().statusCode();
+            if (status == 200)
+                admitted[instance]++;
+            else
+                assertEquals(429, status);
+        }
+
+        assertEquals(CAPACITY, admitted[0] + admitted[1]);
+        assertTrue(admitted[0] > 0 && admitted[1] > 0, "both instances should have drawn on the shared bucket");
+    }
+
+    private static RequestSpecification api(String token, int port) {
+        return given().port(port).auth().oauth2(token);
+    }
+
+    private static String config(String name) {
+        return ConfigProvider.getConfig().getValue(name, String.class);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private void awaitStartup(URI uri) throws InterruptedException {
+        HttpClient client = HttpClient.newHttpClient();
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!secondInstance.isAlive())
+                throw new IllegalStateException("The second instance exited; see build/second-instance.log");
+            try {
+                if (client.send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.discarding()).statusCode() == 200)
+                    return;
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            Thread.sleep(250);
+        }
+        throw new IllegalStateException("The second instance did not start within " + STARTUP_TIMEOUT);
+    }
+}
@@ -0,0 +1,61 @@
+package com.packtrace.security;
+
+import com.packtrace.OidcStubResource;
+import com.packtrace.TestIssuer;
+import io.quarkus.test.common.WithTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A verified token is served from {@link VerifiedTokenCache} until its signing key is withdrawn.
+ */
+@QuarkusTest
+@WithTestResource(OidcStubResource.class)
+class VerifiedTokenCacheTest {
+
+    @Inject
+    VerifiedTokenCache tokenCache;
+
+    @Inject
+    JwksWatcher jwksWatcher;
+
+    @Test
+    void repeatedRequestsReuseTheVerifiedIdentity() {
+        String token = TestIssuer.token(TestIssuer.newSubject());
+        getAccount(token, 200);
+        long hits = tokenCache.stats().hitCount();
+
+        getAccount(token, 200);
+
+        assertEquals(hits + 1, tokenCache.stats().hitCount());
+        assertTrue(tokenCache.size() >= 1);
+    }
+
+    @Test
+    void withdrawingASigningKeyClearsTheCache() {
+        String subject = TestIssuer.newSubject();
+        String oldToken = TestIssuer.token(subject);
+        getAccount(oldToken, 200);
+        jwksWatcher.checkSigningKeys();
+
+        TestIssuer.rotateKey();
+        TestIssuer.withdrawKey(TestIssuer.keyId(oldToken));
+        jwksWatcher.checkSigningKeys();
+        assertEquals(0, tokenCache.size());
+
+        // A token signed with the new key makes OIDC reload the key set, after which the old token fails
+        getAccount(TestIssuer.token(subject), 200);
+        long hits = tokenCache.stats().hitCount();
+        getAccount(oldToken, 401);
+        assertEquals(hits, tokenCache.stats().hitCount());
+    }
+
+    private static void getAccount(String token, int status) {
+        given().auth().oauth2(token).get("/api/account").then().statusCode(status);
+    }
+}
@@ -0,0 +1,118 @@
+package com.packtrace.service;
+
+import com.packtrace.OidcStubResource;
+import com.packtrace.TestIssuer;
+import com.packtrace.model.Account;
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.test.common.WithTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * First logins that race for the same username each get their own suffix, and racing first logins for one subject
+ * create one account.
+ */
+@QuarkusTest
+@WithTestResource(OidcStubResource.class)
+class AccountBootstrapTest {
+
+    private static final int LOGINS = 16;
+
+    @Inject
+    AccountService accountService;
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    @Test
+    void concurrentSignupsWithOneNameGetDistinctSuffixes() throws Exception {
+        String base = uniqueBaseName();
+
+        List<Account> accounts = concurrently(i -> accountService.getOrCreateAccount(TestIssuer.newSubject(), base));
+
+        Set<String> expected = new HashSet<>(Set.of(base));
+        for (int suffix = 1; suffix < LOGINS; suffix++)
+            expected.add(base + "-" + suffix);
+        assertEquals(expected, usernames(accounts));
+    }
+
+    @Test
+    void namesTakenOutsideTheCounterAreSkipped() throws Exception {
+        String base = uniqueBaseName();
+        // An account created before the counter existed, holding the name the counter hands out next
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("INSERT INTO account (auth0_id, username) VALUES (?, ?)")) {
+            statement.setString(1, TestIssuer.newSubject());
+            statement.setString(2, base + "-1");
+            statement.executeUpdate();
+        }
+        accountService.getOrCreateAccount(TestIssuer.newSubject(), base);
+
+        List<Account> accounts = concurrently(i -> accountService.getOrCreateAccount(TestIssuer.newSubject(), base));
+
+        Set<String> usernames = usernames(accounts);
+        assertEquals(LOGINS, usernames.size());
+        assertFalse(usernames.contains(base));
+        assertFalse(usernames.contains(base + "-1"));
+    }
+
+    @Test
+    void concurrentFirstLoginsForOneSubjectCreateOneAccount() throws Exception {
+        String subject = TestIssuer.newSubject();
+        String base = uniqueBaseName();
+
+        List<Account> accounts = concurrently(i -> accountService.getOrCreateAccount(subject, base));
+
+        assertEquals(1, accounts.stream().map(Account::getId).distinct().count());
+        assertEquals(Set.of(base), usernames(accounts));
+    }
+
+    private static String uniqueBaseName() {
+        return "hiker" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    private static Set<String> usernames(List<Account> accounts) {
+        Set<String> usernames = new HashSet<>();
+        for (Account account : accounts)
+            usernames.add(account.getUsername());
+        return usernames;
+    }
+
+    // Runs the logins together: every thread waits at the gate until all have started
+    private static List<Account> concurrently(IntFunction<Account> login) throws Exception {
+        CountDownLatch gate = new CountDownLatch(LOGINS);
+        List<Callable<Account>> logins = new ArrayList<>();
+        for (int i = 0; i < LOGINS; i++) {
+            int index = i;
+            logins.add(() -> {
+                gate.countDown();
+                gate.await();
+                return login.apply(index);
+            });
+        }
+        List<Account> accounts = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(LOGINS)) {
+            for (Future<Account> account : executor.invokeAll(logins))
+                accounts.add(account.get());
+        }
+        return accounts;
+    }
+}